@@ -0,0 +1,66 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.tris.TrisAction;
+import com.lostrucos.jabtbg.tris.TrisGameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link MCTSNode#selectChild(double, double)} with the stream-based selection it replaced,
+ * which streamed the values of a hash map of the children. The map is built once, so that only the selection is measured.
+ * Run it with {@code ./gradlew :lib:jmh}, adding {@code -prof gc} to the JMH arguments to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectChildBenchmark {
+    private static final double EXPLORATION_CONSTANT = Math.sqrt(2);
+
+    @Param({"9", "64", "256"})
+    private int numChildren;
+
+    private MCTSNode<TrisGameState, TrisAction> node;
+    private Map<TrisAction, MCTSNode<TrisGameState, TrisAction>> childMap;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        node = new MCTSNode<>(null, null);
+        for (int i = 0; i < numChildren; i++) {
+            MCTSNode<TrisGameState, TrisAction> child = node.getOrCreateChild(new TrisAction(i, 0, 0), a -> new MCTSNode<>(null, node));
+            int visits = 1 + random.nextInt(1000);
+            for (int v = 0; v < visits; v++) {
+                child.updateNodeStats(random.nextDouble());
+                node.updateNodeStats(0.0);
+            }
+        }
+        childMap = new HashMap<>(node.getChildNodes());
+    }
+
+    @Benchmark
+    public MCTSNode<TrisGameState, TrisAction> selectChild() {
+        return node.selectChild(EXPLORATION_CONSTANT, 0.0);
+    }
+
+    @Benchmark
+    public MCTSNode<TrisGameState, TrisAction> streamSelectChild() {
+        return childMap.values().stream()
+                .max(Comparator.comparingDouble(child -> {
+                    if (child.getVisitCount() == 0) {
+                        return Double.POSITIVE_INFINITY;
+                    }
+                    double exploitation = child.getTotalReward() / child.getVisitCount();
+                    double exploration = Math.sqrt(Math.log(node.getVisitCount()) / child.getVisitCount());
+                    return exploitation + EXPLORATION_CONSTANT * exploration;
+                }))
+                .orElseThrow(() -> new IllegalStateException("No children to select"));
+    }
+}
@@ -0,0 +1,138 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.InformationSet;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link CFRPolicy} holding the normalized average strategy of every information set of some {@link CFRTables},
+ * frozen at the time it is built: the following training doesn't change it.
+ * The probabilities are stored as cumulative distributions in one array, so that an action is found
+ * with one hash lookup and a scan of the actions of the information set.
+ * Information sets restored from a {@link CFRCheckpoint} and not reached again since are looked up by key.
+ * The actions of every information set are listed by {@link InformationSet#getPlayerActions(int)},
+ * as by {@link MappedAverageStrategyPolicy}.
+ */
+public final class AverageStrategyPolicy<T extends GameState<E>, E extends Action> implements CFRPolicy<T, E> {
+    private final Map<InformationSet<T, E>, Integer> ids;
+    private final int[] offsets;
+    private final double[] cumulativeProbabilities;
+    private final InformationSetKey<T, E> restoredKey;
+    private final Map<Long, double[]> restoredProbabilities;
+
+    /**
+     * Constructs a new policy from the average strategies currently in the given tables.
+     * The tables must not be trained while the policy is built.
+     *
+     * @param tables the CFR tables.
+     */
+    public AverageStrategyPolicy(CFRTables<T, E> tables) {
+        int size = tables.size();
+        Map<InformationSet<T, E>, Integer> idMap = new HashMap<>(size * 2);
+        this.offsets = new int[size + 1];
+        for (int id = 0; id < size; id++) {
+            offsets[id + 1] = offsets[id] + tables.getActionCount(id);
+        }
+        this.cumulativeProbabilities = new double[offsets[size]];
+        double[] strategy = new double[0];
+        for (int id = 0; id < size; id++) {
+            int actionCount = tables.getActionCount(id);
+            if (strategy.length < actionCount) {
+                strategy = new double[actionCount];
+            }
+            tables.getAverageStrategy(id, strategy);
+            accumulate(strategy, cumulativeProbabilities, offsets[id], actionCount);
+            idMap.put(tables.getInformationSet(id), id);
+        }
+        this.ids = Collections.unmodifiableMap(idMap);
+
+        this.restoredKey = tables.getRestoredKey();
+        Map<Long, double[]> restoredMap = new HashMap<>();
+        for (Map.Entry<Long, double[]> entry : tables.getRestoredValues().entrySet()) {
+            double[] values = entry.getValue();
+            int actionCount = values.length / 2;
+            double normalizingSum = 0.0;
+            for (int i = 0; i < actionCount; i++) {
+                normalizingSum += values[actionCount + i];
+            }
+            double[] restoredStrategy = new double[actionCount];
+            for (int i = 0; i < actionCount; i++) {
+                restoredStrategy[i] = normalizingSum > 0 ? values[actionCount + i] / normalizingSum : 1.0 / actionCount;
+            }
+            double[] restoredCumulativeProbabilities = new double[actionCount];
+            accumulate(restoredStrategy, restoredCumulativeProbabilities, 0, actionCount);
+            restoredMap.put(entry.getKey(), restoredCumulativeProbabilities);
+        }
+        this.restoredProbabilities = Collections.unmodifiableMap(restoredMap);
+    }
+
+    private static void accumulate(double[] strategy, double[] cumulativeProbabilities, int offset, int actionCount) {
+        double cumulativeProbability = 0.0;
+        for (int i = 0; i < actionCount; i++) {
+            cumulativeProbability += strategy[i];
+            cumulativeProbabilities[offset + i] = cumulativeProbability;
+        }
+        cumulativeProbabilities[offset + actionCount - 1] = 1.0; // Rounding must never leave the last action out
+    }
+
+    @Override
+    public E sampleAction(InformationSet<T, E> informationSet, RandomGenerator random) {
+        Integer id = ids.get(informationSet);
+        if (id == null) {
+            double[] restored = getRestoredProbabilities(informationSet);
+            if (restored == null) return null;
+            double randomValue = random.nextDouble();
+            int index = 0;
+            while (index < restored.length - 1 && randomValue >= restored[index]) {
+                index++;
+            }
+            return getActions(informationSet, restored.length).get(index);
+        }
+        double randomValue = random.nextDouble();
+        int end = offsets[id + 1] - 1;
+        int index = offsets[id];
+        while (index < end && randomValue >= cumulativeProbabilities[index]) {
+            index++;
+        }
+        return getActions(informationSet, offsets[id + 1] - offsets[id]).get(index - offsets[id]);
+    }
+
+    @Override
+    public double getProbability(InformationSet<T, E> informationSet, E action) {
+        Integer id = ids.get(informationSet);
+        if (id == null) {
+            double[] restored = getRestoredProbabilities(informationSet);
+            if (restored == null) return 0.0;
+            int index = getActions(informationSet, restored.length).indexOf(action);
+            if (index < 0) return 0.0;
+            return index == 0 ? restored[0] : restored[index] - restored[index - 1];
+        }
+        int index = getActions(informationSet, offsets[id + 1] - offsets[id]).indexOf(action);
+        if (index < 0) return 0.0;
+        int position = offsets[id] + index;
+        return index == 0 ? cumulativeProbabilities[position]
+                : cumulativeProbabilities[position] - cumulativeProbabilities[position - 1];
+    }
+
+    private double[] getRestoredProbabilities(InformationSet<T, E> informationSet) {
+        return restoredKey == null || restoredProbabilities.isEmpty() ? null
+                : restoredProbabilities.get(restoredKey.getKey(informationSet));
+    }
+
+    private List<E> getActions(InformationSet<T, E> informationSet, int actionCount) {
+        List<E> actions = informationSet.getPlayerActions(informationSet.getPlayerIndex());
+        if (actions.size() != actionCount) {
+            throw new IllegalStateException("The information set has " + actions.size()
+                    + " actions, but the policy has " + actionCount);
+        }
+        return actions;
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1 + restoredProbabilities.size();
+    }
+}
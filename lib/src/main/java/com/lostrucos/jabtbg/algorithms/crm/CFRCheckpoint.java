@@ -0,0 +1,308 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Saves the tables of a {@link CFRMAlgorithm} to a compact binary file, and restores them to resume the training.
+ * Information sets are identified by the 64-bit keys of an {@link InformationSetKey}, and their actions by their index,
+ * so the game must list the actions of an information set in the same order in every process.
+ * A checkpoint file holds a header (magic number, version, iteration, sampling, variant, number of information sets) followed,
+ * for every information set, by its key, its number of actions, its regrets and its cumulative strategies.
+ * Files are written to a temporary file first and then moved over the previous checkpoint,
+ * so a crash while saving never leaves a corrupt checkpoint behind.
+ * A checkpoint is only restored into an algorithm set to the same sampling and variant, since the saved values
+ * are weighted and discounted by the rules of the variant it was trained with.
+ *
+ * The final average strategy can also be exported with {@link #exportPolicy(CFRMAlgorithm, Path)}
+ * to the file format read by {@link MappedAverageStrategyPolicy}.
+ */
+public class CFRCheckpoint<T extends GameState<E>, E extends Action> {
+    static final int CHECKPOINT_MAGIC = 0x43465243; // "CFRC"
+    static final int POLICY_MAGIC = 0x43465250; // "CFRP"
+    static final int CHECKPOINT_VERSION = 2;
+    static final int POLICY_VERSION = 1;
+    static final int CHECKPOINT_HEADER_BYTES = 5 * Integer.BYTES + CFRVariant.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final InformationSetKey<T, E> key;
+    private int interval;
+
+    /**
+     * Constructs a new CFRCheckpoint.
+     *
+     * @param path the checkpoint file.
+     * @param key  the key of the information sets.
+     */
+    public CFRCheckpoint(Path path, InformationSetKey<T, E> key) {
+        this.path = path;
+        this.key = key;
+    }
+
+    /**
+     * Sets how often a training saves this checkpoint, once it is set on the algorithm with
+     * {@link CFRMAlgorithm#setCheckpoint(CFRCheckpoint)}. The default is 0, so the checkpoint is only saved explicitly.
+     *
+     * @param interval the number of iterations between two saves, or 0 to never save automatically.
+     */
+    public void setInterval(int interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("The interval must not be negative");
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * Saves the checkpoint if a multiple of the interval was reached since the given iteration.
+     * Called by the algorithm after every iteration, and by {@link ParallelCFRTrainer} after every round.
+     *
+     * @param algorithm the algorithm being trained.
+     * @param previousIteration the iteration count when this method was last called.
+     */
+    void afterIterations(CFRMAlgorithm<T, E> algorithm, int previousIteration) {
+        if (interval > 0 && algorithm.getIteration() / interval > previousIteration / interval) {
+            save(algorithm);
+        }
+    }
+
+    /**
+     * Saves the tables and the iteration count of the given algorithm. Must not run concurrently with the training.
+     *
+     * @param algorithm the algorithm.
+     * @throws UncheckedIOException if the file can't be written.
+     * @throws IllegalStateException if two information sets have the same key.
+     */
+    public void save(CFRMAlgorithm<T, E> algorithm) {
+        CFRTables<T, E> tables = algorithm.getTables();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(CHECKPOINT_MAGIC).putInt(CHECKPOINT_VERSION).putInt(algorithm.getIteration())
+                    .putInt(algorithm.getSampling().ordinal());
+            algorithm.getVariant().write(buffer);
+            buffer.putInt(countEntries(tables));
+            Set<Long> keys = new HashSet<>();
+            forEachEntry(tables, (entryKey, actionCount, values) -> {
+                if (!keys.add(entryKey)) {
+                    throw new IllegalStateException("Two information sets have the key " + entryKey);
+                }
+                ensureRemaining(channel, buffer, Long.BYTES + Integer.BYTES);
+                buffer.putLong(entryKey).putInt(actionCount);
+                for (double value : values) {
+                    ensureRemaining(channel, buffer, Double.BYTES);
+                    buffer.putDouble(value);
+                }
+            });
+            flush(channel, buffer);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the checkpoint " + temporary, e);
+        }
+        move(temporary, path);
+    }
+
+    /**
+     * Restores the tables and the iteration count of the given algorithm from the checkpoint, replacing its current content.
+     * The values of an information set are moved into the tables when the training reaches it again; until then,
+     * they are saved again by {@link #save(CFRMAlgorithm)} and played by the average strategy of the algorithm.
+     * The whole file is validated before the tables are touched.
+     *
+     * @param algorithm the algorithm.
+     * @return true if the checkpoint was restored, false if the file doesn't exist.
+     * @throws UncheckedIOException if the file can't be read.
+     * @throws IllegalArgumentException if the file is not a checkpoint, or is truncated or corrupt,
+     * or was saved with another sampling or variant than the ones of the algorithm.
+     */
+    public boolean restore(CFRMAlgorithm<T, E> algorithm) {
+        if (!Files.exists(path)) return false;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < CHECKPOINT_HEADER_BYTES || buffer.getInt() != CHECKPOINT_MAGIC
+                    || buffer.getInt() != CHECKPOINT_VERSION) {
+                throw new IllegalArgumentException("Not a CFR checkpoint: " + path);
+            }
+            int iteration = buffer.getInt();
+            int samplingIndex = buffer.getInt();
+            if (samplingIndex < 0 || samplingIndex >= CFRSampling.values().length) {
+                throw new IllegalArgumentException("Corrupt CFR checkpoint, with the sampling " + samplingIndex + ": " + path);
+            }
+            CFRSampling sampling = CFRSampling.values()[samplingIndex];
+            CFRVariant variant = CFRVariant.read(buffer);
+            if (sampling != algorithm.getSampling() || !variant.equals(algorithm.getVariant())) {
+                throw new IllegalArgumentException("The checkpoint " + path + " was trained with " + variant + " and "
+                        + sampling + " sampling, not " + algorithm.getVariant() + " and " + algorithm.getSampling() + " sampling");
+            }
+            int count = buffer.getInt();
+            if (iteration < 0 || count < 0 || count > buffer.remaining() / (Long.BYTES + Integer.BYTES)) {
+                throw new IllegalArgumentException("Corrupt CFR checkpoint: " + path);
+            }
+            Map<Long, double[]> values = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < Long.BYTES + Integer.BYTES) {
+                    throw new IllegalArgumentException("Truncated CFR checkpoint: " + path);
+                }
+                long entryKey = buffer.getLong();
+                int actionCount = buffer.getInt();
+                if (actionCount <= 0 || actionCount > buffer.remaining() / (2 * Double.BYTES)) {
+                    throw new IllegalArgumentException("Truncated or corrupt CFR checkpoint: " + path);
+                }
+                double[] entryValues = new double[2 * actionCount];
+                buffer.asDoubleBuffer().get(entryValues);
+                buffer.position(buffer.position() + entryValues.length * Double.BYTES);
+                if (values.put(entryKey, entryValues) != null) {
+                    throw new IllegalArgumentException("Corrupt CFR checkpoint, with the key " + entryKey + " twice: " + path);
+                }
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Corrupt CFR checkpoint, with trailing bytes: " + path);
+            }
+            algorithm.getTables().restore(key, values);
+            algorithm.setIteration(iteration);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the checkpoint " + path, e);
+        }
+    }
+
+    /**
+     * Exports the average strategy of the given algorithm to a file that {@link MappedAverageStrategyPolicy} maps read-only.
+     * The file holds a header (magic number, version, number of slots, number of information sets, number of probabilities),
+     * an open-addressing hash table of slots with the key, the offset of the probabilities and the number of actions
+     * of every information set, and the cumulative probabilities of the actions.
+     * Must not run concurrently with the training.
+     *
+     * @param algorithm the algorithm.
+     * @param policyPath the policy file.
+     * @throws UncheckedIOException if the file can't be written.
+     * @throws IllegalStateException if two information sets have the same key.
+     */
+    public void exportPolicy(CFRMAlgorithm<T, E> algorithm, Path policyPath) {
+        CFRTables<T, E> tables = algorithm.getTables();
+        int count = countEntries(tables);
+        int slotCount = Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1;
+        long[] slotKeys = new long[slotCount];
+        int[] slotOffsets = new int[slotCount];
+        int[] slotActionCounts = new int[slotCount];
+        int[] probabilityCount = {0};
+        forEachEntry(tables, (entryKey, actionCount, values) -> {
+            int slot = MappedAverageStrategyPolicy.slot(entryKey, slotCount - 1);
+            while (slotActionCounts[slot] != 0) {
+                if (slotKeys[slot] == entryKey) {
+                    throw new IllegalStateException("Two information sets have the key " + entryKey);
+                }
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            slotKeys[slot] = entryKey;
+            slotOffsets[slot] = probabilityCount[0];
+            slotActionCounts[slot] = actionCount;
+            probabilityCount[0] += actionCount;
+        });
+
+        Path temporary = policyPath.resolveSibling(policyPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(POLICY_MAGIC).putInt(POLICY_VERSION).putInt(slotCount).putInt(count)
+                    .putInt(probabilityCount[0]).putInt(0);
+            for (int slot = 0; slot < slotCount; slot++) {
+                ensureRemaining(channel, buffer, MappedAverageStrategyPolicy.SLOT_BYTES);
+                buffer.putLong(slotKeys[slot]).putInt(slotOffsets[slot]).putInt(slotActionCounts[slot]);
+            }
+            forEachEntry(tables, (entryKey, actionCount, values) -> {
+                double normalizingSum = 0.0;
+                for (int i = 0; i < actionCount; i++) {
+                    normalizingSum += values[actionCount + i];
+                }
+                double cumulativeProbability = 0.0;
+                for (int i = 0; i < actionCount; i++) {
+                    cumulativeProbability += normalizingSum > 0 ? values[actionCount + i] / normalizingSum : 1.0 / actionCount;
+                    ensureRemaining(channel, buffer, Double.BYTES);
+                    buffer.putDouble(i == actionCount - 1 ? 1.0 : cumulativeProbability);
+                }
+            });
+            flush(channel, buffer);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the policy " + temporary, e);
+        }
+        move(temporary, policyPath);
+    }
+
+    /**
+     * Gets the checkpoint file.
+     *
+     * @return the path of the checkpoint.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    private interface EntryVisitor {
+        void visit(long key, int actionCount, double[] values) throws IOException;
+    }
+
+    private int countEntries(CFRTables<T, E> tables) {
+        return tables.size() + tables.getRestoredValues().size();
+    }
+
+    /**
+     * Visits the information sets of the tables in id order, then the restored ones not reached again,
+     * with their regrets followed by their cumulative strategies.
+     */
+    private void forEachEntry(CFRTables<T, E> tables, EntryVisitor visitor) {
+        try {
+            double[] values = new double[0];
+            for (int id = 0; id < tables.size(); id++) {
+                int actionCount = tables.getActionCount(id);
+                if (values.length != 2 * actionCount) {
+                    values = new double[2 * actionCount];
+                }
+                for (int i = 0; i < actionCount; i++) {
+                    values[i] = tables.getRegret(id, i);
+                    values[actionCount + i] = tables.getStrategySum(id, i);
+                }
+                visitor.visit(key.getKey(tables.getInformationSet(id)), actionCount, values);
+            }
+            for (Map.Entry<Long, double[]> entry : tables.getRestoredValues().entrySet()) {
+                visitor.visit(entry.getKey(), entry.getValue().length / 2, entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void move(Path source, Path target) {
+        try {
+            try {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replace " + target, e);
+        }
+    }
+}
@@ -1,19 +1,49 @@
 package com.lostrucos.jabtbg.algorithms.crm;
 
-import com.lostrucos.jabtbg.core.Action;
-import com.lostrucos.jabtbg.core.Game;
-import com.lostrucos.jabtbg.core.GameState;
-import com.lostrucos.jabtbg.core.Player;
+import com.lostrucos.jabtbg.core.*;
 
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A player that plays the average strategy learned by CFR.
+ * Training and play are separate: the agent is trained once, or given a policy trained offline,
+ * and every move then only looks up the frozen {@link CFRPolicy}, without training.
+ * Information sets never reached during the training are played uniformly.
+ */
 public class CFRMAgent<T extends GameState<E>, E extends Action> implements Player<T, E> {
     private int playerIndex;
     private CFRMAlgorithm<T, E> cfrAlgorithm;
     private Game<T, E> game;
+    private CFRPolicy<T, E> policy;
+    private SplittableRandom random;
 
+    /**
+     * Constructs a new CFRMAgent that trains its own algorithm with {@link #train(GameState)}.
+     *
+     * @param playerIndex the index of the player.
+     * @param game        the game.
+     * @param iterations  the number of iterations of the training.
+     */
     public CFRMAgent(int playerIndex, Game<T, E> game, int iterations) {
         this.playerIndex = playerIndex;
         this.game = game;
-        this.cfrAlgorithm = new CFRMAlgorithm<>(iterations, 1.0);
+        this.cfrAlgorithm = new CFRMAlgorithm<>(game, iterations, 1.0);
+        this.random = new SplittableRandom();
+    }
+
+    /**
+     * Constructs a new CFRMAgent that plays the given policy, trained offline.
+     *
+     * @param playerIndex the index of the player.
+     * @param game        the game.
+     * @param policy      the policy to play.
+     */
+    public CFRMAgent(int playerIndex, Game<T, E> game, CFRPolicy<T, E> policy) {
+        this.playerIndex = playerIndex;
+        this.game = game;
+        this.policy = policy;
+        this.random = new SplittableRandom();
     }
 
     @Override
@@ -21,23 +51,61 @@ public class CFRMAgent<T extends GameState<E>, E extends Action> implements Play
         return playerIndex;
     }
 
+    /**
+     * Returns the action sampled from the policy of the agent.
+     *
+     * @param state the current state of the game.
+     * @return the chosen action.
+     * @throws IllegalStateException if the agent was never trained and has no policy.
+     */
     @Override
     public E getAction(T state) {
-        // Assicurati che l'algoritmo sia aggiornato con lo stato corrente del gioco
-        cfrAlgorithm.updateAfterAction(state, null);
-
-        // Usa l'algoritmo CFR per scegliere l'azione migliore
-        return cfrAlgorithm.chooseAction(state);
+        if (policy == null) {
+            throw new IllegalStateException("The agent must be trained, or given a policy, before playing");
+        }
+        InformationSet<T, E> infoSet = game.getInformationSet(playerIndex, state);
+        E action = policy.sampleAction(infoSet, random);
+        if (action == null) {
+            List<E> actions = infoSet.getPlayerActions(playerIndex);
+            action = actions.get(random.nextInt(actions.size()));
+        }
+        return action;
     }
 
+    /**
+     * Trains the algorithm of the agent from the given state, then freezes the learned average strategy into the policy played.
+     *
+     * @param initialState the state the training starts from.
+     * @throws IllegalStateException if the agent was built with a policy trained offline.
+     */
     public void train(T initialState) {
-        // Esegui il training dell'algoritmo CFR prima di iniziare a giocare
-        cfrAlgorithm.initialize(initialState);
-        // Il training effettivo avviene internamente in updateAfterAction
+        if (cfrAlgorithm == null) {
+            throw new IllegalStateException("The agent plays a policy trained offline");
+        }
+        cfrAlgorithm.train(initialState);
+        policy = cfrAlgorithm.getPolicy();
+    }
+
+    /**
+     * Gets the policy played by the agent.
+     *
+     * @return the policy, or null if the agent was never trained.
+     */
+    public CFRPolicy<T, E> getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Reseeds the random generator used to sample the actions, so that the choices are reproducible.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
     }
 
     @Override
     public String toString() {
         return "CFR Agent (Player " + playerIndex + ")";
     }
-}
\ No newline at end of file
+}
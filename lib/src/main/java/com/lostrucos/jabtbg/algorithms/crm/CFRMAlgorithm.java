@@ -3,20 +3,34 @@ package com.lostrucos.jabtbg.algorithms.crm;
 import com.lostrucos.jabtbg.core.*;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
 
 /**
  * Implementation of the Counterfactual Regret Minimization (CFR) Algorithm.
  * This algorithm is used for finding approximate Nash equilibrium in games of imperfect-but-complete-information.
+ * Regrets and cumulative strategies are kept in {@link CFRTables}, indexed by interned information set ids,
+ * and updated according to the selected {@link CFRVariant}.
+ * The game tree is walked whole by every iteration, or sampled with Monte Carlo CFR, see {@link CFRSampling}.
+ * The game has no chance nodes: chance events, such as the cards dealt, are fixed by the state the training starts from,
+ * so training from a different sampled start state every time amounts to sampling chance as well.
  */
 public class CFRMAlgorithm<T extends GameState<E>, E extends Action> implements Algorithm<T, E> {
     private Game<T, E> game;
     private final int numIterations;
     private final double regretMatchingWeight;
-    private Map<InformationSet<T, E>, Map<E, Double>> regretTable;
-    private Map<InformationSet<T, E>, Map<E, Double>> strategyTable;
+    private final CFRTables<T, E> tables;
     private Strategy<T, E> strategy;
+    private SplittableRandom random;
+    private CFRVariant variant;
+    private final AtomicInteger iteration;
+    private final ThreadLocal<TraversalBuffers> buffers;
+    private CFRSampling sampling;
+    private double explorationProbability;
+    private CFRCheckpoint<T, E> checkpoint;
 
     private static final long TIME_LIMIT_MS = 10000; // 10 secondi
+    private static final double DEFAULT_EXPLORATION = 0.6;
 
     /**
      * Constructs a new CFRMAlgorithm.
@@ -25,10 +39,27 @@ public class CFRMAlgorithm<T extends GameState<E>, E extends Action> implements
      * @param regretMatchingWeight the weight used in the regret matching process.
      */
     public CFRMAlgorithm(int numIterations, double regretMatchingWeight) {
+        this(null, numIterations, regretMatchingWeight);
+    }
+
+    /**
+     * Constructs a new CFRMAlgorithm for the given game.
+     *
+     * @param game the game, giving the information sets and the next states.
+     * @param numIterations the number of iterations for the training process.
+     * @param regretMatchingWeight the weight used in the regret matching process.
+     */
+    public CFRMAlgorithm(Game<T, E> game, int numIterations, double regretMatchingWeight) {
+        this.game = game;
         this.numIterations = numIterations;
         this.regretMatchingWeight = regretMatchingWeight;
-        this.regretTable = new HashMap<>();
-        this.strategyTable = new HashMap<>();
+        this.tables = new CFRTables<>();
+        this.iteration = new AtomicInteger();
+        this.buffers = ThreadLocal.withInitial(TraversalBuffers::new);
+        this.random = new SplittableRandom();
+        this.variant = CFRVariant.vanilla();
+        this.sampling = CFRSampling.FULL_TRAVERSAL;
+        this.explorationProbability = DEFAULT_EXPLORATION;
     }
 
     @Override
@@ -41,180 +72,445 @@ public class CFRMAlgorithm<T extends GameState<E>, E extends Action> implements
 
     @Override
     public void reset() {
-        regretTable.clear();
-        strategyTable.clear();
+        tables.clear();
+        iteration.set(0);
     }
 
     /**
-     * Returns the appropriate action for the given game state chosen by the algorithm.
+     * Returns the appropriate action for the given game state chosen by the algorithm,
+     * sampled from the average strategy of the information set of the player to move.
+     * An information set never reached during the training is played uniformly.
      *
      * @param state the current game state.
      * @return the chosen action.
      */
     @Override
     public E chooseAction(T state) {
-        long startTime = System.currentTimeMillis();
-
         InformationSet<T, E> infoSet = game.getInformationSet(state.getCurrentPlayer(), state);
-        Map<E, Double> strategy = getStrategy(infoSet);
-        return selectAction(strategy);
+        int id = tables.getId(infoSet);
+        if (id < 0) {
+            List<E> actions = infoSet.getPlayerActions(state.getCurrentPlayer());
+            double[] restoredStrategy = tables.getRestoredAverageStrategy(infoSet);
+            if (restoredStrategy != null && restoredStrategy.length == actions.size()) {
+                return actions.get(selectAction(restoredStrategy, restoredStrategy.length, random));
+            }
+            return actions.get(random.nextInt(actions.size()));
+        }
+        double[] averageStrategy = new double[tables.getActionCount(id)];
+        tables.getAverageStrategy(id, averageStrategy);
+        return tables.getActions(id).get(selectAction(averageStrategy, averageStrategy.length, random));
     }
 
+    /**
+     * Does nothing: the play only reads the tables, which are trained offline with {@link #train(GameState)}.
+     *
+     * @param state the new game state.
+     * @param action the action taken.
+     */
     @Override
-    public void updateAfterAction(T state, E action) {train(state);}
+    public void updateAfterAction(T state, E action) {}
 
     @Override
     public void applyPseudoAction(T state, E action) {game.getNextState(state, action);}
 
     /**
-     * Chooses an action within the player's strategy based on the probabilities.
+     * Chooses the index of an action within the player's strategy based on the probabilities.
      *
-     * @param strategy the player's current strategy.
-     * @return the chosen action.
+     * @param strategy the probability of every action.
+     * @param actionCount the number of actions, which may be less than the length of the array.
+     * @param random the random generator to draw from.
+     * @return the index of the chosen action.
      */
-    private E selectAction(Map<E, Double> strategy) {
-        Random random = new Random();
+    private static int selectAction(double[] strategy, int actionCount, RandomGenerator random) {
         double randomValue = random.nextDouble();
         double cumulativeProbability = 0.0;
-        for (Map.Entry<E, Double> entry : strategy.entrySet()) {
-            cumulativeProbability += entry.getValue();
+        for (int i = 0; i < actionCount; i++) {
+            cumulativeProbability += strategy[i];
             if (randomValue < cumulativeProbability) {
-                return entry.getKey();
+                return i;
             }
         }
-        return strategy.keySet().iterator().next(); // Fallback to first action
+        return actionCount - 1; // Fallback to the last action when rounding leaves the sum below 1
     }
 
     /**
      * Starts training the algorithm by performing the specified number of iterations.
+     * The iteration count carries over from the previous trainings, for the variants weighting the iterations.
+     * Training is meant to run offline, before playing with the policy returned by {@link #getPolicy()}.
+     *
+     * @param initialState the state the traversals start from, left unchanged.
      */
-    private void train(T initialState) {
-        int iterations = 0;
-
+    public void train(T initialState) {
         for (int i = 0; i < numIterations; i++) {
-            //while(System.currentTimeMillis() - startTime < TIME_LIMIT_MS && iterations < numIterations) {
-            //iterations++;
-            for (int player = 0; player < 2; player++) {
-                cfrm(initialState, player, 1.0, 1.0);
-            }
+            int previousIteration = runIteration(initialState, random) - 1;
+            if (checkpoint != null) checkpoint.afterIterations(this, previousIteration);
+        }
+    }
+
+    /**
+     * Runs one iteration from the given state: a traversal of every player in turn, each followed by the rules
+     * the variant applies after a traversal, then the rules it applies after an iteration.
+     * The iteration takes the next iteration number, which weights its strategies and its discount.
+     * Used by {@link ParallelCFRTrainer}, whose workers run iterations concurrently on the shared tables,
+     * as long as each one has its own random generator.
+     *
+     * @param initialState the state the traversals start from, left unchanged.
+     * @param random the random generator drawing the sampled actions.
+     * @return the number of the iteration, starting from 1.
+     */
+    int runIteration(T initialState, RandomGenerator random) {
+        int currentIteration = iteration.incrementAndGet();
+        double strategyWeight = variant.getStrategyWeight(currentIteration);
+        TraversalBuffers traversalBuffers = buffers.get();
+        for (int player = 0; player < 2; player++) {
+            traverse(initialState, player, strategyWeight, traversalBuffers, random);
+            variant.endTraversal(tables);
+        }
+        variant.endIteration(tables, currentIteration);
+        return currentIteration;
+    }
+
+    /**
+     * Runs the traversal of one player from the given state, with the selected sampling.
+     *
+     * @param initialState the state the traversal starts from, left unchanged.
+     * @param player the index of the traversing player.
+     * @param strategyWeight the weight of the strategies the traversal adds to the average strategy.
+     * @param buffers the scratch arrays of the current thread.
+     * @param random the random generator drawing the sampled actions.
+     */
+    private void traverse(T initialState, int player, double strategyWeight, TraversalBuffers buffers, RandomGenerator random) {
+        switch (sampling) {
+            case EXTERNAL:
+                externalSampling(initialState, player, 0, strategyWeight, buffers, random);
+                break;
+            case OUTCOME:
+                outcomeSampling(initialState, player, 0, 1.0, 1.0, 1.0, strategyWeight, buffers, random);
+                break;
+            default:
+                cfrm(initialState, player, 0, 1.0, 1.0, strategyWeight, buffers);
         }
-        //System.out.println("CFRMAlgorithm completed " + iterations + " iterations in " + (System.currentTimeMillis() - startTime) + "ms");
     }
 
     /**
      * Performs recursively all the operation of the cfrm algorithm and returns the utility.
+     * The regrets of the traversing player are weighted by the reach probability of the opponents,
+     * and its strategy is accumulated weighted by its own reach probability.
      *
-     * @return the utility value.
+     * @param state the current state, left unchanged.
+     * @param player the index of the traversing player.
+     * @param depth the depth of the state in the traversal, which selects its scratch arrays.
+     * @param reachProbability the probability that the traversing player plays to reach the state.
+     * @param opponentProbability the probability that the opponents play to reach the state.
+     * @param strategyWeight the weight of the iteration in the average strategy.
+     * @param buffers the scratch arrays of the current thread.
+     * @return the expected utility of the traversing player.
      */
-    private double cfrm(T state, int player, double reachProbability, double opponentProbability) {
+    private double cfrm(T state, int player, int depth, double reachProbability, double opponentProbability,
+                        double strategyWeight, TraversalBuffers buffers) {
         if (state.isTerminalNode()) {
             return state.getUtility(player);
         }
 
         int currentPlayer = state.getCurrentPlayer();
         InformationSet<T, E> infoSet = game.getInformationSet(currentPlayer, state);
+        List<E> actions = infoSet.getPlayerActions(currentPlayer);
+        int id = tables.intern(infoSet, actions);
+        int actionCount = actions.size();
 
-        Map<E, Double> strategy = getStrategy(infoSet);
-        Map<E, Double> utilities = new HashMap<>();
+        double[] currentStrategy = buffers.get(depth, TraversalBuffers.CURRENT_STRATEGY, actionCount);
+        tables.getCurrentStrategy(id, currentStrategy);
+        double[] utilities = buffers.get(depth, TraversalBuffers.UTILITIES, actionCount);
         double expectedUtility = 0;
 
-        for (E action : infoSet.getPlayerActions(currentPlayer)) {
-            double newReachProb = (currentPlayer == player) ? reachProbability : opponentProbability;
-            double actionProbability = strategy.get(action);
-            T nextState = game.getNextState(state, action);
-            double utility = cfrm(nextState, player, reachProbability * actionProbability, opponentProbability * actionProbability);
-            utilities.put(action, utility);
-            expectedUtility += actionProbability * utility;
+        for (int i = 0; i < actionCount; i++) {
+            double actionProbability = currentStrategy[i];
+            T nextState = game.getNextState(GameState.copyOf(state), actions.get(i));
+            utilities[i] = currentPlayer == player
+                    ? cfrm(nextState, player, depth + 1, reachProbability * actionProbability, opponentProbability, strategyWeight, buffers)
+                    : cfrm(nextState, player, depth + 1, reachProbability, opponentProbability * actionProbability, strategyWeight, buffers);
+            expectedUtility += actionProbability * utilities[i];
         }
 
         if (currentPlayer == player) {
-            for (E action : infoSet.getPlayerActions(currentPlayer)) {
-                double regret = utilities.get(action) - expectedUtility;
-                updateRegretSum(infoSet, action, regret * opponentProbability);
+            for (int i = 0; i < actionCount; i++) {
+                tables.addRegret(id, i, opponentProbability * (utilities[i] - expectedUtility));
             }
+            tables.addStrategy(id, currentStrategy, reachProbability * strategyWeight);
         }
 
         return expectedUtility;
     }
-    
+
     /**
-     * Obtains the strategy for a given player.
-     * If not already drafted, initializes a new strategy.
+     * Performs a traversal of Monte Carlo CFR with external sampling and returns the sampled utility.
+     * Every action of the traversing player is explored and its regret updated with the sampled utilities,
+     * while the opponents play a single action sampled from their current strategy, which is added to their average strategy.
      *
-     * @param infoSet the player's current information set.
-     * @return the player's current strategy.
+     * @param state the current state, left unchanged.
+     * @param player the index of the traversing player.
+     * @param depth the depth of the state in the traversal, which selects its scratch arrays.
+     * @param strategyWeight the weight of the iteration in the average strategy.
+     * @param buffers the scratch arrays of the current thread.
+     * @param random the random generator drawing the actions of the opponents.
+     * @return the sampled utility of the traversing player.
      */
-    private Map<E, Double> getStrategy(InformationSet<T, E> infoSet) {
-        Map<E, Double> strategy = strategyTable.get(infoSet);
-        if (strategy == null) {
-            strategy = initializeStrategy(infoSet);
-            strategyTable.put(infoSet, strategy);
+    private double externalSampling(T state, int player, int depth, double strategyWeight, TraversalBuffers buffers,
+                                    RandomGenerator random) {
+        if (state.isTerminalNode()) {
+            return state.getUtility(player);
+        }
+
+        int currentPlayer = state.getCurrentPlayer();
+        InformationSet<T, E> infoSet = game.getInformationSet(currentPlayer, state);
+        List<E> actions = infoSet.getPlayerActions(currentPlayer);
+        int id = tables.intern(infoSet, actions);
+        int actionCount = actions.size();
+        double[] currentStrategy = buffers.get(depth, TraversalBuffers.CURRENT_STRATEGY, actionCount);
+        tables.getCurrentStrategy(id, currentStrategy);
+
+        if (currentPlayer != player) {
+            tables.addStrategy(id, currentStrategy, strategyWeight);
+            E action = actions.get(selectAction(currentStrategy, actionCount, random));
+            return externalSampling(game.getNextState(GameState.copyOf(state), action), player, depth + 1, strategyWeight, buffers, random);
         }
-        return strategy;
+
+        double[] utilities = buffers.get(depth, TraversalBuffers.UTILITIES, actionCount);
+        double expectedUtility = 0;
+        for (int i = 0; i < actionCount; i++) {
+            utilities[i] = externalSampling(game.getNextState(GameState.copyOf(state), actions.get(i)), player, depth + 1,
+                    strategyWeight, buffers, random);
+            expectedUtility += currentStrategy[i] * utilities[i];
+        }
+        for (int i = 0; i < actionCount; i++) {
+            tables.addRegret(id, i, utilities[i] - expectedUtility);
+        }
+        return expectedUtility;
     }
 
     /**
-     * Initializes the strategy for a given player.
-     * The starting strategy consists of a list of actions initialized with equal values summing to 1.
+     * Performs a traversal of Monte Carlo CFR with outcome sampling along a single sampled trajectory.
+     * The traversing player explores every action with the exploration probability, the opponents play their current strategy.
+     * The regrets of the traversing player are weighted by the inverse of the probability of sampling the trajectory,
+     * and the average strategy of the opponents by their reach probability over the sampling probability.
      *
-     * @param infoSet the player's current information set.
-     * @return the initial strategy.
+     * @param state the current state, left unchanged.
+     * @param player the index of the traversing player.
+     * @param depth the depth of the state in the traversal, which selects its scratch arrays.
+     * @param reachProbability the probability that the traversing player plays to reach the state.
+     * @param opponentProbability the probability that the opponents play to reach the state.
+     * @param samplingProbability the probability of sampling the trajectory up to the state.
+     * @param strategyWeight the weight of the iteration in the average strategy.
+     * @param buffers the scratch arrays of the current thread.
+     * @param random the random generator drawing the trajectory.
+     * @return an array holding the utility of the terminal state reached, divided by the probability of sampling it,
+     * and the probability that the current strategies play from the state to the terminal state.
      */
-    private Map<E, Double> initializeStrategy(InformationSet<T, E> infoSet) {
-        Map<E, Double> strategy = new HashMap<>();
-        double normalizingSum = 0;
+    private double[] outcomeSampling(T state, int player, int depth, double reachProbability, double opponentProbability,
+                                     double samplingProbability, double strategyWeight, TraversalBuffers buffers,
+                                     RandomGenerator random) {
+        if (state.isTerminalNode()) {
+            return new double[]{state.getUtility(player) / samplingProbability, 1.0};
+        }
 
-        for (E action : infoSet.getPlayerActions(infoSet.getPlayerIndex())) {
-            strategy.put(action, Math.max(regretTable.getOrDefault(infoSet, new HashMap<>()).getOrDefault(action, 0.0), 0.0));
-            normalizingSum += strategy.get(action);
+        int currentPlayer = state.getCurrentPlayer();
+        InformationSet<T, E> infoSet = game.getInformationSet(currentPlayer, state);
+        List<E> actions = infoSet.getPlayerActions(currentPlayer);
+        int id = tables.intern(infoSet, actions);
+        int actionCount = actions.size();
+        double[] currentStrategy = buffers.get(depth, TraversalBuffers.CURRENT_STRATEGY, actionCount);
+        tables.getCurrentStrategy(id, currentStrategy);
+
+        double[] samplingStrategy = currentStrategy;
+        if (currentPlayer == player) {
+            samplingStrategy = buffers.get(depth, TraversalBuffers.SAMPLING_STRATEGY, actionCount);
+            for (int i = 0; i < actionCount; i++) {
+                samplingStrategy[i] = explorationProbability / actionCount + (1 - explorationProbability) * currentStrategy[i];
+            }
         }
+        int sampledAction = selectAction(samplingStrategy, actionCount, random);
+        T nextState = game.getNextState(GameState.copyOf(state), actions.get(sampledAction));
+        double actionProbability = currentStrategy[sampledAction];
+        double nextSamplingProbability = samplingProbability * samplingStrategy[sampledAction];
 
-        if (normalizingSum > 0) {
-            for (E action : strategy.keySet()) {
-                strategy.put(action, strategy.get(action) / normalizingSum);
+        double[] result;
+        if (currentPlayer == player) {
+            result = outcomeSampling(nextState, player, depth + 1, reachProbability * actionProbability, opponentProbability,
+                    nextSamplingProbability, strategyWeight, buffers, random);
+            double weightedUtility = result[0] * opponentProbability;
+            for (int i = 0; i < actionCount; i++) {
+                double regret = i == sampledAction
+                        ? weightedUtility * result[1] * (1 - actionProbability)
+                        : -weightedUtility * result[1] * actionProbability;
+                tables.addRegret(id, i, regret);
             }
         } else {
-            double uniformProbability = 1.0 / infoSet.getPlayerActions(infoSet.getPlayerIndex()).size();
-            for (E action : infoSet.getPlayerActions(infoSet.getPlayerIndex())) {
-                strategy.put(action, uniformProbability);
+            result = outcomeSampling(nextState, player, depth + 1, reachProbability, opponentProbability * actionProbability,
+                    nextSamplingProbability, strategyWeight, buffers, random);
+            tables.addStrategy(id, currentStrategy, strategyWeight * opponentProbability / samplingProbability);
+        }
+        result[1] *= actionProbability;
+        return result;
+    }
+
+    /**
+     * Returns the average strategy learned for the given information set.
+     * An information set restored from a checkpoint and not reached again since has the restored average strategy.
+     *
+     * @param infoSet the information set.
+     * @return a map of actions to their probabilities, empty if the information set was never reached.
+     */
+    public Map<E, Double> getAverageStrategy(InformationSet<T, E> infoSet) {
+        int id = tables.getId(infoSet);
+        if (id < 0) {
+            double[] restoredStrategy = tables.getRestoredAverageStrategy(infoSet);
+            if (restoredStrategy == null) return Map.of();
+            List<E> actions = infoSet.getPlayerActions(infoSet.getPlayerIndex());
+            if (restoredStrategy.length != actions.size()) return Map.of();
+            Map<E, Double> strategyMap = new LinkedHashMap<>();
+            for (int i = 0; i < restoredStrategy.length; i++) {
+                strategyMap.put(actions.get(i), restoredStrategy[i]);
             }
+            return strategyMap;
         }
+        double[] averageStrategy = new double[tables.getActionCount(id)];
+        tables.getAverageStrategy(id, averageStrategy);
+        List<E> actions = tables.getActions(id);
+        Map<E, Double> strategyMap = new LinkedHashMap<>();
+        for (int i = 0; i < averageStrategy.length; i++) {
+            strategyMap.put(actions.get(i), averageStrategy[i]);
+        }
+        return strategyMap;
+    }
+
+    /**
+     * Reseeds the random generator used to sample the actions, so that the choices are reproducible.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
 
-        for (E action : strategy.keySet()) {
-            updateStrategySum(infoSet, action, strategy.get(action));
+    /**
+     * Returns a snapshot of the cumulative regrets, built from the tables on every call.
+     *
+     * @return a map of information sets to the regret of every action.
+     */
+    public Map<InformationSet<T, E>, Map<E, Double>> getRegretTable() {
+        Map<InformationSet<T, E>, Map<E, Double>> regretTable = new HashMap<>();
+        for (int id = 0; id < tables.size(); id++) {
+            List<E> actions = tables.getActions(id);
+            Map<E, Double> regrets = new LinkedHashMap<>();
+            for (int i = 0; i < actions.size(); i++) {
+                regrets.put(actions.get(i), tables.getRegret(id, i));
+            }
+            regretTable.put(tables.getInformationSet(id), regrets);
         }
+        return regretTable;
+    }
 
-        return strategy;
+    /**
+     * Selects the variant of CFR used by the following trainings. The default variant is vanilla CFR.
+     * Changing the variant in the middle of a training is allowed, but the tables keep the values accumulated so far.
+     *
+     * @param variant the CFR variant.
+     */
+    public void setVariant(CFRVariant variant) {
+        this.variant = variant;
     }
 
     /**
-     * Updates the regret for a specific action in an information set.
+     * Gets the variant of CFR used by the trainings.
      *
-     * @param infoSet the player's current information set.
-     * @param action the action taken by the player.
-     * @param regret the regret value to update.
+     * @return the CFR variant.
      */
-    private void updateRegretSum(InformationSet<T, E> infoSet, E action, double regret) {
-        regretTable.computeIfAbsent(infoSet, k -> new HashMap<>()).merge(action, regret, Double::sum);
+    public CFRVariant getVariant() {
+        return variant;
     }
 
     /**
-     * Updates the strategy for a specific action in an information set.
+     * Selects how the following iterations traverse the game tree. The default is the full traversal of vanilla CFR.
      *
-     * @param infoSet the player's current information set.
-     * @param action the action taken by the player.
-     * @param probability the regret value to update.
+     * @param sampling the traversal scheme.
      */
-    private void updateStrategySum(InformationSet<T, E> infoSet, E action, double probability) {
-        strategyTable.computeIfAbsent(infoSet, k -> new HashMap<>()).merge(action, probability, Double::sum);
+    public void setSampling(CFRSampling sampling) {
+        this.sampling = sampling;
     }
 
     /**
-     * Returns the regret table used by the algorithm.
+     * Gets how the iterations traverse the game tree.
      *
-     * @return the regret table.
+     * @return the traversal scheme.
      */
-    public Map<InformationSet<T, E>, Map<E, Double>> getRegretTable() {
-        return regretTable;
+    public CFRSampling getSampling() {
+        return sampling;
+    }
+
+    /**
+     * Sets the probability with which outcome sampling explores a uniformly random action of the traversing player,
+     * instead of following its current strategy. The default is 0.6.
+     *
+     * @param explorationProbability the exploration probability, between 0 exclusive and 1 inclusive.
+     */
+    public void setExplorationProbability(double explorationProbability) {
+        if (explorationProbability <= 0 || explorationProbability > 1) {
+            throw new IllegalArgumentException("The exploration probability must be in (0, 1]");
+        }
+        this.explorationProbability = explorationProbability;
+    }
+
+    /**
+     * Returns the number of iterations trained since the last reset.
+     *
+     * @return the number of iterations.
+     */
+    public int getIteration() {
+        return iteration.get();
+    }
+
+    /**
+     * Freezes the average strategy learned so far into a read-only policy, which the following training doesn't change.
+     *
+     * @return the average strategy policy.
+     */
+    public CFRPolicy<T, E> getPolicy() {
+        return new AverageStrategyPolicy<>(tables);
+    }
+
+    /**
+     * Sets the checkpoint the following trainings save to, at the interval of the checkpoint.
+     *
+     * @param checkpoint the checkpoint, or null to stop saving.
+     */
+    public void setCheckpoint(CFRCheckpoint<T, E> checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Gets the checkpoint the trainings save to.
+     *
+     * @return the checkpoint, or null if none is set.
+     */
+    CFRCheckpoint<T, E> getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Sets the number of iterations already trained, when resuming from a checkpoint.
+     *
+     * @param iteration the number of iterations.
+     */
+    void setIteration(int iteration) {
+        this.iteration.set(iteration);
+    }
+
+    /**
+     * Returns the tables holding the regrets and the cumulative strategies.
+     *
+     * @return the CFR tables.
+     */
+    public CFRTables<T, E> getTables() {
+        return tables;
     }
 }
\ No newline at end of file
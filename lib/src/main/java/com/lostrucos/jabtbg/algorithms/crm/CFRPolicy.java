@@ -0,0 +1,40 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.InformationSet;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents a read-only strategy learned by CFR, queried by {@link CFRMAgent} to play.
+ * A policy is frozen once built, so it can be shared by any number of agents and threads,
+ * and it answers without training or allocating.
+ */
+public interface CFRPolicy<T extends GameState<E>, E extends Action> {
+
+    /**
+     * Samples an action of the given information set from the learned strategy.
+     *
+     * @param informationSet the information set of the player to move.
+     * @param random         the random generator to draw from.
+     * @return the sampled action, or null if the information set was never reached during the training.
+     */
+    E sampleAction(InformationSet<T, E> informationSet, RandomGenerator random);
+
+    /**
+     * Gets the probability of playing an action in the given information set.
+     *
+     * @param informationSet the information set.
+     * @param action         the action.
+     * @return the probability of the action, or 0 if the information set or the action is unknown.
+     */
+    double getProbability(InformationSet<T, E> informationSet, E action);
+
+    /**
+     * Gets the number of information sets known by the policy.
+     *
+     * @return the number of information sets.
+     */
+    int size();
+}
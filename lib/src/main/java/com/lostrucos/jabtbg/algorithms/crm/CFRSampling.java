@@ -0,0 +1,21 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+/**
+ * Represents the way a CFR iteration traverses the game tree.
+ */
+public enum CFRSampling {
+    /**
+     * Vanilla CFR: every iteration walks the whole game tree for every player.
+     */
+    FULL_TRAVERSAL,
+    /**
+     * Monte Carlo CFR with external sampling: the actions of the traversing player are enumerated,
+     * while a single action of every opponent is sampled from its current strategy.
+     */
+    EXTERNAL,
+    /**
+     * Monte Carlo CFR with outcome sampling: a single trajectory is sampled, exploring the actions of the traversing player,
+     * and the regrets are corrected with importance weights. Every iteration costs as much as the depth of the game.
+     */
+    OUTCOME
+}
@@ -0,0 +1,475 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.InformationSet;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the cumulative regrets and strategies of CFR in dense primitive arrays.
+ * Every information set is interned to an int id the first time it is reached, and its actions are indexed by their
+ * position in the list of actions given at that time. The values of the actions of an information set are stored
+ * contiguously from the offset of the information set, instead of nested maps of boxed values: the tables hold
+ * two doubles per action and, per information set, its offset, its number of actions, a long stamp of the operations
+ * applied to it and its entry in the map of ids. The actions are not copied: they are listed again by
+ * {@link InformationSet#getPlayerActions(int)}, which must return them in the same order every time.
+ *
+ * The tables can be shared by the threads of a parallel training. The values are stored in fixed-size blocks
+ * that never move when the tables grow, and the values of an information set are read and updated under one
+ * of a fixed set of striped locks, chosen by the id of the information set.
+ *
+ * The regret flooring of CFR+ and the discounting of DCFR are applied lazily: {@link #floorRegrets()} and
+ * {@link #discount(double, double, double)} only record the operation, and every information set records the last
+ * operations applied to it, so the pending ones are applied when the information set is next read or updated.
+ * Discounts are recorded as cumulative sums of the logarithms of their factors, so any number of pending discounts
+ * is applied at once, and the cost of both operations doesn't grow with the tables.
+ * Both can run concurrently with the traversals of a parallel training: a traversal reading an information set
+ * after the operation sees its effect, one that read it before adds its update to the unfloored or undiscounted values.
+ *
+ * Values restored from a {@link CFRCheckpoint} are kept by key until their information set is reached again,
+ * since information sets can't be rebuilt from their keys. Until then, they are still saved by the checkpoint
+ * and played by the average strategy.
+ */
+public class CFRTables<T extends GameState<E>, E extends Action> {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int BLOCK_SHIFT = 14;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final int LOCK_STRIPES = 1024;
+
+    private final Map<InformationSet<T, E>, Integer> ids;
+    private final Object[] locks;
+    private volatile Object[] informationSets;
+    private volatile int[] offsets;
+    private volatile int[] actionCounts;
+    private volatile double[][] regretBlocks;
+    private volatile double[][] strategyBlocks;
+    private volatile long[][] stampBlocks;
+    private volatile int floorCount;
+    private volatile int discountCount;
+    private volatile double[] positiveRegretLogs;
+    private volatile double[] negativeRegretLogs;
+    private volatile double[] strategyLogs;
+    private volatile int size;
+    private int length;
+    private InformationSetKey<T, E> restoredKey;
+    private Map<Long, double[]> restoredValues;
+
+    /**
+     * Constructs new empty tables.
+     */
+    public CFRTables() {
+        this.ids = new ConcurrentHashMap<>();
+        this.locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.informationSets = new Object[INITIAL_CAPACITY];
+        this.offsets = new int[INITIAL_CAPACITY];
+        this.actionCounts = new int[INITIAL_CAPACITY];
+        this.regretBlocks = new double[][]{new double[BLOCK_SIZE]};
+        this.strategyBlocks = new double[][]{new double[BLOCK_SIZE]};
+        this.stampBlocks = new long[][]{new long[BLOCK_SIZE]};
+        this.positiveRegretLogs = new double[INITIAL_CAPACITY];
+        this.negativeRegretLogs = new double[INITIAL_CAPACITY];
+        this.strategyLogs = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Gets the id of the given information set, interning it with the given actions if it was never reached.
+     * The values of an information set never span two blocks.
+     *
+     * @param informationSet the information set.
+     * @param actionList     the actions available in the information set, whose order gives the action indexes.
+     * @return the id of the information set.
+     * @throws IllegalArgumentException if the information set has more actions than a block can hold,
+     * or a different number of actions than the values restored for it.
+     */
+    public int intern(InformationSet<T, E> informationSet, List<E> actionList) {
+        Integer id = ids.get(informationSet);
+        if (id != null) return id;
+
+        synchronized (this) {
+            id = ids.get(informationSet);
+            if (id != null) return id;
+
+            int actionCount = actionList.size();
+            if (actionCount > BLOCK_SIZE) {
+                throw new IllegalArgumentException("An information set can have at most " + BLOCK_SIZE + " actions");
+            }
+            if ((length & BLOCK_MASK) + actionCount > BLOCK_SIZE) {
+                length = (length | BLOCK_MASK) + 1;
+            }
+            double[] values = null;
+            if (restoredValues != null) {
+                values = restoredValues.get(restoredKey.getKey(informationSet));
+                if (values != null && values.length != 2 * actionCount) {
+                    throw new IllegalArgumentException("The information set " + informationSet + " has " + actionCount
+                            + " actions, but " + values.length / 2 + " were restored");
+                }
+            }
+            ensureBlocks(length + actionCount);
+            int newId = size;
+            if (newId == offsets.length) {
+                informationSets = Arrays.copyOf(informationSets, newId * 2);
+                offsets = Arrays.copyOf(offsets, newId * 2);
+                actionCounts = Arrays.copyOf(actionCounts, newId * 2);
+            }
+            informationSets[newId] = informationSet;
+            offsets[newId] = length;
+            actionCounts[newId] = actionCount;
+            if ((newId >>> BLOCK_SHIFT) == stampBlocks.length) {
+                long[][] newStampBlocks = Arrays.copyOf(stampBlocks, stampBlocks.length * 2);
+                for (int i = stampBlocks.length; i < newStampBlocks.length; i++) {
+                    newStampBlocks[i] = new long[BLOCK_SIZE];
+                }
+                stampBlocks = newStampBlocks;
+            }
+            long stamp = stamp(floorCount, discountCount);
+            if (values != null) {
+                restoredValues.remove(restoredKey.getKey(informationSet));
+                int start = length & BLOCK_MASK;
+                System.arraycopy(values, 0, regretBlocks[length >>> BLOCK_SHIFT], start, actionCount);
+                System.arraycopy(values, actionCount, strategyBlocks[length >>> BLOCK_SHIFT], start, actionCount);
+                // The restored values have missed the operations recorded since the restore
+                stamp = stamp(0, 0);
+            }
+            stampBlocks[newId >>> BLOCK_SHIFT][newId & BLOCK_MASK] = stamp;
+            length += actionCount;
+            size = newId + 1;
+            ids.put(informationSet, newId);
+            return newId;
+        }
+    }
+
+    private void ensureBlocks(int requiredLength) {
+        int requiredBlocks = (requiredLength + BLOCK_MASK) >>> BLOCK_SHIFT;
+        if (requiredBlocks <= regretBlocks.length) return;
+        double[][] newRegretBlocks = Arrays.copyOf(regretBlocks, Math.max(requiredBlocks, regretBlocks.length * 2));
+        double[][] newStrategyBlocks = Arrays.copyOf(strategyBlocks, newRegretBlocks.length);
+        for (int i = regretBlocks.length; i < newRegretBlocks.length; i++) {
+            newRegretBlocks[i] = new double[BLOCK_SIZE];
+            newStrategyBlocks[i] = new double[BLOCK_SIZE];
+        }
+        regretBlocks = newRegretBlocks;
+        strategyBlocks = newStrategyBlocks;
+    }
+
+    private Object lock(int id) {
+        return locks[id & (LOCK_STRIPES - 1)];
+    }
+
+    private static long stamp(int floors, int discounts) {
+        return (long) floors << 32 | discounts & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Applies to the values of an information set the floorings and discounts recorded since they were last applied.
+     * Must be called under the lock of the information set.
+     *
+     * @param id the id of the information set.
+     */
+    private void settle(int id) {
+        long[] stamps = stampBlocks[id >>> BLOCK_SHIFT];
+        int index = id & BLOCK_MASK;
+        long stamp = stamps[index];
+        int floors = floorCount;
+        int discounts = discountCount;
+        if (stamp == stamp(floors, discounts)) return;
+        int offset = offsets[id];
+        int start = offset & BLOCK_MASK;
+        applyPending(regretBlocks[offset >>> BLOCK_SHIFT], start, strategyBlocks[offset >>> BLOCK_SHIFT], start,
+                actionCounts[id], (int) (stamp >>> 32) != floors, (int) stamp, discounts);
+        stamps[index] = stamp(floors, discounts);
+    }
+
+    /**
+     * Applies a pending flooring and the discounts recorded between two discount counts to the given values.
+     * Since the discount factors are positive, flooring before or after discounting gives the same regrets.
+     */
+    private void applyPending(double[] regrets, int regretStart, double[] strategies, int strategyStart, int actionCount,
+                              boolean floor, int fromDiscount, int toDiscount) {
+        double positiveRegretFactor = 1.0;
+        double negativeRegretFactor = 1.0;
+        double strategyFactor = 1.0;
+        if (fromDiscount != toDiscount) {
+            positiveRegretFactor = Math.exp(positiveRegretLogs[toDiscount] - positiveRegretLogs[fromDiscount]);
+            negativeRegretFactor = Math.exp(negativeRegretLogs[toDiscount] - negativeRegretLogs[fromDiscount]);
+            strategyFactor = Math.exp(strategyLogs[toDiscount] - strategyLogs[fromDiscount]);
+        }
+        for (int i = 0; i < actionCount; i++) {
+            double regret = regrets[regretStart + i];
+            if (floor && regret < 0) regret = 0.0;
+            regrets[regretStart + i] = regret * (regret > 0 ? positiveRegretFactor : negativeRegretFactor);
+            strategies[strategyStart + i] *= strategyFactor;
+        }
+    }
+
+    /**
+     * Gets the id of the given information set.
+     *
+     * @param informationSet the information set.
+     * @return the id of the information set, or -1 if it was never reached.
+     */
+    public int getId(InformationSet<T, E> informationSet) {
+        Integer id = ids.get(informationSet);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Computes the current strategy of an information set with regret matching:
+     * every action is played in proportion to its positive cumulative regret,
+     * or uniformly if no action has a positive regret.
+     *
+     * @param id       the id of the information set.
+     * @param strategy the array filled with the probability of every action.
+     */
+    public void getCurrentStrategy(int id, double[] strategy) {
+        int offset = offsets[id];
+        double[] block = regretBlocks[offset >>> BLOCK_SHIFT];
+        synchronized (lock(id)) {
+            settle(id);
+            normalize(block, offset & BLOCK_MASK, actionCounts[id], strategy, true);
+        }
+    }
+
+    /**
+     * Computes the average strategy of an information set, which converges to a Nash equilibrium.
+     *
+     * @param id       the id of the information set.
+     * @param strategy the array filled with the probability of every action.
+     */
+    public void getAverageStrategy(int id, double[] strategy) {
+        int offset = offsets[id];
+        double[] block = strategyBlocks[offset >>> BLOCK_SHIFT];
+        synchronized (lock(id)) {
+            settle(id);
+            normalize(block, offset & BLOCK_MASK, actionCounts[id], strategy, false);
+        }
+    }
+
+    private static void normalize(double[] values, int offset, int count, double[] result, boolean positiveOnly) {
+        double normalizingSum = 0.0;
+        for (int i = 0; i < count; i++) {
+            double value = values[offset + i];
+            result[i] = positiveOnly ? Math.max(value, 0.0) : value;
+            normalizingSum += result[i];
+        }
+        for (int i = 0; i < count; i++) {
+            result[i] = normalizingSum > 0 ? result[i] / normalizingSum : 1.0 / count;
+        }
+    }
+
+    /**
+     * Adds a regret to an action of an information set.
+     *
+     * @param id     the id of the information set.
+     * @param action the index of the action.
+     * @param regret the regret to add.
+     */
+    public void addRegret(int id, int action, double regret) {
+        int offset = offsets[id];
+        double[] block = regretBlocks[offset >>> BLOCK_SHIFT];
+        synchronized (lock(id)) {
+            settle(id);
+            block[(offset & BLOCK_MASK) + action] += regret;
+        }
+    }
+
+    /**
+     * Adds a strategy, weighted by the given amount, to the cumulative strategy of an information set.
+     *
+     * @param id       the id of the information set.
+     * @param strategy the probability of every action.
+     * @param weight   the weight of the strategy, usually the reach probability of the player.
+     */
+    public void addStrategy(int id, double[] strategy, double weight) {
+        int offset = offsets[id];
+        double[] block = strategyBlocks[offset >>> BLOCK_SHIFT];
+        int start = offset & BLOCK_MASK;
+        int actionCount = actionCounts[id];
+        synchronized (lock(id)) {
+            settle(id);
+            for (int i = 0; i < actionCount; i++) {
+                block[start + i] += weight * strategy[i];
+            }
+        }
+    }
+
+    /**
+     * Floors every cumulative regret at zero, as done by CFR+.
+     * The regrets of every information set are floored when it is next read or updated.
+     */
+    public synchronized void floorRegrets() {
+        floorCount++;
+    }
+
+    /**
+     * Scales every cumulative value, as done by Discounted CFR.
+     * The values of every information set are scaled when it is next read or updated.
+     *
+     * @param positiveRegretFactor the factor of the positive regrets.
+     * @param negativeRegretFactor the factor of the negative regrets.
+     * @param strategyFactor       the factor of the cumulative strategies.
+     */
+    public synchronized void discount(double positiveRegretFactor, double negativeRegretFactor, double strategyFactor) {
+        int count = discountCount;
+        if (count + 1 == strategyLogs.length) {
+            positiveRegretLogs = Arrays.copyOf(positiveRegretLogs, strategyLogs.length * 2);
+            negativeRegretLogs = Arrays.copyOf(negativeRegretLogs, strategyLogs.length * 2);
+            strategyLogs = Arrays.copyOf(strategyLogs, strategyLogs.length * 2);
+        }
+        positiveRegretLogs[count + 1] = positiveRegretLogs[count] + Math.log(positiveRegretFactor);
+        negativeRegretLogs[count + 1] = negativeRegretLogs[count] + Math.log(negativeRegretFactor);
+        strategyLogs[count + 1] = strategyLogs[count] + Math.log(strategyFactor);
+        discountCount = count + 1;
+    }
+
+    /**
+     * Gets the cumulative regret of an action of an information set.
+     *
+     * @param id     the id of the information set.
+     * @param action the index of the action.
+     * @return the cumulative regret.
+     */
+    public double getRegret(int id, int action) {
+        int offset = offsets[id] + action;
+        synchronized (lock(id)) {
+            settle(id);
+            return regretBlocks[offset >>> BLOCK_SHIFT][offset & BLOCK_MASK];
+        }
+    }
+
+    /**
+     * Gets the cumulative strategy of an action of an information set.
+     *
+     * @param id     the id of the information set.
+     * @param action the index of the action.
+     * @return the cumulative strategy.
+     */
+    public double getStrategySum(int id, int action) {
+        int offset = offsets[id] + action;
+        synchronized (lock(id)) {
+            settle(id);
+            return strategyBlocks[offset >>> BLOCK_SHIFT][offset & BLOCK_MASK];
+        }
+    }
+
+    /**
+     * Gets the information set with the given id.
+     *
+     * @param id the id of the information set.
+     * @return the information set.
+     */
+    @SuppressWarnings("unchecked")
+    public InformationSet<T, E> getInformationSet(int id) {
+        return (InformationSet<T, E>) informationSets[id];
+    }
+
+    /**
+     * Gets the actions of an information set, in index order, as listed again by the information set.
+     *
+     * @param id the id of the information set.
+     * @return the actions of the information set.
+     */
+    public List<E> getActions(int id) {
+        InformationSet<T, E> informationSet = getInformationSet(id);
+        return informationSet.getPlayerActions(informationSet.getPlayerIndex());
+    }
+
+    /**
+     * Gets the number of actions of an information set.
+     *
+     * @param id the id of the information set.
+     * @return the number of actions.
+     */
+    public int getActionCount(int id) {
+        return actionCounts[id];
+    }
+
+    /**
+     * Gets the number of information sets in the tables.
+     *
+     * @return the number of information sets.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every information set, keeping the allocated arrays for reuse.
+     */
+    public synchronized void clear() {
+        ids.clear();
+        restoredKey = null;
+        restoredValues = null;
+        Arrays.fill(informationSets, 0, size, null);
+        for (int i = 0; i < regretBlocks.length; i++) {
+            Arrays.fill(regretBlocks[i], 0.0);
+            Arrays.fill(strategyBlocks[i], 0.0);
+        }
+        size = 0;
+        length = 0;
+        floorCount = 0;
+        discountCount = 0;
+    }
+
+    /**
+     * Replaces the content of the tables with values restored from a checkpoint.
+     * The values of an information set are moved into the tables when it is interned.
+     * Must not run concurrently with the traversals.
+     *
+     * @param key    the key of the information sets.
+     * @param values the regrets followed by the cumulative strategies of every information set, by key.
+     */
+    synchronized void restore(InformationSetKey<T, E> key, Map<Long, double[]> values) {
+        clear();
+        restoredKey = key;
+        restoredValues = new HashMap<>(values);
+    }
+
+    /**
+     * Gets the restored values whose information sets have not been reached again,
+     * with the floorings and discounts recorded since the restore applied.
+     *
+     * @return the regrets followed by the cumulative strategies of every pending information set, by key.
+     */
+    synchronized Map<Long, double[]> getRestoredValues() {
+        if (restoredValues == null) return Map.of();
+        Map<Long, double[]> values = new HashMap<>(restoredValues.size() * 2);
+        for (Map.Entry<Long, double[]> entry : restoredValues.entrySet()) {
+            double[] entryValues = entry.getValue().clone();
+            int actionCount = entryValues.length / 2;
+            applyPending(entryValues, 0, entryValues, actionCount, actionCount, floorCount > 0, 0, discountCount);
+            values.put(entry.getKey(), entryValues);
+        }
+        return values;
+    }
+
+    /**
+     * Computes the average strategy of an information set restored from a checkpoint and not reached again.
+     *
+     * @param informationSet the information set.
+     * @return the probability of every action, in the order of the restored values, or null if nothing was restored for it.
+     */
+    synchronized double[] getRestoredAverageStrategy(InformationSet<T, E> informationSet) {
+        if (restoredValues == null) return null;
+        double[] values = restoredValues.get(restoredKey.getKey(informationSet));
+        if (values == null) return null;
+        int actionCount = values.length / 2;
+        double[] strategy = new double[actionCount];
+        normalize(values, actionCount, actionCount, strategy, false);
+        return strategy;
+    }
+
+    /**
+     * Gets the key of the restored values.
+     *
+     * @return the key, or null if the tables were not restored.
+     */
+    synchronized InformationSetKey<T, E> getRestoredKey() {
+        return restoredKey;
+    }
+}
@@ -0,0 +1,109 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import java.util.Arrays;
+
+/**
+ * Reports the throughput of a training run by {@link ParallelCFRTrainer}.
+ * An iteration is the traversal of both players from one start state.
+ * The throughput of a thread is measured on the time it spent traversing, while the total throughput
+ * is measured on the wall-clock time of the whole training, synchronization included.
+ */
+public final class CFRTrainingReport {
+    private final long[] iterations;
+    private final long[] busyNanos;
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new report.
+     *
+     * @param iterations   the number of iterations run by every thread.
+     * @param busyNanos    the time spent traversing by every thread, in nanoseconds.
+     * @param elapsedNanos the wall-clock time of the training, in nanoseconds.
+     */
+    CFRTrainingReport(long[] iterations, long[] busyNanos, long elapsedNanos) {
+        this.iterations = iterations.clone();
+        this.busyNanos = busyNanos.clone();
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of threads of the training.
+     *
+     * @return the number of threads.
+     */
+    public int getNumThreads() {
+        return iterations.length;
+    }
+
+    /**
+     * Gets the number of iterations run by every thread together.
+     *
+     * @return the total number of iterations.
+     */
+    public long getTotalIterations() {
+        return Arrays.stream(iterations).sum();
+    }
+
+    /**
+     * Gets the number of iterations run by a thread.
+     *
+     * @param thread the index of the thread.
+     * @return the number of iterations.
+     */
+    public long getIterations(int thread) {
+        return iterations[thread];
+    }
+
+    /**
+     * Gets the time a thread spent traversing.
+     *
+     * @param thread the index of the thread.
+     * @return the busy time, in nanoseconds.
+     */
+    public long getBusyNanos(int thread) {
+        return busyNanos[thread];
+    }
+
+    /**
+     * Gets the wall-clock time of the training.
+     *
+     * @return the elapsed time, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the number of iterations per second run by every thread together.
+     *
+     * @return the total throughput.
+     */
+    public double getIterationsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : getTotalIterations() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the number of iterations per second run by a thread while traversing.
+     *
+     * @param thread the index of the thread.
+     * @return the throughput of the thread.
+     */
+    public double getIterationsPerSecond(int thread) {
+        return busyNanos[thread] == 0 ? 0.0 : iterations[thread] * 1e9 / busyNanos[thread];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("CFRTrainingReport{")
+                .append("threads=").append(getNumThreads())
+                .append(", iterations=").append(getTotalIterations())
+                .append(", elapsedMs=").append(elapsedNanos / 1_000_000)
+                .append(", iterationsPerSecond=").append(String.format("%.1f", getIterationsPerSecond()))
+                .append(", perThread=[");
+        for (int i = 0; i < iterations.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(String.format("%.1f", getIterationsPerSecond(i)));
+        }
+        return builder.append("]}").toString();
+    }
+}
@@ -0,0 +1,177 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Represents the rules a CFR training applies to the cumulative regrets and strategies between iterations.
+ * <ul>
+ *     <li>Vanilla CFR keeps the plain sums.</li>
+ *     <li>CFR+ floors the cumulative regrets at zero after every traversal, so that an action that turns good
+ *     is played again at once, and weights the average strategy linearly with the iteration number.</li>
+ *     <li>Discounted CFR (DCFR) scales down, after every iteration t, the positive regrets by {@code t^alpha / (t^alpha + 1)},
+ *     the negative regrets by {@code t^beta / (t^beta + 1)} and the cumulative strategy by {@code (t / (t + 1))^gamma},
+ *     so that the early, poor iterations weigh less and less.</li>
+ * </ul>
+ * Every variant updates the players alternately, one traversal per player in every iteration.
+ * With {@link ParallelCFRTrainer}, every worker iteration is one iteration of the variant, with its own iteration number:
+ * CFR+ floors the regrets after each of its traversals and weights its strategies by its number, and DCFR discounts
+ * the tables once per worker iteration, so a parallel training applies the same rules as a sequential one
+ * with as many iterations, only interleaved with the traversals of the other workers.
+ * Variants are immutable and work on the same {@link CFRTables}. Two variants with the same rules are equal.
+ */
+public final class CFRVariant {
+    static final int BYTES = Integer.BYTES + 3 * Double.BYTES;
+    private static final int VANILLA_KIND = 0;
+    private static final int CFR_PLUS_KIND = 1;
+    private static final int DCFR_KIND = 2;
+    private static final CFRVariant VANILLA = new CFRVariant("CFR", false, false, false, 0, 0, 0);
+    private static final CFRVariant CFR_PLUS = new CFRVariant("CFR+", true, true, false, 0, 0, 0);
+
+    private final String name;
+    private final boolean regretFlooring;
+    private final boolean linearAveraging;
+    private final boolean discounting;
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+
+    private CFRVariant(String name, boolean regretFlooring, boolean linearAveraging, boolean discounting, double alpha, double beta, double gamma) {
+        this.name = name;
+        this.regretFlooring = regretFlooring;
+        this.linearAveraging = linearAveraging;
+        this.discounting = discounting;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Returns vanilla CFR.
+     *
+     * @return the vanilla variant.
+     */
+    public static CFRVariant vanilla() {
+        return VANILLA;
+    }
+
+    /**
+     * Returns CFR+, with regret flooring and linear averaging.
+     *
+     * @return the CFR+ variant.
+     */
+    public static CFRVariant cfrPlus() {
+        return CFR_PLUS;
+    }
+
+    /**
+     * Returns Discounted CFR with the recommended parameters alpha = 1.5, beta = 0 and gamma = 2.
+     *
+     * @return the DCFR variant.
+     */
+    public static CFRVariant discounted() {
+        return discounted(1.5, 0.0, 2.0);
+    }
+
+    /**
+     * Returns Discounted CFR with the given parameters.
+     *
+     * @param alpha the exponent discounting the positive regrets.
+     * @param beta  the exponent discounting the negative regrets.
+     * @param gamma the exponent discounting the cumulative strategy.
+     * @return the DCFR variant.
+     */
+    public static CFRVariant discounted(double alpha, double beta, double gamma) {
+        return new CFRVariant("DCFR", false, false, true, alpha, beta, gamma);
+    }
+
+    /**
+     * Gets the weight of the strategy of the given iteration in the average strategy.
+     *
+     * @param iteration the iteration number, starting from 1.
+     * @return the weight of the strategy.
+     */
+    double getStrategyWeight(int iteration) {
+        return linearAveraging ? iteration : 1.0;
+    }
+
+    /**
+     * Updates the tables after the traversal of a player.
+     *
+     * @param tables the CFR tables.
+     */
+    void endTraversal(CFRTables<?, ?> tables) {
+        if (regretFlooring) {
+            tables.floorRegrets();
+        }
+    }
+
+    /**
+     * Updates the tables after the traversals of every player in the given iteration.
+     *
+     * @param tables    the CFR tables.
+     * @param iteration the iteration number, starting from 1.
+     */
+    void endIteration(CFRTables<?, ?> tables, int iteration) {
+        if (discounting) {
+            double positiveWeight = Math.pow(iteration, alpha);
+            double negativeWeight = Math.pow(iteration, beta);
+            tables.discount(positiveWeight / (positiveWeight + 1), negativeWeight / (negativeWeight + 1),
+                    Math.pow((double) iteration / (iteration + 1), gamma));
+        }
+    }
+
+    /**
+     * Writes the rules of this variant, as stored in the header of a {@link CFRCheckpoint}.
+     *
+     * @param buffer the buffer, with room for {@link #BYTES} bytes.
+     */
+    void write(ByteBuffer buffer) {
+        int kind = regretFlooring ? CFR_PLUS_KIND : discounting ? DCFR_KIND : VANILLA_KIND;
+        buffer.putInt(kind).putDouble(alpha).putDouble(beta).putDouble(gamma);
+    }
+
+    /**
+     * Reads a variant written by {@link #write(ByteBuffer)}.
+     *
+     * @param buffer the buffer, with at least {@link #BYTES} bytes remaining.
+     * @return the variant.
+     * @throws IllegalArgumentException if the bytes don't describe a variant.
+     */
+    static CFRVariant read(ByteBuffer buffer) {
+        int kind = buffer.getInt();
+        double alpha = buffer.getDouble();
+        double beta = buffer.getDouble();
+        double gamma = buffer.getDouble();
+        switch (kind) {
+            case VANILLA_KIND:
+                return VANILLA;
+            case CFR_PLUS_KIND:
+                return CFR_PLUS;
+            case DCFR_KIND:
+                return discounted(alpha, beta, gamma);
+            default:
+                throw new IllegalArgumentException("Unknown CFR variant " + kind);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CFRVariant)) return false;
+        CFRVariant that = (CFRVariant) o;
+        return regretFlooring == that.regretFlooring && linearAveraging == that.linearAveraging
+                && discounting == that.discounting && Double.compare(alpha, that.alpha) == 0
+                && Double.compare(beta, that.beta) == 0 && Double.compare(gamma, that.gamma) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(regretFlooring, linearAveraging, discounting, alpha, beta, gamma);
+    }
+
+    @Override
+    public String toString() {
+        return discounting ? name + "{alpha=" + alpha + ", beta=" + beta + ", gamma=" + gamma + '}' : name;
+    }
+}
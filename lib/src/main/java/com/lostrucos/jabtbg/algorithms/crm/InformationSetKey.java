@@ -0,0 +1,22 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.InformationSet;
+
+/**
+ * Maps the information sets of a game to 64-bit keys, which identify them in the files written by {@link CFRCheckpoint}.
+ * Distinct information sets must have distinct keys, and the key of an information set must be the same
+ * in every process, so it must not depend on identity hash codes.
+ */
+@FunctionalInterface
+public interface InformationSetKey<T extends GameState<E>, E extends Action> {
+
+    /**
+     * Gets the key of the given information set.
+     *
+     * @param informationSet the information set.
+     * @return the 64-bit key of the information set.
+     */
+    long getKey(InformationSet<T, E> informationSet);
+}
@@ -0,0 +1,147 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.InformationSet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link CFRPolicy} reading the average strategy exported by {@link CFRCheckpoint#exportPolicy(CFRMAlgorithm, Path)}
+ * from a read-only memory-mapped file, so that every process playing the same policy shares one copy in the page cache.
+ * Information sets are looked up by key in the hash table of the file, and their actions are listed by
+ * {@link InformationSet#getPlayerActions(int)}, in the same order as during the training.
+ * Files of up to 2 GB can be mapped.
+ */
+public final class MappedAverageStrategyPolicy<T extends GameState<E>, E extends Action> implements CFRPolicy<T, E> {
+    static final int HEADER_BYTES = 6 * Integer.BYTES;
+    static final int SLOT_BYTES = Long.BYTES + 2 * Integer.BYTES;
+
+    private final MappedByteBuffer buffer;
+    private final InformationSetKey<T, E> key;
+    private final int slotMask;
+    private final int size;
+    private final int probabilityCount;
+    private final long probabilitiesStart;
+
+    /**
+     * Constructs a new policy mapping the given file.
+     *
+     * @param path the policy file.
+     * @param key  the key of the information sets, the same used to export the policy.
+     * @throws UncheckedIOException if the file can't be mapped.
+     * @throws IllegalArgumentException if the file is not a policy, or is truncated or corrupt.
+     */
+    public MappedAverageStrategyPolicy(Path path, InformationSetKey<T, E> key) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map the policy " + path, e);
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != CFRCheckpoint.POLICY_MAGIC
+                || buffer.getInt(4) != CFRCheckpoint.POLICY_VERSION) {
+            throw new IllegalArgumentException("Not a CFR policy: " + path);
+        }
+        int slotCount = buffer.getInt(8);
+        this.key = key;
+        this.slotMask = slotCount - 1;
+        this.size = buffer.getInt(12);
+        this.probabilityCount = buffer.getInt(16);
+        // A lookup stops at the first empty slot, so at least one slot must be empty
+        if (slotCount <= 0 || (slotCount & slotMask) != 0 || size < 0 || size >= slotCount || probabilityCount < 0) {
+            throw new IllegalArgumentException("Corrupt CFR policy: " + path);
+        }
+        this.probabilitiesStart = HEADER_BYTES + (long) slotCount * SLOT_BYTES;
+        if (buffer.capacity() != probabilitiesStart + (long) probabilityCount * Double.BYTES) {
+            throw new IllegalArgumentException("Truncated CFR policy: " + path);
+        }
+    }
+
+    /**
+     * Gets the first slot probed for the given key.
+     *
+     * @param key  the key of the information set.
+     * @param mask the number of slots minus one.
+     * @return the index of the slot.
+     */
+    static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Finds the slot of the given information set.
+     *
+     * @return the position of the slot in the file, or -1 if the information set is unknown.
+     */
+    private int findSlot(InformationSet<T, E> informationSet) {
+        long informationSetKey = key.getKey(informationSet);
+        int slot = slot(informationSetKey, slotMask);
+        while (true) {
+            int position = (int) (HEADER_BYTES + (long) slot * SLOT_BYTES);
+            if (buffer.getInt(position + Long.BYTES + Integer.BYTES) == 0) return -1;
+            if (buffer.getLong(position) == informationSetKey) return position;
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    @Override
+    public E sampleAction(InformationSet<T, E> informationSet, RandomGenerator random) {
+        int position = findSlot(informationSet);
+        if (position < 0) return null;
+        int actionCount = buffer.getInt(position + Long.BYTES + Integer.BYTES);
+        int start = getProbabilitiesPosition(position, actionCount);
+        double randomValue = random.nextDouble();
+        int index = 0;
+        while (index < actionCount - 1 && randomValue >= buffer.getDouble(start + index * Double.BYTES)) {
+            index++;
+        }
+        return getActions(informationSet, actionCount).get(index);
+    }
+
+    @Override
+    public double getProbability(InformationSet<T, E> informationSet, E action) {
+        int position = findSlot(informationSet);
+        if (position < 0) return 0.0;
+        int actionCount = buffer.getInt(position + Long.BYTES + Integer.BYTES);
+        int start = getProbabilitiesPosition(position, actionCount);
+        int index = getActions(informationSet, actionCount).indexOf(action);
+        if (index < 0) return 0.0;
+        double cumulativeProbability = buffer.getDouble(start + index * Double.BYTES);
+        return index == 0 ? cumulativeProbability : cumulativeProbability - buffer.getDouble(start + (index - 1) * Double.BYTES);
+    }
+
+    /**
+     * Gets the position in the file of the cumulative probabilities of a slot.
+     *
+     * @throws IllegalStateException if the probabilities of the slot lie outside of the file.
+     */
+    private int getProbabilitiesPosition(int position, int actionCount) {
+        int offset = buffer.getInt(position + Long.BYTES);
+        if (offset < 0 || actionCount < 0 || (long) offset + actionCount > probabilityCount) {
+            throw new IllegalStateException("Corrupt CFR policy, with " + actionCount + " probabilities at " + offset);
+        }
+        return (int) (probabilitiesStart + (long) offset * Double.BYTES);
+    }
+
+    private List<E> getActions(InformationSet<T, E> informationSet, int actionCount) {
+        List<E> actions = informationSet.getPlayerActions(informationSet.getPlayerIndex());
+        if (actions.size() != actionCount) {
+            throw new IllegalStateException("The information set has " + actions.size()
+                    + " actions, but the policy has " + actionCount);
+        }
+        return actions;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
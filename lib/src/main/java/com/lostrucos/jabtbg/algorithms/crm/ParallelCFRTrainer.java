@@ -0,0 +1,158 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * Trains a {@link CFRMAlgorithm} with several worker threads, which run independent traversals concurrently
+ * and accumulate their regrets and strategies into the shared {@link CFRTables} of the algorithm.
+ * It pays off with the sampled traversals of Monte Carlo CFR, see {@link CFRSampling}, and with start states
+ * sampled for every iteration, since concurrent full traversals of the same state do the same work.
+ *
+ * Every iteration of a worker is an iteration of the algorithm, with its own iteration number: it traverses for
+ * every player in turn and applies the rules of the {@link CFRVariant} after each traversal and after the iteration,
+ * while the other workers keep running theirs. The training runs in rounds: in every round each thread runs
+ * its share of iterations, then the coordinating thread waits for every worker and saves the checkpoint, if due.
+ * Every worker draws from its own random generator, split from the seed of the trainer, so the workers share
+ * nothing but the tables. The order in which the workers update the tables still depends on the scheduling of the threads.
+ */
+public class ParallelCFRTrainer<T extends GameState<E>, E extends Action> {
+    private static final int DEFAULT_ITERATIONS_PER_ROUND = 16;
+
+    private final CFRMAlgorithm<T, E> algorithm;
+    private final int numThreads;
+    private final ExecutorService executor;
+    private SplittableRandom[] randoms;
+    private int iterationsPerRound;
+
+    /**
+     * Constructs a new ParallelCFRTrainer backed by a dedicated pool of worker threads.
+     *
+     * @param algorithm  the algorithm to train, whose sampling and variant are used.
+     * @param numThreads the number of worker threads.
+     */
+    public ParallelCFRTrainer(CFRMAlgorithm<T, E> algorithm, int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1");
+        }
+        this.algorithm = algorithm;
+        this.numThreads = numThreads;
+        this.executor = Executors.newFixedThreadPool(numThreads, runnable -> {
+            Thread thread = new Thread(runnable, "cfr-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.iterationsPerRound = DEFAULT_ITERATIONS_PER_ROUND;
+        setSeed(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Reseeds the random generators of the workers, each one split deterministically from the given seed.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        randoms = new SplittableRandom[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            randoms[i] = root.split();
+        }
+    }
+
+    /**
+     * Sets the number of iterations every thread runs in a round. The default is 16.
+     * Longer rounds synchronize the threads less often, shorter ones let the checkpoint be saved closer to its interval.
+     *
+     * @param iterationsPerRound the number of iterations of every thread in a round.
+     */
+    public void setIterationsPerRound(int iterationsPerRound) {
+        if (iterationsPerRound < 1) {
+            throw new IllegalArgumentException("The number of iterations per round must be at least 1");
+        }
+        this.iterationsPerRound = iterationsPerRound;
+    }
+
+    /**
+     * Trains the algorithm from the given state. Every iteration traverses a private copy of the state.
+     *
+     * @param initialState  the state the traversals start from.
+     * @param numIterations the total number of iterations, split among the threads.
+     * @return the throughput of the training.
+     */
+    public CFRTrainingReport train(T initialState, int numIterations) {
+        return train(random -> GameState.copyOf(initialState), numIterations);
+    }
+
+    /**
+     * Trains the algorithm from states drawn by the given sampler, for instance with freshly dealt cards.
+     * The sampler is called by the worker threads with their own random generators, so it must be thread-safe
+     * and return a new state on every call.
+     *
+     * @param initialStates the sampler of the states the traversals start from.
+     * @param numIterations the total number of iterations, split among the threads.
+     * @return the throughput of the training.
+     */
+    public CFRTrainingReport train(Function<? super RandomGenerator, ? extends T> initialStates, int numIterations) {
+        long[] iterations = new long[numThreads];
+        long[] busyNanos = new long[numThreads];
+        long start = System.nanoTime();
+        int remaining = numIterations;
+        while (remaining > 0) {
+            int roundIterations = Math.min(remaining, iterationsPerRound * numThreads);
+            int previousIteration = algorithm.getIteration();
+            List<Future<?>> futures = new ArrayList<>(numThreads);
+            for (int i = 0; i < numThreads; i++) {
+                int thread = i;
+                int quota = roundIterations / numThreads + (i < roundIterations % numThreads ? 1 : 0);
+                if (quota == 0) continue;
+                futures.add(executor.submit(() -> {
+                    long threadStart = System.nanoTime();
+                    RandomGenerator random = randoms[thread];
+                    for (int j = 0; j < quota; j++) {
+                        algorithm.runIteration(initialStates.apply(random), random);
+                    }
+                    iterations[thread] += quota;
+                    busyNanos[thread] += System.nanoTime() - threadStart;
+                }));
+            }
+            awaitAll(futures);
+            if (algorithm.getCheckpoint() != null) algorithm.getCheckpoint().afterIterations(algorithm, previousIteration);
+            remaining -= roundIterations;
+        }
+        return new CFRTrainingReport(iterations, busyNanos, System.nanoTime() - start);
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the CFR workers", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A CFR worker failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of worker threads.
+     *
+     * @return the number of threads.
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Stops the worker pool.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
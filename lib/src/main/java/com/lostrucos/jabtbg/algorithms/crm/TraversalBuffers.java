@@ -0,0 +1,40 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import java.util.Arrays;
+
+/**
+ * Scratch arrays reused by the recursive traversals of {@link CFRMAlgorithm}, one set for every depth of the game tree,
+ * so that a traversal stops allocating once it has reached the deepest and widest information sets.
+ * An array may be longer than the number of actions it is asked for, and its content is left over from the last use.
+ * Buffers are not thread-safe: every thread traversing the tables has its own.
+ */
+final class TraversalBuffers {
+    static final int CURRENT_STRATEGY = 0;
+    static final int UTILITIES = 1;
+    static final int SAMPLING_STRATEGY = 2;
+    private static final int KINDS = 3;
+    private static final int INITIAL_DEPTH = 16;
+
+    private double[][] arrays = new double[INITIAL_DEPTH * KINDS][];
+
+    /**
+     * Gets the array of the given kind for the given depth, with room for at least the given number of actions.
+     *
+     * @param depth       the depth of the node in the traversal, starting from 0.
+     * @param kind        the kind of the array, such as {@link #CURRENT_STRATEGY}.
+     * @param actionCount the number of actions of the node.
+     * @return the scratch array.
+     */
+    double[] get(int depth, int kind, int actionCount) {
+        int index = depth * KINDS + kind;
+        if (index >= arrays.length) {
+            arrays = Arrays.copyOf(arrays, Math.max(index + 1, arrays.length * 2));
+        }
+        double[] array = arrays[index];
+        if (array == null || array.length < actionCount) {
+            array = new double[actionCount];
+            arrays[index] = array;
+        }
+        return array;
+    }
+}
@@ -0,0 +1,60 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the all-moves-as-first (AMAF) statistics of an action in a node, used by Rapid Action Value Estimation (RAVE).
+ * Statistics can be updated concurrently.
+ */
+public final class AmafStatistics {
+    private final AtomicInteger visitCount;
+    private final AtomicLong totalReward;
+
+    /**
+     * Constructs new empty AMAF statistics.
+     */
+    public AmafStatistics() {
+        this.visitCount = new AtomicInteger();
+        this.totalReward = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    }
+
+    /**
+     * Updates the statistics with the result of an iteration in which the action was played.
+     *
+     * @param reward the reward of the iteration, from the point of view of the player of the action.
+     */
+    public void updateStats(double reward) {
+        visitCount.incrementAndGet();
+        long current;
+        do {
+            current = totalReward.get();
+        } while (!totalReward.compareAndSet(current, Double.doubleToRawLongBits(Double.longBitsToDouble(current) + reward)));
+    }
+
+    /**
+     * Gets the number of iterations in which the action was played.
+     *
+     * @return the AMAF visit count.
+     */
+    public int getVisitCount() {
+        return visitCount.get();
+    }
+
+    /**
+     * Gets the total reward of the iterations in which the action was played.
+     *
+     * @return the AMAF total reward.
+     */
+    public double getTotalReward() {
+        return Double.longBitsToDouble(totalReward.get());
+    }
+
+    @Override
+    public String toString() {
+        return "AmafStatistics{" +
+                "visitCount=" + getVisitCount() +
+                ", totalReward=" + getTotalReward() +
+                '}';
+    }
+}
@@ -0,0 +1,292 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.*;
+
+import java.util.*;
+
+/**
+ * Implements the Monte Carlo Tree Search (MCTS) algorithm for games with perfect information
+ * on top of a {@link MCTSNodeArena}, instead of a tree of {@link MCTSNode} objects.
+ * Nodes hold no game state: every iteration copies the root state once and replays the actions along the path,
+ * so the memory of a node is reduced to a few primitive fields and the search puts almost no pressure on the garbage collector.
+ * The arena starts small and grows with the tree, never past the node limit of the search budget.
+ * The tree is discarded whenever an action is taken.
+ */
+public class ArenaMCTSAlgorithm<E extends Action, T extends GameState<E>> implements Algorithm<T, E> {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private SearchBudget searchBudget;
+    private final double explorationConstant;
+    private SplittableRandom random;
+    private final MCTSNodeArena<E> arena;
+    private int[] path;
+    private T rootState;
+    private int rootNode;
+    private Strategy<T, E> strategy;
+    private int lastSearchIterations;
+
+    /**
+     * Constructs a new ArenaMCTSAlgorithm.
+     *
+     * @param numIterations       the number of simulations to run.
+     * @param explorationConstant the exploration constant used in UCB.
+     */
+    public ArenaMCTSAlgorithm(int numIterations, double explorationConstant) {
+        this(SearchBudget.ofIterations(numIterations), explorationConstant, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new ArenaMCTSAlgorithm that searches until any limit of the given budget is reached.
+     *
+     * @param searchBudget        the budget of every search.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param random              the random generator used by this search.
+     */
+    public ArenaMCTSAlgorithm(SearchBudget searchBudget, double explorationConstant, SplittableRandom random) {
+        this.searchBudget = searchBudget;
+        this.explorationConstant = explorationConstant;
+        this.random = random;
+        this.arena = new MCTSNodeArena<>(INITIAL_CAPACITY, searchBudget.getMaxNodes());
+        this.path = new int[64];
+        this.rootNode = MCTSNodeArena.NONE;
+    }
+
+    /**
+     * Initializes the arena with a single root node holding a copy of the given state.
+     *
+     * @param state the current game state.
+     */
+    @Override
+    public void initialize(T state) {
+        rootState = GameState.copyOf(state);
+        arena.clear();
+        rootNode = arena.allocate(MCTSNodeArena.NONE, null, rootState.isTerminalNode());
+    }
+
+    @Override
+    public void setStrategy(Strategy<T, E> strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void reset() {
+        arena.clear();
+        rootState = null;
+        rootNode = MCTSNodeArena.NONE;
+    }
+
+    /**
+     * It chooses the best action to take from the considered state using the MCTS algorithm
+     * iterated until any limit of the search budget is reached.
+     *
+     * @param state the current game state.
+     * @return the selected action.
+     */
+    @Override
+    public E chooseAction(T state) {
+        if (rootState == null || !rootState.equals(state)) {
+            initialize(state);
+        }
+
+        long startTime = System.nanoTime();
+        int iterations = 0;
+        while (searchBudget.allowsIteration(iterations, arena.size(), System.nanoTime() - startTime)) {
+            runIteration();
+            iterations++;
+        }
+        lastSearchIterations = iterations;
+
+        return getBestAction();
+    }
+
+    @Override
+    public void applyPseudoAction(T state, E action) {
+        state.applyAction(action);
+    }
+
+    /**
+     * Discards the tree, since the arena keeps no state that would allow promoting a subtree to root.
+     *
+     * @param state  the new game state.
+     * @param action the action taken.
+     */
+    @Override
+    public void updateAfterAction(T state, E action) {
+        reset();
+    }
+
+    /**
+     * Runs one complete iteration starting from the root node (selection, expansion, simulation and back-propagation).
+     * The state of the root is copied once and then advanced in place along the path.
+     */
+    void runIteration() {
+        T state = GameState.copyOf(rootState);
+        int depth = 0;
+        int node = rootNode;
+        path[depth++] = node;
+
+        while (!arena.isTerminal(node) && arena.isFullyExpanded(node)) {
+            node = selectChild(node);
+            applyPseudoAction(state, arena.getAction(node));
+            depth = push(depth, node);
+        }
+
+        if (!arena.isTerminal(node)) {
+            int expandedNode = expand(node, state);
+            if (expandedNode != node) {
+                node = expandedNode;
+                depth = push(depth, node);
+            }
+        }
+
+        double reward = simulate(state);
+        backpropagate(depth, reward);
+    }
+
+    /**
+     * Selects the child of the given node with the highest UCB value.
+     *
+     * @param node the index of the parent node.
+     * @return the index of the selected child.
+     */
+    private int selectChild(int node) {
+        double logVisits = Math.log(arena.getVisitCount(node));
+        int bestChild = MCTSNodeArena.NONE;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = arena.getFirstChild(node); child != MCTSNodeArena.NONE; child = arena.getNextSibling(child)) {
+            int visits = arena.getVisitCount(child);
+            if (visits == 0) return child;
+            double value = arena.getTotalReward(child) / visits + explorationConstant * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    /**
+     * Expands the given node with a random action that has no child yet, and advances the state with it.
+     *
+     * @param node  the index of the node to expand.
+     * @param state the state of the node, advanced to the state of the new child.
+     * @return the index of the new child, or the given node if it has no untried actions.
+     */
+    private int expand(int node, T state) {
+        List<E> untriedActions = state.getAvailableActions(state.getCurrentPlayer());
+        arena.setLegalActionCount(node, untriedActions.size());
+        for (int child = arena.getFirstChild(node); child != MCTSNodeArena.NONE; child = arena.getNextSibling(child)) {
+            untriedActions.remove(arena.getAction(child));
+        }
+        if (untriedActions.isEmpty()) return node;
+
+        E action = untriedActions.get(random.nextInt(untriedActions.size()));
+        applyPseudoAction(state, action);
+        return arena.allocate(node, action, state.isTerminalNode());
+    }
+
+    /**
+     * Plays random actions on the given state until it is terminal.
+     *
+     * @param state the state of the leaf node, consumed by the playout.
+     * @return the utility of the final state for the player to move in the leaf state.
+     */
+    private double simulate(T state) {
+        int leafPlayer = state.getCurrentPlayer();
+        while (!state.isTerminalNode()) {
+            List<E> actions = state.getAvailableActions(state.getCurrentPlayer());
+            applyPseudoAction(state, actions.get(random.nextInt(actions.size())));
+        }
+        return strategy.calculateUtility(state, leafPlayer);
+    }
+
+    /**
+     * Updates the statistics of every node on the path, from the leaf up to the root node.
+     *
+     * @param depth  the number of nodes on the path.
+     * @param reward the reward for the leaf node.
+     */
+    private void backpropagate(int depth, double reward) {
+        for (int i = depth - 1; i >= 0; i--) {
+            arena.updateNodeStats(path[i], reward);
+            reward = 1 - reward; // Invert reward for opponent
+        }
+    }
+
+    private int push(int depth, int node) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth] = node;
+        return depth + 1;
+    }
+
+    /**
+     * Select the best action of the root node based on the ratio of reward to visits.
+     *
+     * @return the best action.
+     */
+    private E getBestAction() {
+        int bestChild = MCTSNodeArena.NONE;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = arena.getFirstChild(rootNode); child != MCTSNodeArena.NONE; child = arena.getNextSibling(child)) {
+            double value = arena.getTotalReward(child) / arena.getVisitCount(child);
+            if (value > bestValue) {
+                bestValue = value;
+                bestChild = child;
+            }
+        }
+        if (bestChild == MCTSNodeArena.NONE) {
+            List<E> availableActions = rootState.getAvailableActions(rootState.getCurrentPlayer());
+            return availableActions.get(random.nextInt(availableActions.size()));
+        }
+        return arena.getAction(bestChild);
+    }
+
+    /**
+     * Reseeds the random generator of this algorithm, so that the following searches are reproducible.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Sets the budget of every following search.
+     *
+     * @param searchBudget the search budget.
+     */
+    public void setSearchBudget(SearchBudget searchBudget) {
+        this.searchBudget = searchBudget;
+        arena.setMaxCapacity(searchBudget.getMaxNodes());
+    }
+
+    /**
+     * Gets the number of iterations completed by the last search.
+     *
+     * @return the number of iterations.
+     */
+    public int getLastSearchIterations() {
+        return lastSearchIterations;
+    }
+
+    /**
+     * Gets the arena holding the nodes of the tree.
+     *
+     * @return the node arena.
+     */
+    public MCTSNodeArena<E> getArena() {
+        return arena;
+    }
+
+    /**
+     * Gets the index of the root node in the arena.
+     *
+     * @return the root node index, or {@link MCTSNodeArena#NONE} if the tree is empty.
+     */
+    public int getRootNode() {
+        return rootNode;
+    }
+}
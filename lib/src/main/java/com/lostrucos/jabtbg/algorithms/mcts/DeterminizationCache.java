@@ -0,0 +1,150 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.*;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Caches a pool of determinizations for every information set searched by {@link ISMCTSAlgorithm},
+ * so that the iterations reuse the sampled states instead of calling {@link InformationSet#determinePseudoState()} every time.
+ * A pool is filled lazily by the first iterations on its information set, then every iteration plays on a copy
+ * of a random state of the pool.
+ *
+ * When an action is taken, the pool of the information set is carried over to the information set reached with the action:
+ * the action is applied to every cached state, and the states that become inconsistent with the new information
+ * are dropped, to be replaced by fresh samples as the pool fills up again.
+ * The pools of the least recently used information sets are evicted once the cache holds too many of them.
+ * The cache can be shared by the threads of a search.
+ */
+public class DeterminizationCache<T extends GameState<E>, E extends Action> {
+    private final Game<T, E> game;
+    private final int poolSize;
+    private final Map<InformationSet<T, E>, List<T>> pools;
+
+    /**
+     * Constructs a new DeterminizationCache.
+     *
+     * @param game               the game, used to check that the cached states are consistent with the information sets.
+     * @param poolSize           the number of determinizations kept for every information set.
+     * @param maxInformationSets the number of information sets whose pools are kept.
+     */
+    public DeterminizationCache(Game<T, E> game, int poolSize, int maxInformationSets) {
+        if (poolSize < 1 || maxInformationSets < 1) {
+            throw new IllegalArgumentException("The pool size and the number of information sets must be at least 1");
+        }
+        this.game = game;
+        this.poolSize = poolSize;
+        this.pools = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<InformationSet<T, E>, List<T>> eldest) {
+                return size() > maxInformationSets;
+            }
+        };
+    }
+
+    /**
+     * Samples a determinization of the given information set.
+     * While the pool of the information set is not full, the determinization is freshly sampled and added to the pool,
+     * otherwise it is a random state of the pool.
+     *
+     * @param informationSet the information set.
+     * @param random         the random generator of the thread running the iteration.
+     * @return a private copy of a state consistent with the information set.
+     */
+    public T sample(InformationSet<T, E> informationSet, RandomGenerator random) {
+        List<T> pool;
+        synchronized (pools) {
+            pool = pools.computeIfAbsent(informationSet, key -> new ArrayList<>(poolSize));
+        }
+        synchronized (pool) {
+            if (pool.size() >= poolSize) {
+                return GameState.copyOf(pool.get(random.nextInt(pool.size())));
+            }
+        }
+        T state = informationSet.determinePseudoState();
+        synchronized (pool) {
+            if (pool.size() < poolSize) {
+                pool.add(GameState.copyOf(state));
+            }
+        }
+        return GameState.copyOf(state);
+    }
+
+    /**
+     * Carries the pool of an information set over to the information set reached with the given action.
+     * The action is applied to every cached state where it is legal, and only the states in which the player
+     * has the new information set are kept.
+     *
+     * @param from   the information set before the action.
+     * @param action the action taken.
+     * @param to     the information set after the action.
+     */
+    public void advance(InformationSet<T, E> from, E action, InformationSet<T, E> to) {
+        List<T> pool;
+        synchronized (pools) {
+            pool = pools.remove(from);
+        }
+        if (pool == null) return;
+
+        List<T> survivors = new ArrayList<>(poolSize);
+        synchronized (pool) {
+            for (T state : pool) {
+                if (state.isTerminalNode() || state.getCurrentPlayer() != action.getPlayer()
+                        || !state.getAvailableActions(action.getPlayer()).contains(action)) continue;
+                state.applyAction(action);
+                if (to.equals(game.getInformationSet(to.getPlayerIndex(), state))) {
+                    survivors.add(state);
+                }
+            }
+        }
+        synchronized (pools) {
+            List<T> existingPool = pools.putIfAbsent(to, survivors);
+            if (existingPool != null) {
+                synchronized (existingPool) {
+                    for (T state : survivors) {
+                        if (existingPool.size() >= poolSize) break;
+                        existingPool.add(state);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of determinizations cached for the given information set.
+     *
+     * @param informationSet the information set.
+     * @return the number of cached determinizations.
+     */
+    public int getCachedCount(InformationSet<T, E> informationSet) {
+        List<T> pool;
+        synchronized (pools) {
+            pool = pools.get(informationSet);
+        }
+        if (pool == null) return 0;
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+
+    /**
+     * Gets the number of information sets whose pools are cached.
+     *
+     * @return the number of information sets.
+     */
+    public int size() {
+        synchronized (pools) {
+            return pools.size();
+        }
+    }
+
+    /**
+     * Removes every cached pool.
+     */
+    public void clear() {
+        synchronized (pools) {
+            pools.clear();
+        }
+    }
+}
@@ -3,192 +3,574 @@ package com.lostrucos.jabtbg.algorithms.mcts;
 import com.lostrucos.jabtbg.core.*;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
 
 /**
  * Implements the Information Set Monte Carlo Tree Search (ISMCTS) algorithm for games with imperfect information.
+ * Every iteration samples a determinization of the information set of the searching player, a state consistent
+ * with what the player knows, and descends the information set tree with the moves legal in that determinization.
+ * Nodes are shared by all the determinizations reaching them with the same actions, so the tree doesn't store states.
+ * Since an action is not legal in every determinization, the exploration term of the tree policy counts how many times
+ * an action was available rather than how many times its parent was visited. The default tree policy is UCB1,
+ * and any {@link ISMCTSTreePolicy} can be set with {@link #setTreePolicy(ISMCTSTreePolicy)}.
+ *
+ * By default the algorithm is the single-observer ISMCTS (SO-ISMCTS), with one tree in which the actions of every player
+ * are seen as they are. With a {@link MoveObserver}, it becomes the multi-observer ISMCTS (MO-ISMCTS): every player
+ * has a tree made of the actions as that player sees them, the moves of a player are selected in the tree of that player,
+ * and all the trees are descended together, so that the opponents can't exploit information they don't have.
+ *
+ * The search can run on several threads sharing the tree: every thread samples its own determinizations and draws
+ * its random choices from a generator split from the one of the algorithm, while the node statistics are updated
+ * atomically. Since the threads interleave freely, searches are reproducible only with a single thread.
+ * With several threads, the information set must support concurrent calls to
+ * {@link InformationSet#determinePseudoState()}.
  */
-public class ISMCTSAlgorithm implements Algorithm {
-    private Game game;
-    private Player player;
-    private int numSimulations;
-    private double explorationConstant;
-    private Map<InformationSet, MCTSNode> gameTree;
-    private MCTSNode rootNode;
+public class ISMCTSAlgorithm<T extends GameState<E>, E extends Action> implements Algorithm<T, E> {
+
+    private static final double DEFAULT_VIRTUAL_LOSS = 1.0;
+
+    private final Game<T, E> game;
+    private SearchBudget searchBudget;
+    private ISMCTSTreePolicy<T, E> treePolicy;
+    private final int numThreads;
+    private final ExecutorService executor;
+    private final double virtualLossPenalty;
+    private final AtomicInteger nodeCount;
+    private Strategy<T, E> strategy;
+    private RolloutPolicy<T, E> rolloutPolicy;
+    private MoveObserver<E> moveObserver;
+    private final Map<Integer, ISMCTSNode<E>> observerTrees;
+    private DeterminizationCache<T, E> determinizationCache;
+    private SplittableRandom random;
+    private InformationSet<T, E> rootInformationSet;
+    private ISMCTSNode<E> rootNode;
+    private int lastSearchIterations;
 
     /**
-     * Constructs a new ISMCTSAlgorithm.
+     * Constructs a new ISMCTSAlgorithm running on the calling thread.
      *
-     * @param numSimulations the number of simulations to run.
+     * @param game                the game, giving the information sets of the players.
+     * @param numIterations       the number of simulations to run.
      * @param explorationConstant the exploration constant used in UCB.
      */
-    public ISMCTSAlgorithm(int numSimulations, double explorationConstant) {
-        this.numSimulations = numSimulations;
-        this.explorationConstant = explorationConstant;
-        this.gameTree = new HashMap<>();
+    public ISMCTSAlgorithm(Game<T, E> game, int numIterations, double explorationConstant) {
+        this(game, SearchBudget.ofIterations(numIterations), explorationConstant, 1);
     }
 
     /**
-     * Initializes the algorithm with the given game and agent.
-     * Initializes also the game tree and its root node.
+     * Constructs a new ISMCTSAlgorithm running on the calling thread, searching until any limit of the given budget is reached.
      *
-     * @param game the game to be played.
-     * @param player the agent playing the game.
+     * @param game                the game, giving the information sets of the players.
+     * @param searchBudget        the budget of every search.
+     * @param explorationConstant the exploration constant used in UCB.
      */
-    @Override
-    public void initialize(Game game, Player player) {
+    public ISMCTSAlgorithm(Game<T, E> game, SearchBudget searchBudget, double explorationConstant) {
+        this(game, searchBudget, explorationConstant, 1);
+    }
+
+    /**
+     * Constructs a new ISMCTSAlgorithm searching the same tree on the given number of threads.
+     * With more than one thread, the search runs on a dedicated pool of worker threads.
+     *
+     * @param game                the game, giving the information sets of the players.
+     * @param searchBudget        the budget of every search, shared among the threads.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param numThreads          the number of threads searching the tree.
+     */
+    public ISMCTSAlgorithm(Game<T, E> game, SearchBudget searchBudget, double explorationConstant, int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1");
+        }
         this.game = game;
-        this.player = player;
-        InformationSet initialInfoSet = game.getInitialState().getInformationSet(player.getPlayerIndex());
-        gameTree.put(initialInfoSet, new MCTSNode(game.getInitialState(), null));
-        Optional<InformationSet> firstKey = gameTree.keySet().stream().findFirst();
-        rootNode = firstKey.map(gameTree::get).orElse(null);
+        this.searchBudget = searchBudget;
+        this.treePolicy = new UCB1Policy<>(explorationConstant);
+        this.numThreads = numThreads;
+        this.executor = numThreads > 1 ? MCTSWorkerPools.create(numThreads, "ismcts-worker") : null;
+        this.virtualLossPenalty = numThreads > 1 ? DEFAULT_VIRTUAL_LOSS : 0.0;
+        this.nodeCount = new AtomicInteger();
+        this.observerTrees = new ConcurrentHashMap<>();
+        this.rolloutPolicy = RolloutPolicy.uniformRandom();
+        this.random = new SplittableRandom();
     }
 
+    /**
+     * Initializes the tree with a root node for the information set of the player to move in the given state.
+     *
+     * @param state the current game state.
+     */
     @Override
-    public void initialize(GameState state) {
-
+    public void initialize(T state) {
+        rootInformationSet = game.getInformationSet(state.getCurrentPlayer(), state);
+        rootNode = new ISMCTSNode<>(null);
+        observerTrees.clear();
+        nodeCount.set(1);
     }
 
+    /**
+     * Sets the strategy used to score the states reached by the playouts.
+     * Without a strategy, the states are scored with {@link GameState#getUtility(int)}.
+     *
+     * @param strategy the strategy.
+     */
     @Override
-    public void setStrategy(Strategy strategy) {
-
+    public void setStrategy(Strategy<T, E> strategy) {
+        this.strategy = strategy;
     }
 
     @Override
     public void reset() {
-
+        rootInformationSet = null;
+        rootNode = null;
+        observerTrees.clear();
+        nodeCount.set(0);
     }
 
     /**
-     * It chooses the best action to take from the considered state using the MCTS algorithm
-     * iterated as many times as was indicated during the instantiation of the MCTS algorithm.
+     * It chooses the best action to take from the considered state using the ISMCTS algorithm
+     * iterated until any limit of the search budget is reached.
+     * The tree is kept when the information set of the player matches the one of the root,
+     * as happens when the tree is updated with {@link #updateAfterAction(GameState, Action)}.
      *
      * @param state the current game state.
-     * @return the selected action.
+     * @return the most visited action among the ones available to the player.
      */
     @Override
-    public Action chooseAction(GameState state) {
-        InformationSet infoSet = state.getInformationSet(player.getPlayerIndex());
-        MCTSNode node = gameTree.get(infoSet);
-        for (int i = 0; i < numSimulations; i++) {
-            runIteration(node);
+    public E chooseAction(T state) {
+        InformationSet<T, E> informationSet = game.getInformationSet(state.getCurrentPlayer(), state);
+        if (rootNode == null || !informationSet.equals(rootInformationSet)) {
+            initialize(state);
         }
-        return node.selectBestAction();
+        lastSearchIterations = runSearch(System.nanoTime());
+        return getBestAction(informationSet.getPlayerActions(informationSet.getPlayerIndex()));
     }
 
     /**
-     * Updates the tree after an action is taken.
+     * Runs iterations from the root node until the search budget is exhausted, on every thread of the algorithm.
      *
-     * @param state the new game state.
-     * @param action the action taken.
+     * @param startTime the value of {@link System#nanoTime()} when the search started.
+     * @return the number of completed iterations.
      */
-    @Override
-    public void updateAfterAction(GameState state, Action action) {
-        InformationSet infoSet = state.getInformationSet(state.getCurrentPlayer());
-        gameTree.keySet().removeIf(key -> !key.equals(infoSet));
+    int runSearch(long startTime) {
+        if (numThreads == 1) {
+            int iterations = 0;
+            while (searchBudget.allowsIteration(iterations, nodeCount.get(), System.nanoTime() - startTime)) {
+                runIteration(random);
+                iterations++;
+            }
+            return iterations;
+        }
+        AtomicInteger startedIterations = new AtomicInteger();
+        AtomicInteger completedIterations = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            SplittableRandom threadRandom = random.split();
+            futures.add(executor.submit(() -> {
+                while (searchBudget.allowsIteration(startedIterations.getAndIncrement(), nodeCount.get(), System.nanoTime() - startTime)) {
+                    runIteration(threadRandom);
+                    completedIterations.incrementAndGet();
+                }
+            }));
+        }
+        MCTSWorkerPools.awaitAll(futures);
+        return completedIterations.get();
     }
 
-    @Override
-    public void applyPseudoAction(GameState state, Action action) {
+    /**
+     * Runs one complete iteration on a new determinization of the root information set
+     * (selection, expansion, simulation and back-propagation).
+     *
+     * @param random the random generator of the thread running the iteration.
+     */
+    void runIteration(RandomGenerator random) {
+        T state = determinize(random);
+        if (moveObserver == null) {
+            runSingleObserverIteration(state, random);
+        } else {
+            runMultiObserverIteration(state, random);
+        }
     }
 
-
     /**
-     * Runs one complete iteration starting from the given starting node (selection, expansion, simulation and backpropagation).
+     * Descends the tree of the searching player with the moves legal in the given determinization,
+     * expanding the first node with an untried legal action, then plays out and back-propagates.
      *
-     * @param startingNode the starting node for the iteration.
+     * @param state  the determinization, modified in place.
+     * @param random the random generator of the thread running the iteration.
      */
-    void runIteration(MCTSNode startingNode) {
-        MCTSNode leafNode = expandGameTree(selectLeafNode(startingNode));
-        simulation(leafNode);
+    private void runSingleObserverIteration(T state, RandomGenerator random) {
+        List<ISMCTSNode<E>> path = new ArrayList<>();
+        ISMCTSNode<E> node = rootNode;
+        if (virtualLossPenalty > 0) node.addVirtualLoss();
+        path.add(node);
+        while (!state.isTerminalNode()) {
+            List<E> legalActions = state.getAvailableActions(state.getCurrentPlayer());
+            if (legalActions.isEmpty()) break;
+            int untriedCount = updateAvailability(node, legalActions);
+            int actionIndex = untriedCount > 0
+                    ? selectUntriedAction(node, state, legalActions, untriedCount, random)
+                    : treePolicy.selectAction(node, state, legalActions, virtualLossPenalty, random);
+            E action = legalActions.get(actionIndex);
+            node = getOrCreateChild(node, action);
+            if (untriedCount > 0) node.incrementAvailability();
+            applyPseudoAction(state, action);
+            if (virtualLossPenalty > 0) node.addVirtualLoss();
+            path.add(node);
+            if (untriedCount > 0) break;
+        }
+        rolloutPolicy.play(state, Integer.MAX_VALUE, random, null);
+        backpropagate(path, state);
     }
 
     /**
-     * Selects a leaf node from the given starting node.
+     * Descends the trees of every player together with the moves legal in the given determinization:
+     * every move is selected in the tree of the player to move, then every tree follows the move as its player sees it.
+     * The tree of an opponent joins the descent when the opponent moves for the first time.
+     * The descent stops when the tree of the player to move is expanded, then the playout is back-propagated in every tree.
      *
-     * @param startingNode the starting node.
-     * @return the selected leaf node.
+     * @param state  the determinization, modified in place.
+     * @param random the random generator of the thread running the iteration.
      */
-    MCTSNode selectLeafNode(MCTSNode startingNode) {
-        if(startingNode.isTerminal()) {
-            return startingNode;
+    private void runMultiObserverIteration(T state, RandomGenerator random) {
+        Map<Integer, List<ISMCTSNode<E>>> paths = new HashMap<>();
+        List<E> playedActions = new ArrayList<>();
+        paths.put(rootInformationSet.getPlayerIndex(), new ArrayList<>(List.of(rootNode)));
+        if (virtualLossPenalty > 0) rootNode.addVirtualLoss();
+        while (!state.isTerminalNode()) {
+            int currentPlayer = state.getCurrentPlayer();
+            List<E> legalActions = state.getAvailableActions(currentPlayer);
+            if (legalActions.isEmpty()) break;
+            List<ISMCTSNode<E>> moverPath = paths.computeIfAbsent(currentPlayer, player -> descendObserverTree(player, playedActions));
+            ISMCTSNode<E> moverNode = moverPath.get(moverPath.size() - 1);
+            List<E> observedActions = new ArrayList<>(legalActions.size());
+            for (E action : legalActions) observedActions.add(moveObserver.observe(action, currentPlayer));
+            int untriedCount = updateAvailability(moverNode, observedActions);
+            int actionIndex = untriedCount > 0
+                    ? selectUntriedAction(moverNode, state, observedActions, untriedCount, random)
+                    : treePolicy.selectAction(moverNode, state, observedActions, virtualLossPenalty, random);
+            E action = legalActions.get(actionIndex);
+            for (Map.Entry<Integer, List<ISMCTSNode<E>>> entry : paths.entrySet()) {
+                List<ISMCTSNode<E>> path = entry.getValue();
+                ISMCTSNode<E> child = getOrCreateChild(path.get(path.size() - 1), moveObserver.observe(action, entry.getKey()));
+                if (untriedCount > 0 && entry.getKey() == currentPlayer) child.incrementAvailability();
+                if (virtualLossPenalty > 0) child.addVirtualLoss();
+                path.add(child);
+            }
+            applyPseudoAction(state, action);
+            playedActions.add(action);
+            if (untriedCount > 0) break;
         }
+        rolloutPolicy.play(state, Integer.MAX_VALUE, random, null);
+        for (List<ISMCTSNode<E>> path : paths.values()) {
+            backpropagate(path, state);
+        }
+    }
 
-        MCTSNode selectedNode = startingNode;
+    /**
+     * Descends the tree of an opponent moving for the first time in the iteration with the actions played so far,
+     * as the opponent sees them. The tree is created if it doesn't exist yet.
+     *
+     * @param player        the index of the opponent.
+     * @param playedActions the actions played so far in the iteration.
+     * @return the path descended in the tree of the opponent, root first.
+     */
+    private List<ISMCTSNode<E>> descendObserverTree(int player, List<E> playedActions) {
+        List<ISMCTSNode<E>> path = new ArrayList<>(playedActions.size() + 1);
+        ISMCTSNode<E> node = observerTrees.computeIfAbsent(player, p -> {
+            nodeCount.incrementAndGet();
+            return new ISMCTSNode<>(null);
+        });
+        if (virtualLossPenalty > 0) node.addVirtualLoss();
+        path.add(node);
+        for (E action : playedActions) {
+            node = getOrCreateChild(node, moveObserver.observe(action, player));
+            if (virtualLossPenalty > 0) node.addVirtualLoss();
+            path.add(node);
+        }
+        return path;
+    }
 
-        while(!selectedNode.isLeaf()) {
-            selectedNode = selectedNode.selectChild(explorationConstant);
+    /**
+     * Samples a determinization of the root information set, copied so that the iteration can play on it freely.
+     * With a determinization cache, the determinization is drawn from the pool of the root information set.
+     *
+     * @param random the random generator of the thread running the iteration.
+     * @return a state consistent with the root information set.
+     */
+    private T determinize(RandomGenerator random) {
+        if (determinizationCache != null) {
+            return determinizationCache.sample(rootInformationSet, random);
         }
+        return GameState.copyOf(rootInformationSet.determinePseudoState());
+    }
 
-        return selectedNode;
+    /**
+     * Increments the availability count of the children of the given node reached with the given legal actions.
+     * The legal actions that have no child yet are not counted: the child expanded by the iteration
+     * is counted once it is created.
+     *
+     * @param node         the node.
+     * @param legalActions the actions legal in the current determinization.
+     * @return the number of legal actions that have no child yet.
+     */
+    private int updateAvailability(ISMCTSNode<E> node, List<E> legalActions) {
+        int untriedCount = 0;
+        for (E action : legalActions) {
+            ISMCTSNode<E> child = node.getChild(action);
+            if (child == null) {
+                untriedCount++;
+            } else {
+                child.incrementAvailability();
+            }
+        }
+        return untriedCount;
     }
 
     /**
-     * If the leaf node isn't a terminal node, expands the game tree one time from the given leaf node.
+     * Picks a random action, among the given legal ones, that has no child in the given node yet.
      *
-     * @param leafNode the leaf node to expand.
-     * @return the expanded node.
+     * @param node         the node.
+     * @param state        the current determinization.
+     * @param legalActions the actions legal in the current determinization.
+     * @param untriedCount the number of legal actions that have no child yet, at least 1.
+     * @param random       the random generator of the thread running the iteration.
+     * @return the index of the untried action.
      */
-    MCTSNode expandGameTree(MCTSNode leafNode) {
-        if(leafNode.isTerminal()) return leafNode;
+    int selectUntriedAction(ISMCTSNode<E> node, T state, List<E> legalActions, int untriedCount, RandomGenerator random) {
+        int skippedUntried = random.nextInt(untriedCount);
+        int lastUntried = -1;
+        for (int i = 0; i < legalActions.size(); i++) {
+            if (node.getChild(legalActions.get(i)) == null) {
+                if (skippedUntried-- == 0) return i;
+                lastUntried = i;
+            }
+        }
+        // Another thread expanded some of the actions in the meantime
+        return lastUntried >= 0 ? lastUntried : treePolicy.selectAction(node, state, legalActions, virtualLossPenalty, random);
+    }
 
-        // 3 metodi diversi per ricavare la lista delle azioni disponibili per il nodo foglia selezionato per l'espansione
+    /**
+     * Gets the child reached with the given action, creating it atomically if it doesn't exist yet.
+     *
+     * @param node   the parent node.
+     * @param action the action leading to the child.
+     * @return the child node.
+     */
+    private ISMCTSNode<E> getOrCreateChild(ISMCTSNode<E> node, E action) {
+        return node.getOrCreateChild(action, a -> {
+            nodeCount.incrementAndGet();
+            return new ISMCTSNode<>(a);
+        });
+    }
 
-        //List<Action> actionList = game.getPlayerActions(agent.getPlayerIndex(),leafNode.getState());
-        //List<Action> actionList = leafNode.getState().getAvailableActions(agent.getPlayerIndex());
-        InformationSet infoSet = leafNode.getState().getInformationSet(player.getPlayerIndex());
-        List<Action> actionList = infoSet.getPlayerActions();
+    /**
+     * Updates every node on the descent path with the reward of the state reached by the playout
+     * for the player who moved into the node.
+     *
+     * @param path  the nodes descended during the iteration, root first.
+     * @param state the state reached by the playout.
+     */
+    private void backpropagate(List<ISMCTSNode<E>> path, T state) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            ISMCTSNode<E> node = path.get(i);
+            if (virtualLossPenalty > 0) node.removeVirtualLoss();
+            node.updateNodeStats(node.getPlayer() < 0 ? 0.0 : evaluate(state, node.getPlayer()));
+        }
+    }
 
-        // nel caso in cui il nodo venga creato grazie ad una azione presa a random dalla lista
-        //Random random = new Random();
-        //int randomIndex = random.nextInt(actionList.size());
-        //Action action = actionList.get(randomIndex);
+    /**
+     * Scores a state for the given player, with the strategy if one is set.
+     *
+     * @param state       the state to score.
+     * @param playerIndex the index of the player.
+     * @return the reward of the player.
+     */
+    private double evaluate(T state, int playerIndex) {
+        return strategy != null ? strategy.calculateUtility(state, playerIndex) : state.getUtility(playerIndex);
+    }
 
-        // nel caso in cui il nodo venga creato grazie alla prima azione disponibile della lista
-        Action action = actionList.get(0);
+    /**
+     * Selects the most visited action of the root node among the given available actions.
+     * If none of them was explored, a random one is chosen.
+     *
+     * @param availableActions the actions available to the player in the root information set.
+     * @return the best action.
+     */
+    E getBestAction(List<E> availableActions) {
+        E bestAction = null;
+        int bestVisits = 0;
+        int rootPlayer = rootInformationSet.getPlayerIndex();
+        for (E action : availableActions) {
+            ISMCTSNode<E> child = rootNode.getChild(moveObserver == null ? action : moveObserver.observe(action, rootPlayer));
+            if (child != null && child.getVisitCount() > bestVisits) {
+                bestVisits = child.getVisitCount();
+                bestAction = action;
+            }
+        }
+        return bestAction != null ? bestAction : availableActions.get(random.nextInt(availableActions.size()));
+    }
 
-        MCTSNode expandedNode = leafNode.getOrCreateChild(action);
-        gameTree.put(expandedNode.getState().getInformationSet(player.getPlayerIndex()), expandedNode);
-        return expandedNode;
+    /**
+     * Updates the tree after an action is taken, by either player.
+     * The child reached with the action becomes the new root, together with the information set reached with the action,
+     * so that the statistics collected in its subtree are kept for the next search.
+     * If the action was never explored, the tree is discarded and will be rebuilt by the next search.
+     * With multi-observer search, the tree of every opponent follows the action as the opponent sees it.
+     * With a determinization cache, the pool of the root information set is carried over to the next one.
+     *
+     * @param state  the new game state.
+     * @param action the action taken.
+     */
+    @Override
+    public void updateAfterAction(T state, E action) {
+        if (rootNode == null) return;
+        InformationSet<T, E> nextInformationSet = rootInformationSet.getNextInformationSet(action);
+        if (determinizationCache != null) {
+            determinizationCache.advance(rootInformationSet, action, nextInformationSet);
+        }
+        int rootPlayer = rootInformationSet.getPlayerIndex();
+        ISMCTSNode<E> nextRoot = rootNode.getChild(moveObserver == null ? action : moveObserver.observe(action, rootPlayer));
+        if (nextRoot == null) {
+            reset();
+            return;
+        }
+        rootNode = nextRoot;
+        rootInformationSet = nextInformationSet;
+        int count = countSubtree(nextRoot);
+        for (Iterator<Map.Entry<Integer, ISMCTSNode<E>>> it = observerTrees.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, ISMCTSNode<E>> entry = it.next();
+            ISMCTSNode<E> nextObserverRoot = entry.getValue().getChild(moveObserver.observe(action, entry.getKey()));
+            if (nextObserverRoot == null) {
+                it.remove();
+            } else {
+                entry.setValue(nextObserverRoot);
+                count += countSubtree(nextObserverRoot);
+            }
+        }
+        nodeCount.set(count);
     }
 
     /**
-     * Performs a simulation from the given starting node then calls a backpropagation for every simulation node created.
+     * Counts the nodes of the subtree rooted at the given node.
      *
-     * @param startingNode the startingNode to start the playout from.
+     * @param root the root of the subtree.
+     * @return the number of nodes, root included.
      */
-    void simulation(MCTSNode startingNode) {
-        MCTSNode terminalNode = startingNode;
-        while(!terminalNode.isTerminal()) {
-            List<Action> actionList = new ArrayList<>(startingNode.getChildNodes().keySet());
-            Random random = new Random();
-            int randomIndex = random.nextInt(actionList.size());
-            Action randomAction = actionList.get(randomIndex);
-            terminalNode = terminalNode.getOrCreateChild(randomAction);
+    private static int countSubtree(ISMCTSNode<?> root) {
+        int count = 0;
+        Deque<ISMCTSNode<?>> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(root);
+        while (!pendingNodes.isEmpty()) {
+            ISMCTSNode<?> node = pendingNodes.pop();
+            count++;
+            pendingNodes.addAll(node.getChildNodes().values());
         }
-        do {
-            terminalNode = backpropagationStep(terminalNode);
-        } while(!terminalNode.equals(rootNode));
+        return count;
+    }
+
+    @Override
+    public void applyPseudoAction(T state, E action) {
+        state.applyAction(action);
+    }
+
+    /**
+     * Stops the worker pool, if the algorithm runs on more than one thread.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reseeds the random generator of this algorithm, so that the following searches are reproducible.
+     * Searches running on several threads split the generator deterministically, one stream per thread.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Sets the policy choosing the moves of the playouts. The default policy plays uniformly random moves.
+     * The policy is shared by the worker threads, so it must not keep per-search state.
+     *
+     * @param rolloutPolicy the rollout policy.
+     */
+    public void setRolloutPolicy(RolloutPolicy<T, E> rolloutPolicy) {
+        this.rolloutPolicy = rolloutPolicy;
+    }
+
+    /**
+     * Switches to the multi-observer ISMCTS, where every player searches its own tree of the actions as it sees them.
+     * A null observer switches back to the single-observer ISMCTS. The tree is rebuilt by the next search.
+     *
+     * @param moveObserver the function telling how every player sees the actions, or null.
+     */
+    public void setMoveObserver(MoveObserver<E> moveObserver) {
+        this.moveObserver = moveObserver;
+        reset();
+    }
+
+    /**
+     * Sets the tree policy selecting the actions of the fully expanded nodes. The default policy is UCB1
+     * with the exploration constant given to the constructor.
+     * The policy is shared by the worker threads, so it must not keep per-search state.
+     *
+     * @param treePolicy the tree policy.
+     */
+    public void setTreePolicy(ISMCTSTreePolicy<T, E> treePolicy) {
+        this.treePolicy = treePolicy;
+    }
+
+    /**
+     * Sets the cache of determinizations drawn by the iterations, or null to sample a new determinization every iteration.
+     * A cache pays off when sampling a determinization costs more than copying a state.
+     *
+     * @param determinizationCache the determinization cache.
+     */
+    public void setDeterminizationCache(DeterminizationCache<T, E> determinizationCache) {
+        this.determinizationCache = determinizationCache;
+    }
+
+    /**
+     * Sets the budget of every following search.
+     *
+     * @param searchBudget the search budget.
+     */
+    public void setSearchBudget(SearchBudget searchBudget) {
+        this.searchBudget = searchBudget;
+    }
+
+    /**
+     * Gets the number of iterations completed by the last search.
+     *
+     * @return the number of iterations.
+     */
+    public int getLastSearchIterations() {
+        return lastSearchIterations;
     }
 
     /**
-     * Performs one step of backpropagation to update the node's visits and score with the results of the simulation.
+     * Gets the number of threads searching the tree.
      *
-     * @param startingNode the starting node to perform the backpropagation step.
-     * @return the parent node of the backpropagated node.
+     * @return the number of threads.
      */
-    MCTSNode backpropagationStep(MCTSNode startingNode) {
-        startingNode.updateNodeStats(game.getUtility(startingNode.getState(), player.getPlayerIndex()));
-        return startingNode.getParentNode();
+    public int getNumThreads() {
+        return numThreads;
     }
 
     /**
-     * Gets the game tree.
+     * Gets the number of nodes in the tree.
      *
-     * @return the game tree.
+     * @return the number of nodes.
      */
-    public Map<InformationSet, MCTSNode> getGameTree() {
-        return gameTree;
+    public int getNodeCount() {
+        return nodeCount.get();
     }
 
     /**
@@ -196,7 +578,7 @@ public class ISMCTSAlgorithm implements Algorithm {
      *
      * @return the root node.
      */
-    public MCTSNode getRootNode() {
+    public ISMCTSNode<E> getRootNode() {
         return rootNode;
     }
-}
\ No newline at end of file
+}
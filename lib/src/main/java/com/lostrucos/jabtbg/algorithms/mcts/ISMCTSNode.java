@@ -0,0 +1,206 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Represents a node of the information set tree searched by {@link ISMCTSAlgorithm}.
+ * A node stands for every state reached with the same sequence of actions from the root, whatever the hidden
+ * information of the determinization used to reach it, so nodes don't store game states.
+ * Children are created and statistics are updated atomically, so that several threads can search the same tree.
+ */
+public class ISMCTSNode<E extends Action> {
+    private final E action;
+    private final Map<E, ISMCTSNode<E>> childNodes;
+    private final AtomicInteger visitCount;
+    private final AtomicLong totalReward;
+    private final AtomicLong totalSquaredReward;
+    private final AtomicInteger virtualLoss;
+    private final AtomicInteger availabilityCount;
+    private volatile double prior;
+
+    /**
+     * Constructs a new node.
+     *
+     * @param action the action leading to this node, or null for the root node.
+     */
+    public ISMCTSNode(E action) {
+        this.action = action;
+        this.childNodes = new ConcurrentHashMap<>();
+        this.visitCount = new AtomicInteger();
+        this.totalReward = new AtomicLong(Double.doubleToRawLongBits(0.0));
+        this.totalSquaredReward = new AtomicLong(Double.doubleToRawLongBits(0.0));
+        this.virtualLoss = new AtomicInteger();
+        this.availabilityCount = new AtomicInteger();
+        this.prior = Double.NaN;
+    }
+
+    /**
+     * Gets the child reached with the given action, creating it with the given factory if it doesn't exist yet.
+     * Creation is atomic, so concurrent callers always get the same child.
+     *
+     * @param action       the action leading to the child.
+     * @param childFactory the function creating the child for the action.
+     * @return the child node.
+     */
+    public ISMCTSNode<E> getOrCreateChild(E action, Function<? super E, ? extends ISMCTSNode<E>> childFactory) {
+        ISMCTSNode<E> child = childNodes.get(action);
+        return child != null ? child : childNodes.computeIfAbsent(action, childFactory);
+    }
+
+    /**
+     * Gets the child reached with the given action.
+     *
+     * @param action the action leading to the child.
+     * @return the child node, or null if the action was never expanded.
+     */
+    public ISMCTSNode<E> getChild(E action) {
+        return childNodes.get(action);
+    }
+
+    /**
+     * Updates the statistics of this node.
+     *
+     * @param reward the reward obtained by the player who moved into this node.
+     */
+    public void updateNodeStats(double reward) {
+        visitCount.incrementAndGet();
+        addAtomically(totalReward, reward);
+        addAtomically(totalSquaredReward, reward * reward);
+    }
+
+    private static void addAtomically(AtomicLong doubleBits, double value) {
+        long current;
+        do {
+            current = doubleBits.get();
+        } while (!doubleBits.compareAndSet(current, Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value)));
+    }
+
+    /**
+     * Records that the action leading to this node was legal in the determinization of an iteration
+     * that went through the parent of this node.
+     */
+    public void incrementAvailability() {
+        availabilityCount.incrementAndGet();
+    }
+
+    /**
+     * Records that a thread is descending through this node.
+     */
+    public void addVirtualLoss() {
+        virtualLoss.incrementAndGet();
+    }
+
+    /**
+     * Records that a thread has back-propagated through this node.
+     */
+    public void removeVirtualLoss() {
+        virtualLoss.decrementAndGet();
+    }
+
+    /**
+     * Gets the action leading to this node.
+     *
+     * @return the action, or null for the root node.
+     */
+    public E getAction() {
+        return action;
+    }
+
+    /**
+     * Gets the player who moved into this node.
+     *
+     * @return the index of the player, or -1 for the root node.
+     */
+    public int getPlayer() {
+        return action == null ? -1 : action.getPlayer();
+    }
+
+    /**
+     * Gets the children of this node.
+     *
+     * @return a map of actions to child nodes.
+     */
+    public Map<E, ISMCTSNode<E>> getChildNodes() {
+        return childNodes;
+    }
+
+    /**
+     * Gets the number of times this node has been visited.
+     *
+     * @return the visit count.
+     */
+    public int getVisitCount() {
+        return visitCount.get();
+    }
+
+    /**
+     * Gets the total reward obtained by the player who moved into this node.
+     *
+     * @return the total reward.
+     */
+    public double getTotalReward() {
+        return Double.longBitsToDouble(totalReward.get());
+    }
+
+    /**
+     * Gets the sum of the squares of the rewards of the node, used to estimate the variance of the rewards.
+     *
+     * @return the sum of the squared rewards.
+     */
+    public double getTotalSquaredReward() {
+        return Double.longBitsToDouble(totalSquaredReward.get());
+    }
+
+    /**
+     * Gets the number of times the action leading to this node was available when its parent was visited.
+     *
+     * @return the availability count.
+     */
+    public int getAvailabilityCount() {
+        return availabilityCount.get();
+    }
+
+    /**
+     * Gets the number of threads currently descending through this node.
+     *
+     * @return the pending virtual losses.
+     */
+    public int getVirtualLoss() {
+        return virtualLoss.get();
+    }
+
+    /**
+     * Gets the prior probability of the action leading to this node.
+     *
+     * @return the prior probability, or {@link Double#NaN} if it has not been computed.
+     */
+    public double getPrior() {
+        return prior;
+    }
+
+    /**
+     * Sets the prior probability of the action leading to this node.
+     *
+     * @param prior the prior probability.
+     */
+    public void setPrior(double prior) {
+        this.prior = prior;
+    }
+
+    @Override
+    public String toString() {
+        return "ISMCTSNode{" +
+                "action=" + action +
+                ", visitCount=" + getVisitCount() +
+                ", availabilityCount=" + getAvailabilityCount() +
+                ", totalReward=" + getTotalReward() +
+                ", children=" + childNodes.size() +
+                '}';
+    }
+}
@@ -0,0 +1,31 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents the policy used to descend the information set tree during the selection step of {@link ISMCTSAlgorithm}.
+ * Since an action is not legal in every determinization, the children of a node compete only with the ones
+ * legal in the current determinization, and the availability count of every child, see {@link ISMCTSNode#getAvailabilityCount()},
+ * takes the place of the visits of the parent.
+ * The tree policies of {@link MCTSAlgorithm} implement this interface too, so they can be used by both searches.
+ */
+public interface ISMCTSTreePolicy<T extends GameState<E>, E extends Action> {
+
+    /**
+     * Selects the action to descend with among the given legal ones, all of which have a child in the given node.
+     * Pending virtual losses must be counted as visits that lost the given amount of reward,
+     * so that concurrent searches are spread across different branches.
+     *
+     * @param node               the node whose children are evaluated.
+     * @param state              the determinization of the current iteration, in the state of the node; it must not be modified.
+     * @param legalActions       the actions legal in the determinization, as the player of the node sees them.
+     * @param virtualLossPenalty the reward subtracted for every pending virtual loss.
+     * @param random             the random generator of the thread running the search.
+     * @return the index of the selected action.
+     */
+    int selectAction(ISMCTSNode<E> node, T state, List<E> legalActions, double virtualLossPenalty, RandomGenerator random);
+}
@@ -0,0 +1,28 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Evaluates batches of leaves reached by the Monte Carlo Tree Search, replacing the random playout of the simulation step.
+ * Evaluating many leaves in a single call amortizes the per-call cost of expensive evaluators,
+ * such as vectorized heuristics or models.
+ */
+@FunctionalInterface
+public interface LeafEvaluator<T extends GameState<E>, E extends Action> {
+
+    /**
+     * Evaluates a batch of leaves.
+     * The states belong to the nodes of the tree and must not be modified: evaluators that play on them must copy them.
+     * The value of a leaf follows the convention of the simulation step, that is the utility computed by
+     * {@link com.lostrucos.jabtbg.core.Strategy#calculateUtility(GameState, int)} for the player to move in the leaf.
+     *
+     * @param leafStates the states of the leaves to evaluate.
+     * @param random     the random generator of the thread running the search.
+     * @return the value of every leaf, in the same order as the states.
+     */
+    double[] evaluate(List<T> leafStates, RandomGenerator random);
+}
@@ -3,19 +3,50 @@ package com.lostrucos.jabtbg.algorithms.mcts;
 import com.lostrucos.jabtbg.core.*;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.random.RandomGenerator;
 
 /**
  * Implements the Monte Carlo Tree Search (MCTS) algorithm for games with perfect information.
  */
 public class MCTSAlgorithm<E extends Action, T extends GameState<E>> implements Algorithm<T, E> {
 
-    private final int numIterations;
+    private static final int DEFAULT_PONDER_NODE_LIMIT = 1 << 20;
+    private static final int PRUNED_FRACTION = 4;
+
+    private SearchBudget searchBudget;
     private final double explorationConstant;
-    private final Map<T, MCTSNode<T, E>> gameTree;
+    private TreePolicy<T, E> treePolicy;
+    private final AtomicInteger nodeCount;
+    private int nodeCapacity;
+    private final Deque<MCTSNode<T, E>> freeNodes;
+    private StateHasher<T> stateHasher;
+    private Map<Long, MCTSNode<T, E>> transpositionTable;
     private MCTSNode<T, E> rootNode;
     private Strategy<T, E> strategy;
-
-    private static final long TIME_LIMIT_MS = 10000; // 10 secondi
+    private SplittableRandom random;
+    private double virtualLossPenalty;
+    private double configuredVirtualLossPenalty;
+    private RolloutPolicy<T, E> rolloutPolicy;
+    private int rolloutDepthLimit;
+    private double wideningConstant;
+    private double wideningExponent;
+    private PriorProvider<T, E> expansionPriors;
+    private LeafEvaluator<T, E> leafEvaluator;
+    private int batchSize;
+    private int lastSearchIterations;
+    private long lastSearchTimeNanos;
+    private boolean ponderingEnabled;
+    private ExecutorService ponderExecutor;
+    private Future<?> ponderTask;
+    private volatile boolean ponderStopRequested;
+    private int lastPonderIterations;
+    private boolean solverEnabled;
 
     /**
      * Constructs a new MCTSAlgorithm.
@@ -24,22 +55,81 @@ public class MCTSAlgorithm<E extends Action, T extends GameState<E>> implements
      * @param explorationConstant the exploration constant used in UCB.
      */
     public MCTSAlgorithm(int numIterations, double explorationConstant) {
-        this.numIterations = numIterations;
+        this(numIterations, explorationConstant, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new MCTSAlgorithm that draws every random choice from the given generator.
+     *
+     * @param numIterations       the number of simulations to run.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param random              the random generator used by this search.
+     */
+    public MCTSAlgorithm(int numIterations, double explorationConstant, SplittableRandom random) {
+        this(SearchBudget.ofIterations(numIterations), explorationConstant, random);
+    }
+
+    /**
+     * Constructs a new MCTSAlgorithm that searches until any limit of the given budget is reached.
+     *
+     * @param searchBudget        the budget of every search.
+     * @param explorationConstant the exploration constant used in UCB.
+     */
+    public MCTSAlgorithm(SearchBudget searchBudget, double explorationConstant) {
+        this(searchBudget, explorationConstant, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new MCTSAlgorithm that searches until any limit of the given budget is reached
+     * and draws every random choice from the given generator.
+     *
+     * @param searchBudget        the budget of every search.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param random              the random generator used by this search.
+     */
+    public MCTSAlgorithm(SearchBudget searchBudget, double explorationConstant, SplittableRandom random) {
+        this.searchBudget = searchBudget;
         this.explorationConstant = explorationConstant;
-        this.gameTree = new HashMap<>();
+        this.random = random;
+        this.treePolicy = new UCB1Policy<>(explorationConstant);
+        this.rolloutPolicy = RolloutPolicy.uniformRandom();
+        this.rolloutDepthLimit = Integer.MAX_VALUE;
+        this.nodeCount = new AtomicInteger();
+        this.nodeCapacity = Integer.MAX_VALUE;
+        this.freeNodes = new ConcurrentLinkedDeque<>();
     }
 
     /**
      * Initializes the algorithm with the given game and agent.
-     * Initializes also the game tree and its root node.
+     * Initializes also the game tree and its root node, which holds a copy of the given state.
      *
      * @param state the current game state.
      */
     @Override
     public void initialize(T state) {
-        gameTree.clear();
-        rootNode = new MCTSNode<>(state, null);
-        gameTree.put(state, rootNode);
+        stopPondering();
+        T rootState = GameState.copyOf(state);
+        rootNode = newNode(rootState, null);
+        if (transpositionTable != null) {
+            transpositionTable.clear();
+            transpositionTable.put(stateHasher.hash(rootState), rootNode);
+        }
+        nodeCount.set(1);
+    }
+
+    /**
+     * Enables the transposition table: positions reached through different move orders share the same node,
+     * found through the 64-bit key computed by the given hasher, so the tree becomes a directed acyclic graph.
+     * Statistics are back-propagated along the path actually descended, so a shared node collects
+     * the results of every parent it has been reached from.
+     * The current tree is discarded.
+     *
+     * @param stateHasher the hasher computing the key of every state.
+     */
+    public void enableTranspositions(StateHasher<T> stateHasher) {
+        this.stateHasher = stateHasher;
+        this.transpositionTable = new ConcurrentHashMap<>();
+        reset();
     }
 
     @Override
@@ -49,38 +139,82 @@ public class MCTSAlgorithm<E extends Action, T extends GameState<E>> implements
 
     @Override
     public void reset() {
-        gameTree.clear();
+        stopPondering();
+        if (transpositionTable != null) transpositionTable.clear();
         rootNode = null;
+        nodeCount.set(0);
     }
 
     /**
      * It chooses the best action to take from the considered state using the MCTS algorithm
-     * iterated as many times as was indicated during the instantiation of the MCTS algorithm.
+     * iterated until any limit of the search budget is reached.
      *
      * @param state the current game state.
      * @return the selected action.
      */
     @Override
     public E chooseAction(T state) {
+        stopPondering();
         if (rootNode == null || !rootNode.getState().equals(state)) {
             initialize(state);
         }
+        if (rootNode.isSolved()) {
+            lastSearchIterations = 0;
+            lastSearchTimeNanos = 0;
+            return getBestAction(rootNode);
+        }
 
-        long startTime = System.currentTimeMillis();
-        int iterations = 0;
+        long startTime = System.nanoTime();
+        lastSearchIterations = runSearch(startTime);
+        lastSearchTimeNanos = System.nanoTime() - startTime;
 
-        for (int i = 0; i < numIterations; i++) {
-            //while(System.currentTimeMillis() - startTime < TIME_LIMIT_MS && iterations < numIterations) {
-            //iterations++;
-            MCTSNode<T, E> selectedNode = select(rootNode);
-            MCTSNode<T, E> expandedNode = expand(selectedNode);
-            double reward = simulate(expandedNode);
-            backpropagate(expandedNode, reward);
-        }
+        E bestAction = getBestAction(rootNode);
+        startPondering();
+        return bestAction;
+    }
 
-        //System.out.println("MCTS completed " + iterations + " iterations in " + (System.currentTimeMillis() - startTime) + "ms");
+    /**
+     * Runs iterations from the root node until the search budget is exhausted.
+     * The budget is checked before every iteration, so the deadline is overrun by at most one iteration.
+     * With the solver enabled, the search also stops as soon as the value of the root node is proven.
+     *
+     * @param startTime the value of {@link System#nanoTime()} when the search started.
+     * @return the number of completed iterations.
+     */
+    int runSearch(long startTime) {
+        AtomicInteger startedIterations = new AtomicInteger();
+        return runIterations(random,
+                () -> searchBudget.allowsIteration(startedIterations.getAndIncrement(), nodeCount.get(), System.nanoTime() - startTime));
+    }
 
-        return getBestAction(rootNode);
+    /**
+     * Runs iterations from the root node for as long as the given condition allows and the value of the root is not proven.
+     * With a leaf evaluator, the iterations run in batches evaluated together, otherwise each one runs a playout,
+     * so the foreground and the background searches collect the same kind of statistics.
+     * The tree is pruned between iterations, or between batches, when it reaches the node capacity.
+     *
+     * @param random            the random generator of the thread running the iterations.
+     * @param canStartIteration tells whether another iteration can be started, called before every iteration.
+     * @return the number of completed iterations.
+     */
+    private int runIterations(RandomGenerator random, BooleanSupplier canStartIteration) {
+        BooleanSupplier canStart = () -> !rootNode.isSolved() && canStartIteration.getAsBoolean();
+        int iterations = 0;
+        if (leafEvaluator != null) {
+            int batchIterations;
+            ensureNodeCapacity();
+            while ((batchIterations = runBatch(random, canStart)) > 0) {
+                iterations += batchIterations;
+                ensureNodeCapacity();
+            }
+            return iterations;
+        }
+        while (canStart.getAsBoolean()) {
+            ensureNodeCapacity();
+            runIteration(random);
+            iterations++;
+        }
+        return iterations;
     }
 
     @Override
@@ -89,107 +223,889 @@ public class MCTSAlgorithm<E extends Action, T extends GameState<E>> implements
     }
 
     /**
-     * Updates the tree after an action is taken.
+     * Updates the tree after an action is taken, by either player.
+     * The child reached with the action becomes the new root, so that the statistics collected in its subtree
+     * are kept for the next search, while the rest of the tree is released.
+     * If the action was never explored, the tree is discarded and will be rebuilt by the next search.
      *
      * @param state  the new game state.
      * @param action the action taken.
      */
     @Override
-    public void updateAfterAction(GameState state, Action action) {
+    public void updateAfterAction(T state, E action) {
+        boolean wasPondering = stopPondering();
+        if (rootNode == null) return;
+
+        MCTSNode<T, E> nextRoot = rootNode.getChild(action);
+        if (nextRoot == null || (state != null && !nextRoot.getState().equals(state))) {
+            reset();
+            if (wasPondering && state != null) {
+                initialize(state);
+                startPondering();
+            }
+            return;
+        }
+
+        MCTSNode<T, E> previousRoot = rootNode;
+        nextRoot.detachFromParent();
+        rootNode = nextRoot;
+        releaseUnreachableNodes(previousRoot);
+        if (wasPondering) startPondering();
+    }
+
+    /**
+     * Starts searching from the root node in the background, if pondering is enabled and the root is neither terminal nor solved.
+     * The background search runs until it is stopped, the node limit of pondering is reached or the root is solved,
+     * and it evaluates the leaves as the foreground search does, with the leaf evaluator if one is set.
+     */
+    private void startPondering() {
+        if (!ponderingEnabled || ponderTask != null || rootNode == null || rootNode.isTerminal() || rootNode.isSolved()) return;
+        if (ponderExecutor == null) {
+            ponderExecutor = MCTSWorkerPools.create(1, "mcts-ponder");
+        }
+        ponderStopRequested = false;
+        SplittableRandom ponderRandom = random.split();
+        int nodeLimit = getPonderNodeLimit();
+        ponderTask = ponderExecutor.submit(() -> {
+            lastPonderIterations = runIterations(ponderRandom, () -> !ponderStopRequested && nodeCount.get() < nodeLimit);
+        });
+    }
+
+    /**
+     * Gets the number of nodes at which pondering stops: the node limit of the search budget if it is set,
+     * otherwise 2^20 nodes, so that pondering never grows the tree without bound.
+     * With a node capacity, pruning keeps the tree under the capacity and pondering runs until it is stopped.
+     *
+     * @return the node limit of pondering.
+     */
+    private int getPonderNodeLimit() {
+        if (searchBudget.getMaxNodes() != Integer.MAX_VALUE) return searchBudget.getMaxNodes();
+        return nodeCapacity != Integer.MAX_VALUE ? Integer.MAX_VALUE : DEFAULT_PONDER_NODE_LIMIT;
+    }
+
+    /**
+     * Stops the background search, waiting for its current iteration to complete.
+     * The statistics it collected are kept in the tree.
+     *
+     * @return true if a background search was running, false otherwise.
+     */
+    public boolean stopPondering() {
+        if (ponderTask == null) return false;
+        ponderStopRequested = true;
+        try {
+            MCTSWorkerPools.awaitAll(List.of(ponderTask));
+        } finally {
+            ponderTask = null;
+        }
+        return true;
+    }
+
+    /**
+     * Counts the nodes still reachable from the root node and, if the transposition table is enabled,
+     * removes from it every node that is no longer reachable.
+     * With a node capacity, the nodes of the previous tree that are no longer reachable are kept for reuse.
+     *
+     * @param previousRoot the root of the previous tree.
+     */
+    private void releaseUnreachableNodes(MCTSNode<T, E> previousRoot) {
+        Set<MCTSNode<T, E>> reachableNodes = collectReachableNodes();
+        if (transpositionTable != null) {
+            transpositionTable.values().removeIf(node -> !reachableNodes.contains(node));
+        }
+        if (nodeCapacity != Integer.MAX_VALUE) {
+            releaseSubtree(previousRoot, reachableNodes, Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+        nodeCount.set(reachableNodes.size());
+    }
+
+    /**
+     * Collects every node reachable from the root node.
+     *
+     * @return the identity set of the reachable nodes.
+     */
+    private Set<MCTSNode<T, E>> collectReachableNodes() {
+        Set<MCTSNode<T, E>> reachableNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<MCTSNode<T, E>> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(rootNode);
+        while (!pendingNodes.isEmpty()) {
+            MCTSNode<T, E> node = pendingNodes.pop();
+            if (reachableNodes.add(node)) {
+                MCTSNode.Children<T, E> children = node.getChildren();
+                for (int i = 0; i < children.size; i++) {
+                    pendingNodes.push(children.nodes[i]);
+                }
+            }
+        }
+        return reachableNodes;
+    }
+
+    /**
+     * Gets a node for the given state, reusing a released node if one is available.
+     *
+     * @param state      the game state of the node.
+     * @param parentNode the parent node.
+     * @return the node.
+     */
+    private MCTSNode<T, E> newNode(T state, MCTSNode<T, E> parentNode) {
+        MCTSNode<T, E> node = freeNodes.poll();
+        if (node == null) {
+            return new MCTSNode<>(state, parentNode);
+        }
+        node.recycle(state, parentNode);
+        return node;
+    }
+
+    /**
+     * Prunes the tree if it has reached the node capacity, freeing a quarter of the capacity.
+     */
+    private void ensureNodeCapacity() {
+        if (nodeCount.get() >= nodeCapacity) {
+            pruneTree(nodeCapacity - nodeCapacity / PRUNED_FRACTION);
+        }
+    }
+
+    /**
+     * Prunes the least visited subtrees until the tree holds about the given number of nodes.
+     * The visit count under which subtrees are pruned is chosen so that enough nodes are freed,
+     * then the topmost subtrees under it are cut from their parents and their nodes are kept for reuse.
+     * A parent that lost a child is no longer fully expanded, so the pruned action can be expanded again later.
+     * With transpositions, a pruned node still reachable through another parent is kept, so the pruning is repeated
+     * until the nodes actually released are enough, or a pass releases nothing.
+     * Pruning must not run concurrently with the search.
+     *
+     * @param targetNodeCount the number of nodes to keep.
+     */
+    void pruneTree(int targetNodeCount) {
+        int previousNodeCount;
+        do {
+            previousNodeCount = nodeCount.get();
+            prunePass(targetNodeCount);
+        } while (nodeCount.get() > targetNodeCount && nodeCount.get() < previousNodeCount);
     }
 
     /**
-     * Selects a leaf node from the given starting node.
+     * Runs one pass of {@link #pruneTree(int)}, cutting subtrees holding about the number of nodes to free.
      *
-     * @param node the starting node.
+     * @param targetNodeCount the number of nodes to keep.
+     */
+    private void prunePass(int targetNodeCount) {
+        int nodesToFree = nodeCount.get() - targetNodeCount;
+        if (rootNode == null || nodesToFree <= 0) return;
+
+        Set<MCTSNode<T, E>> visitedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<MCTSNode<T, E>> pendingNodes = new ArrayDeque<>();
+        int[] visitCounts = new int[Math.max(16, nodeCount.get())];
+        int candidates = 0;
+        visitedNodes.add(rootNode);
+        pendingNodes.push(rootNode);
+        while (!pendingNodes.isEmpty()) {
+            MCTSNode.Children<T, E> children = pendingNodes.pop().getChildren();
+            for (int i = 0; i < children.size; i++) {
+                MCTSNode<T, E> child = children.nodes[i];
+                if (visitedNodes.add(child)) {
+                    if (candidates == visitCounts.length) visitCounts = Arrays.copyOf(visitCounts, candidates * 2);
+                    visitCounts[candidates++] = child.getVisitCount();
+                    pendingNodes.push(child);
+                }
+            }
+        }
+        if (candidates == 0) return;
+        Arrays.sort(visitCounts, 0, candidates);
+        int visitThreshold = visitCounts[Math.min(nodesToFree, candidates) - 1];
+
+        List<MCTSNode<T, E>> prunedSubtrees = new ArrayList<>();
+        Set<MCTSNode<T, E>> countedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        int freedNodes = 0;
+        visitedNodes.clear();
+        visitedNodes.add(rootNode);
+        pendingNodes.push(rootNode);
+        while (!pendingNodes.isEmpty()) {
+            MCTSNode<T, E> node = pendingNodes.pop();
+            MCTSNode.Children<T, E> children = node.getChildren();
+            for (int i = 0; i < children.size; i++) {
+                MCTSNode<T, E> child = children.nodes[i];
+                int visits = child.getVisitCount();
+                // A node already cut from another parent is cut from this one too, so that it is actually freed
+                if (visits < visitThreshold || countedNodes.contains(child)
+                        || (visits == visitThreshold && freedNodes < nodesToFree)) {
+                    node.removeChild(children.actions[i]);
+                    prunedSubtrees.add(child);
+                    freedNodes += countSubtree(child, countedNodes);
+                } else if (visitedNodes.add(child)) {
+                    pendingNodes.push(child);
+                }
+            }
+        }
+
+        // With transpositions a pruned node can still be reachable through another parent, so it must be kept
+        Set<MCTSNode<T, E>> reachableNodes = transpositionTable != null ? collectReachableNodes() : null;
+        Set<MCTSNode<T, E>> releasedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (MCTSNode<T, E> subtree : prunedSubtrees) {
+            releaseSubtree(subtree, reachableNodes, releasedNodes);
+        }
+        nodeCount.addAndGet(-releasedNodes.size());
+    }
+
+    /**
+     * Counts the nodes of the subtree rooted at the given node that have not been counted yet.
+     * With transpositions the subtree is a graph, so every node is counted once, however many paths lead to it.
+     *
+     * @param subtreeRoot  the root of the subtree.
+     * @param countedNodes the nodes already counted, filled with the nodes counted by this call.
+     * @return the number of nodes counted by this call.
+     */
+    private int countSubtree(MCTSNode<T, E> subtreeRoot, Set<MCTSNode<T, E>> countedNodes) {
+        int count = 0;
+        Deque<MCTSNode<T, E>> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(subtreeRoot);
+        while (!pendingNodes.isEmpty()) {
+            MCTSNode<T, E> node = pendingNodes.pop();
+            if (!countedNodes.add(node)) continue;
+            count++;
+            MCTSNode.Children<T, E> children = node.getChildren();
+            for (int i = 0; i < children.size; i++) {
+                pendingNodes.push(children.nodes[i]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Releases every node of the given subtree that is not reachable from the root, and puts it in the pool of free nodes.
+     *
+     * @param subtreeRoot    the root of the subtree.
+     * @param reachableNodes the nodes still reachable from the root, or null if the subtree is not shared.
+     * @param releasedNodes  the nodes already released, filled with the nodes released by this call.
+     */
+    private void releaseSubtree(MCTSNode<T, E> subtreeRoot, Set<MCTSNode<T, E>> reachableNodes, Set<MCTSNode<T, E>> releasedNodes) {
+        Deque<MCTSNode<T, E>> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(subtreeRoot);
+        while (!pendingNodes.isEmpty()) {
+            MCTSNode<T, E> node = pendingNodes.pop();
+            if ((reachableNodes != null && reachableNodes.contains(node)) || !releasedNodes.add(node)) continue;
+            MCTSNode.Children<T, E> children = node.getChildren();
+            for (int i = 0; i < children.size; i++) {
+                pendingNodes.push(children.nodes[i]);
+            }
+            if (transpositionTable != null) {
+                transpositionTable.remove(stateHasher.hash(node.getState()), node);
+            }
+            node.release();
+            freeNodes.push(node);
+        }
+    }
+
+    /**
+     * Runs one complete iteration starting from the root node (selection, expansion, simulation and back-propagation).
+     * If the tree policy uses AMAF statistics, every action played during the iteration is recorded to update them.
+     *
+     * @param random the random generator of the thread running the iteration.
+     */
+    void runIteration(RandomGenerator random) {
+        List<MCTSNode<T, E>> path = new ArrayList<>();
+        List<E> playedActions = treePolicy.usesAmafStatistics() ? new ArrayList<>() : null;
+        MCTSNode<T, E> leafNode = descend(path, random, playedActions);
+        double reward = simulate(leafNode, random, playedActions);
+        backpropagate(path, reward, playedActions);
+    }
+
+    /**
+     * Runs one batch of iterations with the leaf evaluator.
+     * Leaves are selected and expanded one after the other, each one under virtual loss so that the next descents
+     * are pushed towards different leaves, until the batch is full or no more iterations can be started.
+     * The leaves are then evaluated in a single call and back-propagated.
+     *
+     * @param random            the random generator of the thread running the batch.
+     * @param canStartIteration tells whether another iteration can be started, called before every leaf.
+     * @return the number of completed iterations, zero if no iteration could be started.
+     */
+    int runBatch(RandomGenerator random, BooleanSupplier canStartIteration) {
+        List<List<MCTSNode<T, E>>> paths = new ArrayList<>(batchSize);
+        List<List<E>> playedActionLists = new ArrayList<>(batchSize);
+        List<T> leafStates = new ArrayList<>(batchSize);
+        while (paths.size() < batchSize && canStartIteration.getAsBoolean()) {
+            List<MCTSNode<T, E>> path = new ArrayList<>();
+            List<E> playedActions = treePolicy.usesAmafStatistics() ? new ArrayList<>() : null;
+            leafStates.add(descend(path, random, playedActions).getState());
+            paths.add(path);
+            playedActionLists.add(playedActions);
+        }
+        if (paths.isEmpty()) return 0;
+
+        double[] rewards = leafEvaluator.evaluate(leafStates, random);
+        if (rewards.length != paths.size()) {
+            throw new IllegalStateException("The leaf evaluator returned " + rewards.length + " values for " + paths.size() + " leaves");
+        }
+        for (int i = 0; i < rewards.length; i++) {
+            backpropagate(paths.get(i), rewards[i], playedActionLists.get(i));
+        }
+        return rewards.length;
+    }
+
+    /**
+     * Descends the tree from the root node and expands the selected leaf (selection and expansion).
+     *
+     * @param path          the list filled with the nodes descended, root first.
+     * @param random        the random generator of the thread running the iteration.
+     * @param playedActions the list filled with the actions descended, or null if they are not recorded.
+     * @return the expanded leaf node, the last node of the path.
+     */
+    private MCTSNode<T, E> descend(List<MCTSNode<T, E>> path, RandomGenerator random, List<E> playedActions) {
+        MCTSNode<T, E> selectedNode = select(rootNode, path, random, playedActions);
+        MCTSNode<T, E> expandedNode = expand(selectedNode, random);
+        if (expandedNode != selectedNode) {
+            if (virtualLossPenalty > 0) expandedNode.addVirtualLoss();
+            path.add(expandedNode);
+            if (playedActions != null) playedActions.add(selectedNode.getActionTo(expandedNode));
+        }
+        return expandedNode;
+    }
+
+    /**
+     * Selects a leaf node from the given starting node, recording the descent path.
+     * When virtual loss is enabled, every node on the descent path receives a virtual loss
+     * that is removed during back-propagation.
+     * With the transposition table enabled, the descent also stops before entering a node already on the path.
+     * The descent stops at the first node that can still be expanded, see {@link #canExpand(MCTSNode)},
+     * or at a node whose children are all solved, which is then expanded regardless of progressive widening.
+     *
+     * @param node          the starting node.
+     * @param path          the list filled with the nodes descended, starting node included.
+     * @param random        the random generator of the thread running the iteration.
+     * @param playedActions the list filled with the actions descended, or null if they are not recorded.
      * @return the selected leaf node.
      */
-    private MCTSNode<T, E> select(MCTSNode<T, E> node) {
-        while (!node.isTerminal() && node.isFullyExpanded()) {
-            node = node.selectChild(explorationConstant);
+    MCTSNode<T, E> select(MCTSNode<T, E> node, List<MCTSNode<T, E>> path, RandomGenerator random, List<E> playedActions) {
+        if (virtualLossPenalty > 0) node.addVirtualLoss();
+        path.add(node);
+        while (!node.isTerminal() && !canExpand(node)) {
+            MCTSNode<T, E> child = treePolicy.selectChild(node, virtualLossPenalty, random);
+            if (child == null || (transpositionTable != null && path.contains(child))) break;
+            if (playedActions != null) playedActions.add(node.getActionTo(child));
+            node = child;
+            if (virtualLossPenalty > 0) node.addVirtualLoss();
+            path.add(node);
         }
         return node;
     }
 
+    /**
+     * Tells whether a new child can be added to the given node.
+     * Without progressive widening, a node can be expanded until every legal action has a child.
+     * With progressive widening, the number of children is also limited to {@code k * N^alpha},
+     * where N is the visit count of the node, so that the search can go deep in games with many legal actions.
+     *
+     * @param node the node.
+     * @return true if the node can be expanded, false otherwise.
+     */
+    boolean canExpand(MCTSNode<T, E> node) {
+        int childCount = node.getChildCount();
+        if (childCount >= getLegalActions(node).size()) return false;
+        if (wideningConstant <= 0) return true;
+        return childCount < Math.max(1, (int) (wideningConstant * Math.pow(node.getVisitCount(), wideningExponent)));
+    }
+
     /**
      * If the leaf node isn't a terminal node, expands the game tree one time from the given leaf node.
+     * With expansion priors, the untried action with the highest prior is expanded, otherwise a random untried action.
+     * Finding it takes one lookup per legal action, which the index of the children of large nodes keeps constant-time.
      *
-     * @param node the leaf node to expand.
+     * @param node   the leaf node to expand.
+     * @param random the random generator of the thread running the iteration.
      * @return the expanded node.
      */
-    private MCTSNode<T, E> expand(MCTSNode<T, E> node) {
+    MCTSNode<T, E> expand(MCTSNode<T, E> node, RandomGenerator random) {
         if (node.isTerminal()) return node;
 
-        //List<E> untriedActions = utilityStrategy.suggestStrategicMoves(node.getState(), node.getState().getCurrentPlayer());
-        List<E> untriedActions = node.getUntriedActions();
-        if (untriedActions.isEmpty()) return node;
+        List<E> legalActions = getLegalActions(node);
+        int untriedCount = legalActions.size() - node.getChildCount();
+        if (untriedCount <= 0) return node;
 
-        E availableRandomAction = untriedActions.get(new Random().nextInt(untriedActions.size()));
-        MCTSNode<T, E> expandedNode = getOrCreateChild(node, availableRandomAction);
-        this.applyPseudoAction(expandedNode.getState(), availableRandomAction);
-        gameTree.put(expandedNode.getState(), expandedNode);
+        // Legal actions are kept in prior order when priors are set, so the first untried one is the best
+        int skippedUntried = expansionPriors != null ? 0 : random.nextInt(untriedCount);
+        for (E action : legalActions) {
+            if (node.getChild(action) == null && skippedUntried-- == 0) {
+                return getOrCreateChild(node, action);
+            }
+        }
+        return node;
+    }
 
-        return expandedNode;
+    /**
+     * Gets the cached legal actions of the given node.
+     * With expansion priors, they are sorted by decreasing prior the first time they are needed.
+     *
+     * @param node the node.
+     * @return the legal actions of the node.
+     */
+    private List<E> getLegalActions(MCTSNode<T, E> node) {
+        if (expansionPriors != null && !node.hasLegalActions()) {
+            List<E> actions = node.getState().getAvailableActions(node.getState().getCurrentPlayer());
+            double[] priors = expansionPriors.getPriors(node.getState(), actions);
+            Integer[] order = new Integer[actions.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(priors[b], priors[a]));
+            List<E> sortedActions = new ArrayList<>(order.length);
+            for (Integer index : order) sortedActions.add(actions.get(index));
+            node.setLegalActions(sortedActions);
+        }
+        return node.getLegalActions();
     }
 
+    /**
+     * Gets the child reached with the given action, creating it atomically if it doesn't exist yet.
+     * With the transposition table enabled, a node already holding the same position is shared instead.
+     *
+     * @param node   the parent node.
+     * @param action the action leading to the child.
+     * @return the child node.
+     */
     private MCTSNode<T, E> getOrCreateChild(MCTSNode<T, E> node, E action) {
-        return node.getChildNodes().computeIfAbsent(action, a -> new MCTSNode<T, E>((T) node.getState().deepCopy(), node));
+        return node.getOrCreateChild(action, a -> {
+            T childState = GameState.copyOf(node.getState());
+            this.applyPseudoAction(childState, a);
+            if (transpositionTable == null) {
+                nodeCount.incrementAndGet();
+                return newNode(childState, node);
+            }
+            return transpositionTable.computeIfAbsent(stateHasher.hash(childState), key -> {
+                nodeCount.incrementAndGet();
+                return newNode(childState, node);
+            });
+        });
     }
 
     /**
-     * Performs a simulation from the given starting node then calls a back-propagation for every simulation node created.
+     * Performs a playout from the given node with the rollout policy, then scores the state reached with the strategy.
+     * A playout cut off by the depth limit is scored on its non-terminal state, as a heuristic evaluation.
      *
-     * @param node the startingNode to start the playout from.
+     * @param node          the node to start the playout from.
+     * @param random        the random generator of the thread running the iteration.
+     * @param playedActions the list filled with the actions of the playout, or null if they are not recorded.
+     * @return the reward for the node.
      */
-    private double simulate(MCTSNode<T, E> node) {
-        MCTSNode<T, E> terminalNode = new MCTSNode<>((T) node.getState().deepCopy(), node.getParentNode());
-        while (!terminalNode.getState().isTerminalNode()) {
-            //List<E> actions = utilityStrategy.suggestStrategicMoves(terminalNode.getState(), terminalNode.getState().getCurrentPlayer());
-            List<E> actions = terminalNode.getState().getAvailableActions(terminalNode.getState().getCurrentPlayer());
-            E randomAction = actions.get(new Random().nextInt(actions.size()));
-            this.applyPseudoAction(terminalNode.getState(), randomAction);
-        }
-        return strategy.calculateUtility(terminalNode.getState(), node.getState().getCurrentPlayer());
+    double simulate(MCTSNode<T, E> node, RandomGenerator random, List<E> playedActions) {
+        T state = GameState.copyOf(node.getState());
+        rolloutPolicy.play(state, rolloutDepthLimit, random, playedActions);
+        return strategy.calculateUtility(state, node.getState().getCurrentPlayer());
     }
 
     /**
-     * Performs back-propagation to update the visits and score of all nodes with the results obtained from the simulation until it reaches the root node.
+     * Performs back-propagation to update the visits and score of every node on the descent path
+     * with the results obtained from the simulation, from the last node up to the root node.
+     * Following the path rather than the parent links keeps the update correct when nodes are shared by several parents.
+     *
+     * When the actions played during the iteration are given, the AMAF statistics of every node on the path are updated too.
      *
-     * @param node   the starting node to perform the back-propagation step.
-     * @param reward the reward for the visited node.
+     * With the solver enabled, proven values are backed up minimax-style from the last node,
+     * until a node whose value can't be proven yet is reached.
+     *
+     * @param path          the nodes descended during the iteration, root first.
+     * @param reward        the reward for the last node of the path.
+     * @param playedActions the actions played during the iteration, the i-th one leading from the i-th node of the path,
+     *                      or null if AMAF statistics are not updated.
      */
-    private void backpropagate(MCTSNode<T, E> node, double reward) {
-        while (node != null) {
+    void backpropagate(List<MCTSNode<T, E>> path, double reward, List<E> playedActions) {
+        boolean solving = solverEnabled;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            MCTSNode<T, E> node = path.get(i);
+            if (solving) solving = solve(node);
+            if (virtualLossPenalty > 0) node.removeVirtualLoss();
             node.updateNodeStats(reward);
-            node = node.getParentNode();
             reward = 1 - reward; // Invert reward for opponent
+            if (playedActions != null) updateAmafStatistics(node, playedActions, i, reward);
+        }
+    }
+
+    /**
+     * Tries to prove the value of the given node.
+     * A terminal node is a win, a loss or a draw depending on its reward, where 1 is a win and 0 a loss
+     * for the player who moved into the node, as for back-propagation.
+     * A node with a child won by the player to move is lost, while a node whose legal actions all lead
+     * to solved children is won if they are all lost, and drawn otherwise.
+     *
+     * @param node the node to solve.
+     * @return true if the value of the node is proven, false otherwise.
+     */
+    private boolean solve(MCTSNode<T, E> node) {
+        if (node.isSolved()) return true;
+        T state = node.getState();
+        if (node.isTerminal()) {
+            double reward = strategy.calculateUtility(state, state.getCurrentPlayer());
+            node.setProvenValue(state.isTie() || reward == 0.5 ? ProvenValue.DRAW : reward > 0.5 ? ProvenValue.WIN : ProvenValue.LOSS);
+            return true;
+        }
+        MCTSNode.Children<T, E> children = node.getChildren();
+        boolean allSolved = children.size >= getLegalActions(node).size();
+        boolean anyDraw = false;
+        for (int i = 0; i < children.size; i++) {
+            ProvenValue value = children.nodes[i].getProvenValue();
+            if (value == ProvenValue.WIN) {
+                node.setProvenValue(ProvenValue.LOSS);
+                return true;
+            }
+            if (value == ProvenValue.UNKNOWN) allSolved = false;
+            else if (value == ProvenValue.DRAW) anyDraw = true;
+        }
+        if (!allSolved) return false;
+        node.setProvenValue(anyDraw ? ProvenValue.DRAW : ProvenValue.WIN);
+        return true;
+    }
+
+    /**
+     * Updates the AMAF statistics of the given node with every action played after it by the player to move in it.
+     * Only the first occurrence of an action is counted.
+     *
+     * @param node          the node to update.
+     * @param playedActions the actions played during the iteration.
+     * @param fromIndex     the index of the first action played after the node.
+     * @param reward        the reward for the player to move in the node.
+     */
+    private void updateAmafStatistics(MCTSNode<T, E> node, List<E> playedActions, int fromIndex, double reward) {
+        int player = node.getState().getCurrentPlayer();
+        Set<E> updatedActions = new HashSet<>();
+        for (int j = fromIndex; j < playedActions.size(); j++) {
+            E action = playedActions.get(j);
+            if (action.getPlayer() == player && updatedActions.add(action)) {
+                node.getOrCreateAmafStatistics(action).updateStats(reward);
+            }
         }
     }
 
     /**
      * Select the best action of the given node based on the ratio of reward to visits.
+     * Proven values take precedence over the statistics: a proven win is always chosen,
+     * a proven loss only when every other action is lost too, and a proven draw counts as a reward of 0.5.
      *
      * @param node the node from which to find the actions.
      * @return the best action.
      */
-    private E getBestAction(MCTSNode<T, E> node) {
-        if (node.getChildNodes().isEmpty()) {
+    E getBestAction(MCTSNode<T, E> node) {
+        if (node.getChildCount() == 0) {
             List<E> availableActions = node.getState().getAvailableActions(node.getState().getCurrentPlayer());
-            return availableActions.get(new Random().nextInt(availableActions.size()));
+            return availableActions.get(random.nextInt(availableActions.size()));
         }
         return node.getChildNodes().entrySet().stream()
-                .max(Comparator.comparingDouble(e -> e.getValue().getTotalReward() / e.getValue().getVisitCount()))
+                .max(Comparator.comparingDouble(e -> getFinalValue(e.getValue())))
                 .map(Map.Entry::getKey)
                 .orElseThrow(() -> new IllegalStateException("No children found"));
     }
 
     /**
-     * Gets the game tree.
+     * Gets the value of a child for the choice of the best action: its average reward,
+     * replaced by the reward of a win, a loss or a draw once proven.
+     *
+     * @param child the child.
+     * @return the value of the child.
+     */
+    static double getFinalValue(MCTSNode<?, ?> child) {
+        switch (child.getProvenValue()) {
+            case WIN:
+                return Double.POSITIVE_INFINITY;
+            case LOSS:
+                return Double.NEGATIVE_INFINITY;
+            case DRAW:
+                return 0.5;
+            default:
+                return child.getTotalReward() / child.getVisitCount();
+        }
+    }
+
+    /**
+     * Sets the reward subtracted for every pending virtual loss during selection.
+     * A penalty of zero disables virtual loss.
+     *
+     * @param virtualLossPenalty the virtual loss penalty.
+     */
+    void setVirtualLossPenalty(double virtualLossPenalty) {
+        this.configuredVirtualLossPenalty = virtualLossPenalty;
+        updateVirtualLossPenalty();
+    }
+
+    /**
+     * Gets the reward subtracted for every pending virtual loss during selection, as used by the search.
+     *
+     * @return the virtual loss penalty, zero if virtual loss is disabled.
+     */
+    double getVirtualLossPenalty() {
+        return virtualLossPenalty;
+    }
+
+    /**
+     * Computes the penalty used by the search: the configured one, or 1 while a leaf evaluator needs virtual loss
+     * and none is configured.
+     */
+    private void updateVirtualLossPenalty() {
+        virtualLossPenalty = leafEvaluator != null && configuredVirtualLossPenalty <= 0 ? 1.0 : configuredVirtualLossPenalty;
+    }
+
+    /**
+     * Reseeds the random generator of this algorithm, so that the following searches are reproducible.
+     * Searches running on several threads split the generator deterministically, one stream per thread.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Gets the random generator of this algorithm, split by parallel searches into one generator per thread.
+     *
+     * @return the random generator.
+     */
+    SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the policy used to descend the tree during selection. The default policy is {@link UCB1Policy}
+     * with the exploration constant given to the constructor.
+     *
+     * @param treePolicy the tree policy.
+     */
+    public void setTreePolicy(TreePolicy<T, E> treePolicy) {
+        this.treePolicy = treePolicy;
+    }
+
+    /**
+     * Gets the policy used to descend the tree during selection.
+     *
+     * @return the tree policy.
+     */
+    public TreePolicy<T, E> getTreePolicy() {
+        return treePolicy;
+    }
+
+    /**
+     * Sets the policy choosing the moves of the playouts. The default policy plays uniformly random moves.
+     *
+     * @param rolloutPolicy the rollout policy.
+     */
+    public void setRolloutPolicy(RolloutPolicy<T, E> rolloutPolicy) {
+        this.rolloutPolicy = rolloutPolicy;
+    }
+
+    /**
+     * Sets the maximum number of moves of a playout. The state reached by a playout cut off by the limit
+     * is scored by {@link Strategy#calculateUtility(GameState, int)}, which must then give a heuristic value
+     * to non-terminal states.
+     *
+     * @param rolloutDepthLimit the maximum number of moves of a playout, {@link Integer#MAX_VALUE} for no limit.
+     */
+    public void setRolloutDepthLimit(int rolloutDepthLimit) {
+        if (rolloutDepthLimit < 0) {
+            throw new IllegalArgumentException("The depth limit must not be negative");
+        }
+        this.rolloutDepthLimit = rolloutDepthLimit;
+    }
+
+    /**
+     * Sets a hard limit on the number of nodes of the tree. When the limit is reached, the least visited subtrees
+     * are pruned to free a quarter of the capacity, their nodes are kept in a pool and reused for the following expansions,
+     * and the search goes on, so that the memory used by the tree stays flat.
+     * Unlike the node limit of the search budget, which ends the search, the capacity only bounds the size of the tree.
+     * Pruning runs between iterations of the sequential search and of pondering; the tree-parallel search
+     * doesn't prune and stops when the capacity is reached.
+     *
+     * @param nodeCapacity the maximum number of nodes, {@link Integer#MAX_VALUE} for no limit.
+     */
+    public void setNodeCapacity(int nodeCapacity) {
+        if (nodeCapacity < 2) {
+            throw new IllegalArgumentException("The node capacity must be at least 2");
+        }
+        this.nodeCapacity = nodeCapacity;
+        if (nodeCapacity == Integer.MAX_VALUE) {
+            freeNodes.clear();
+        }
+    }
+
+    /**
+     * Gets the maximum number of nodes of the tree.
+     *
+     * @return the node capacity, {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int getNodeCapacity() {
+        return nodeCapacity;
+    }
+
+    /**
+     * Gets the number of released nodes waiting to be reused.
+     *
+     * @return the number of free nodes.
+     */
+    public int getFreeNodeCount() {
+        return freeNodes.size();
+    }
+
+    /**
+     * Enables progressive widening: a node can have at most {@code k * N^alpha} children, where N is its visit count,
+     * and it is expanded again only when enough visits have been collected.
+     * A widening constant of zero disables progressive widening.
+     *
+     * @param wideningConstant the widening constant k.
+     * @param wideningExponent the widening exponent alpha, between 0 and 1.
+     */
+    public void setProgressiveWidening(double wideningConstant, double wideningExponent) {
+        if (wideningConstant < 0 || wideningExponent <= 0 || wideningExponent >= 1) {
+            throw new IllegalArgumentException("The widening constant must not be negative and the exponent must be between 0 and 1");
+        }
+        this.wideningConstant = wideningConstant;
+        this.wideningExponent = wideningExponent;
+    }
+
+    /**
+     * Sets the priors deciding the order in which the actions of a node are expanded, best first.
+     * They are computed once per node; without priors, untried actions are expanded in random order.
+     * A prior provider based on {@link Strategy#suggestStrategicMoves(GameState, int)} is available through
+     * {@link PriorProvider#fromStrategy(Strategy, double)}.
+     *
+     * @param expansionPriors the prior provider, or null to expand in random order.
+     */
+    public void setExpansionPriors(PriorProvider<T, E> expansionPriors) {
+        this.expansionPriors = expansionPriors;
+    }
+
+    /**
+     * Replaces the simulation step with the given leaf evaluator, called on batches of up to the given number of leaves.
+     * Leaves waiting for their batch are kept apart by virtual loss: if virtual loss is disabled,
+     * it is enabled with a penalty of 1 for as long as the evaluator is set.
+     *
+     * @param leafEvaluator the leaf evaluator, or null to go back to random playouts.
+     * @param batchSize     the maximum number of leaves evaluated in a single call.
+     */
+    public void setLeafEvaluator(LeafEvaluator<T, E> leafEvaluator, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1");
+        }
+        this.leafEvaluator = leafEvaluator;
+        this.batchSize = batchSize;
+        updateVirtualLossPenalty();
+    }
+
+    /**
+     * Gets the leaf evaluator replacing the simulation step.
+     *
+     * @return the leaf evaluator, or null if random playouts are used.
+     */
+    public LeafEvaluator<T, E> getLeafEvaluator() {
+        return leafEvaluator;
+    }
+
+    /**
+     * Enables or disables pondering: after every move is chosen, the search goes on in the background
+     * from the current root while the opponent is thinking, until the next call to {@link #chooseAction(GameState)}
+     * or {@link #updateAfterAction(GameState, Action)}. When the actual moves arrive, the matching subtree is promoted
+     * to root and the background search resumes from it, so all the background work carries over to the next search.
+     * The background search ignores the iteration and time limits of the search budget,
+     * but it stops at its node limit. Without a node limit, it stays within the node capacity by pruning,
+     * and without a node capacity either, it stops at 2^20 nodes.
+     *
+     * @param pondering true to enable pondering, false to disable it.
+     */
+    public void setPondering(boolean pondering) {
+        this.ponderingEnabled = pondering;
+        if (!pondering) {
+            stopPondering();
+            if (ponderExecutor != null) {
+                ponderExecutor.shutdownNow();
+                ponderExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * Tells whether pondering is enabled.
+     *
+     * @return true if pondering is enabled, false otherwise.
+     */
+    public boolean isPondering() {
+        return ponderingEnabled;
+    }
+
+    /**
+     * Enables or disables the MCTS-Solver: terminal nodes are marked as proven wins, losses or draws,
+     * and proven values are backed up minimax-style during back-propagation.
+     * Selection skips the solved children, the best action follows the proven values,
+     * and the search stops as soon as the value of the root is proven.
+     * The solver expects rewards where 1 is a win, 0 a loss and 0.5 a draw for the player who moved into a node.
+     *
+     * @param solver true to enable the solver, false to disable it.
+     */
+    public void setSolver(boolean solver) {
+        this.solverEnabled = solver;
+    }
+
+    /**
+     * Checks if the MCTS-Solver is enabled.
+     *
+     * @return true if the solver is enabled, false otherwise.
+     */
+    public boolean isSolver() {
+        return solverEnabled;
+    }
+
+    /**
+     * Gets the number of iterations completed by the last background search.
+     *
+     * @return the number of iterations.
+     */
+    public int getLastPonderIterations() {
+        return lastPonderIterations;
+    }
+
+    /**
+     * Sets the budget of every following search.
+     *
+     * @param searchBudget the search budget.
+     */
+    public void setSearchBudget(SearchBudget searchBudget) {
+        this.searchBudget = searchBudget;
+    }
+
+    /**
+     * Gets the budget of every search.
+     *
+     * @return the search budget.
+     */
+    public SearchBudget getSearchBudget() {
+        return searchBudget;
+    }
+
+    /**
+     * Gets the number of iterations completed by the last search.
+     *
+     * @return the number of iterations.
+     */
+    public int getLastSearchIterations() {
+        return lastSearchIterations;
+    }
+
+    /**
+     * Gets the time spent by the last search.
+     *
+     * @return the duration of the last search in nanoseconds.
+     */
+    public long getLastSearchTimeNanos() {
+        return lastSearchTimeNanos;
+    }
+
+    /**
+     * Gets the number of nodes currently in the tree.
+     *
+     * @return the number of nodes.
+     */
+    public int getNodeCount() {
+        return nodeCount.get();
+    }
+
+    /**
+     * Gets the transposition table.
      *
-     * @return the game tree.
+     * @return the map of state keys to shared nodes, or null if transpositions are disabled.
      */
-    public Map<T, MCTSNode<T, E>> getGameTree() {
-        return gameTree;
+    public Map<Long, MCTSNode<T, E>> getTranspositionTable() {
+        return transpositionTable;
     }
 
     /**
@@ -4,16 +4,39 @@ import com.lostrucos.jabtbg.core.Action;
 import com.lostrucos.jabtbg.core.GameState;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a node in the Monte Carlo Tree Search (MCTS) algorithm.
+ * Statistics can be updated concurrently without locking, so that several threads can descend the same tree.
+ * The children and the actions leading to them are stored in a pair of arrays grown geometrically, published together
+ * with their size in an immutable snapshot, so readers never lock and always see aligned children and actions.
+ * Adding or removing a child locks the node; a child is appended in place, and the arrays are copied only
+ * when they are full or a child is removed.
+ * Once a node has enough children, an index of the children by action keeps their lookup constant-time.
  */
 public class MCTSNode<T extends GameState<E>, E extends Action> {
-    private final T state;
-    private final MCTSNode<T, E> parentNode;
-    private final Map<E, MCTSNode<T, E>> childNodes;
-    private double totalReward;
-    private int visitCount;
+    @SuppressWarnings("unchecked")
+    private static final Children<?, ?> NO_CHILDREN =
+            new Children<>((MCTSNode<GameState<Action>, Action>[]) new MCTSNode<?, ?>[0], new Action[0], 0);
+    private static final int INITIAL_CHILD_CAPACITY = 4;
+    private static final int CHILD_INDEX_THRESHOLD = 16;
+
+    private T state;
+    private MCTSNode<T, E> parentNode;
+    private volatile Children<T, E> children;
+    private volatile Map<E, MCTSNode<T, E>> childIndex;
+    private final AtomicLong totalReward;
+    private final AtomicLong totalSquaredReward;
+    private final AtomicInteger visitCount;
+    private final AtomicInteger virtualLoss;
+    private volatile double prior;
+    private volatile Map<E, AmafStatistics> amafStatistics;
+    private volatile List<E> legalActions;
+    private volatile ProvenValue provenValue;
 
     /**
      * Constructs a new MCTSNode.
@@ -24,9 +47,13 @@ public class MCTSNode<T extends GameState<E>, E extends Action> {
     public MCTSNode(T state, MCTSNode<T, E> parentNode) {
         this.state = state;
         this.parentNode = parentNode;
-        this.childNodes = new HashMap<>();
-        this.totalReward = 0.0;
-        this.visitCount = 0;
+        this.children = noChildren();
+        this.totalReward = new AtomicLong(Double.doubleToRawLongBits(0.0));
+        this.totalSquaredReward = new AtomicLong(Double.doubleToRawLongBits(0.0));
+        this.visitCount = new AtomicInteger();
+        this.virtualLoss = new AtomicInteger();
+        this.prior = Double.NaN;
+        this.provenValue = ProvenValue.UNKNOWN;
     }
 
     /**
@@ -38,8 +65,46 @@ public class MCTSNode<T extends GameState<E>, E extends Action> {
         return state.isTerminalNode();
     }
 
+    /**
+     * Checks if every legal action of this node has a child.
+     *
+     * @return true if this node is fully expanded, false otherwise.
+     */
     public boolean isFullyExpanded() {
-        return childNodes.size() == state.getAvailableActions(state.getCurrentPlayer()).size();
+        return children.size >= getLegalActions().size();
+    }
+
+    /**
+     * Gets the actions available to the player to move in this node.
+     * They are generated once and cached, so that selection and expansion don't regenerate them at every visit.
+     *
+     * @return the unmodifiable list of legal actions.
+     */
+    public List<E> getLegalActions() {
+        List<E> actions = legalActions;
+        if (actions == null) {
+            actions = List.copyOf(state.getAvailableActions(state.getCurrentPlayer()));
+            legalActions = actions;
+        }
+        return actions;
+    }
+
+    /**
+     * Tells whether the legal actions of this node have already been generated.
+     *
+     * @return true if the legal actions are cached, false otherwise.
+     */
+    boolean hasLegalActions() {
+        return legalActions != null;
+    }
+
+    /**
+     * Replaces the cached legal actions of this node, used to store them in the order in which they should be expanded.
+     *
+     * @param legalActions the legal actions of this node.
+     */
+    void setLegalActions(List<E> legalActions) {
+        this.legalActions = List.copyOf(legalActions);
     }
 
     /**
@@ -49,30 +114,264 @@ public class MCTSNode<T extends GameState<E>, E extends Action> {
      * @return the selected action.
      */
     public MCTSNode<T, E> selectChild(double explorationConstant) {
-        return childNodes.values().stream()
-                .max(Comparator.comparingDouble(child -> calculateUCB(child, explorationConstant)))
-                .orElseThrow(() -> new IllegalStateException("No children to select"));
+        return selectChild(explorationConstant, 0.0);
     }
 
     /**
-     * Gets the UCB value for this node.
+     * Selects the best action from this node using UCB, counting every pending virtual loss
+     * as a visit that lost the given amount of reward.
+     * The selection walks the child array without allocating, and the logarithm of the parent visits
+     * is computed once for all the children. Children whose value is proven are skipped.
      *
      * @param explorationConstant the exploration constant.
-     * @return the UCB value.
+     * @param virtualLossPenalty  the reward subtracted for every pending virtual loss.
+     * @return the selected child, or null if the value of every child is proven.
+     */
+    public MCTSNode<T, E> selectChild(double explorationConstant, double virtualLossPenalty) {
+        Children<T, E> children = getChildren();
+        if (children.size == 0) {
+            throw new IllegalStateException("No children to select");
+        }
+        double parentExploration = explorationConstant * UCBMath.sqrtLog(this.getVisitCount() + this.getVirtualLoss());
+        MCTSNode<T, E> bestChild = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < children.size; i++) {
+            MCTSNode<T, E> child = children.nodes[i];
+            if (child.isSolved()) continue;
+            int childVirtualLoss = child.getVirtualLoss();
+            int childVisits = child.getVisitCount() + childVirtualLoss;
+            if (childVisits == 0) {
+                return child;
+            }
+            double exploitation = (child.getTotalReward() - childVirtualLoss * virtualLossPenalty) / childVisits;
+            double value = exploitation + parentExploration * UCBMath.inverseSqrt(childVisits);
+            if (value > bestValue) {
+                bestValue = value;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    /**
+     * Gets the child reached with the given action, creating it with the given factory if it doesn't exist yet.
+     * Creation is atomic, so concurrent callers always get the same child.
+     *
+     * @param action       the action leading to the child.
+     * @param childFactory the function creating the child for the action.
+     * @return the child node.
+     */
+    public MCTSNode<T, E> getOrCreateChild(E action, Function<? super E, ? extends MCTSNode<T, E>> childFactory) {
+        MCTSNode<T, E> child = getChild(action);
+        if (child != null) {
+            return child;
+        }
+        synchronized (this) {
+            child = getChild(action);
+            if (child == null) {
+                child = childFactory.apply(action);
+                addChild(action, child);
+            }
+            return child;
+        }
+    }
+
+    /**
+     * Appends the given child, growing the arrays if they are full, and publishes the new snapshot.
+     * The slot written is beyond the size of every published snapshot, so readers of older snapshots are not affected.
+     * The arrays don't grow beyond the number of legal actions, when it is known.
+     * Must be called while holding the lock of this node.
+     *
+     * @param action the action leading to the child.
+     * @param child  the child node.
+     */
+    private void addChild(E action, MCTSNode<T, E> child) {
+        Children<T, E> current = children;
+        int size = current.size;
+        MCTSNode<T, E>[] nodes = current.nodes;
+        E[] actions = current.actions;
+        if (size == nodes.length) {
+            int capacity = Math.max(INITIAL_CHILD_CAPACITY, size * 2);
+            List<E> actionsToExpand = legalActions;
+            if (actionsToExpand != null && actionsToExpand.size() > size) {
+                capacity = Math.min(capacity, actionsToExpand.size());
+            }
+            nodes = Arrays.copyOf(nodes, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+        }
+        nodes[size] = child;
+        actions[size] = action;
+        children = new Children<>(nodes, actions, size + 1);
+
+        Map<E, MCTSNode<T, E>> index = childIndex;
+        if (index != null) {
+            index.put(action, child);
+        } else if (size + 1 >= CHILD_INDEX_THRESHOLD) {
+            index = new ConcurrentHashMap<>();
+            for (int i = 0; i <= size; i++) {
+                index.put(actions[i], nodes[i]);
+            }
+            childIndex = index;
+        }
+    }
+
+    /**
+     * Gets the child reached with the given action.
+     * Up to a few children, they are scanned, which is faster than hashing the action;
+     * beyond that, they are looked up in the index of the node.
+     *
+     * @param action the action leading to the child.
+     * @return the child node, or null if the action has no child.
+     */
+    public MCTSNode<T, E> getChild(E action) {
+        Map<E, MCTSNode<T, E>> index = childIndex;
+        if (index != null) {
+            return index.get(action);
+        }
+        Children<T, E> current = children;
+        for (int i = 0; i < current.size; i++) {
+            if (current.actions[i].equals(action)) {
+                return current.nodes[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of children of this node.
+     *
+     * @return the number of children.
+     */
+    public int getChildCount() {
+        return children.size;
+    }
+
+    /**
+     * Gets a snapshot of the children, used by the selection to walk them without allocating.
+     * Only the first {@link Children#size} entries of its arrays belong to the snapshot, and they must not be modified.
+     *
+     * @return the current snapshot of the children.
+     */
+    Children<T, E> getChildren() {
+        return children;
+    }
+
+    /**
+     * Removes the child reached with the given action, so that the action can be expanded again.
+     *
+     * @param action the action leading to the child.
+     * @return the removed child, or null if the action has no child.
+     */
+    synchronized MCTSNode<T, E> removeChild(E action) {
+        Children<T, E> current = children;
+        int size = current.size;
+        for (int i = 0; i < size; i++) {
+            if (current.actions[i].equals(action)) {
+                // Removing copies the arrays, so that the slots of published snapshots are never overwritten
+                MCTSNode<T, E>[] nodes = Arrays.copyOf(current.nodes, size - 1);
+                E[] actions = Arrays.copyOf(current.actions, size - 1);
+                System.arraycopy(current.nodes, i + 1, nodes, i, size - i - 1);
+                System.arraycopy(current.actions, i + 1, actions, i, size - i - 1);
+                children = new Children<>(nodes, actions, size - 1);
+                Map<E, MCTSNode<T, E>> index = childIndex;
+                if (index != null) index.remove(action);
+                return current.nodes[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops every reference held by this node, so that a pruned node kept for reuse doesn't retain its old state and subtree.
+     */
+    void release() {
+        this.state = null;
+        this.parentNode = null;
+        this.children = noChildren();
+        this.childIndex = null;
+        this.amafStatistics = null;
+        this.legalActions = null;
+    }
+
+    /**
+     * Reinitializes a released node to represent the given state, as if it had just been constructed.
+     *
+     * @param state      the game state represented by this node.
+     * @param parentNode the parent node.
+     */
+    void recycle(T state, MCTSNode<T, E> parentNode) {
+        release();
+        this.state = state;
+        this.parentNode = parentNode;
+        this.totalReward.set(Double.doubleToRawLongBits(0.0));
+        this.totalSquaredReward.set(Double.doubleToRawLongBits(0.0));
+        this.visitCount.set(0);
+        this.virtualLoss.set(0);
+        this.prior = Double.NaN;
+        this.provenValue = ProvenValue.UNKNOWN;
+    }
+
+    /**
+     * Gets the action leading from this node to the given child.
+     * Unlike a link stored in the child, this is correct even if the child is shared by several parents.
+     *
+     * @param child the child node.
+     * @return the action leading to the child, or null if the node is not a child of this node.
+     */
+    public E getActionTo(MCTSNode<T, E> child) {
+        Children<T, E> current = children;
+        for (int i = 0; i < current.size; i++) {
+            if (current.nodes[i] == child) {
+                return current.actions[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the all-moves-as-first (AMAF) statistics of the given action, creating them if they don't exist yet.
+     * The AMAF statistics of an action collect the results of every iteration in which the player to move in this node
+     * played the action at any later point, either in the tree or in the playout.
+     *
+     * @param action the action.
+     * @return the AMAF statistics of the action.
      */
-    private double calculateUCB(MCTSNode<T, E> child, double explorationConstant) {
-        if (child.visitCount == 0) {
-            return Double.POSITIVE_INFINITY;
+    public AmafStatistics getOrCreateAmafStatistics(E action) {
+        Map<E, AmafStatistics> statistics = amafStatistics;
+        if (statistics == null) {
+            synchronized (this) {
+                statistics = amafStatistics;
+                if (statistics == null) {
+                    statistics = new ConcurrentHashMap<>();
+                    amafStatistics = statistics;
+                }
+            }
         }
-        double exploitation = child.totalReward / child.visitCount;
-        double exploration = Math.sqrt(Math.log(this.visitCount) / child.visitCount);
-        return exploitation + explorationConstant * exploration;
+        return statistics.computeIfAbsent(action, a -> new AmafStatistics());
     }
 
+    /**
+     * Gets the all-moves-as-first (AMAF) statistics of the given action.
+     *
+     * @param action the action.
+     * @return the AMAF statistics of the action, or null if the action has never been played after this node.
+     */
+    public AmafStatistics getAmafStatistics(E action) {
+        Map<E, AmafStatistics> statistics = amafStatistics;
+        return statistics == null ? null : statistics.get(action);
+    }
+
+    /**
+     * Gets the legal actions of this node that have no child yet.
+     *
+     * @return a new list of the untried actions.
+     */
     public List<E> getUntriedActions() {
-        List<E> availableActions = state.getAvailableActions(state.getCurrentPlayer());
-        availableActions.removeAll(childNodes.keySet());
-        return availableActions;
+        List<E> untriedActions = new ArrayList<>();
+        for (E action : getLegalActions()) {
+            if (getChild(action) == null) untriedActions.add(action);
+        }
+        return untriedActions;
     }
 
     /**
@@ -81,8 +380,39 @@ public class MCTSNode<T extends GameState<E>, E extends Action> {
      * @param reward the value to update with.
      */
     public void updateNodeStats(double reward) {
-        this.visitCount++;
-        this.totalReward += reward;
+        this.visitCount.incrementAndGet();
+        addAtomically(totalReward, reward);
+        addAtomically(totalSquaredReward, reward * reward);
+    }
+
+    private static void addAtomically(AtomicLong doubleBits, double value) {
+        long current;
+        do {
+            current = doubleBits.get();
+        } while (!doubleBits.compareAndSet(current, Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value)));
+    }
+
+    /**
+     * Marks this node as being descended by a search thread that has not backpropagated yet.
+     */
+    public void addVirtualLoss() {
+        virtualLoss.incrementAndGet();
+    }
+
+    /**
+     * Removes a virtual loss previously added with {@link #addVirtualLoss()}.
+     */
+    public void removeVirtualLoss() {
+        virtualLoss.decrementAndGet();
+    }
+
+    /**
+     * Gets the number of pending virtual losses on this node.
+     *
+     * @return the number of search threads currently descending through this node.
+     */
+    public int getVirtualLoss() {
+        return virtualLoss.get();
     }
 
     /**
@@ -104,12 +434,24 @@ public class MCTSNode<T extends GameState<E>, E extends Action> {
     }
 
     /**
-     * Gets the child nodes.
+     * Detaches this node from its parent, so that it can become the root of its own tree.
+     */
+    void detachFromParent() {
+        this.parentNode = null;
+    }
+
+    /**
+     * Gets a snapshot of the child nodes, in the order in which they were added.
      *
-     * @return a map of actions to child nodes.
+     * @return an unmodifiable map of actions to child nodes.
      */
     public Map<E, MCTSNode<T, E>> getChildNodes() {
-        return childNodes;
+        Children<T, E> current = children;
+        Map<E, MCTSNode<T, E>> childNodes = new LinkedHashMap<>();
+        for (int i = 0; i < current.size; i++) {
+            childNodes.put(current.actions[i], current.nodes[i]);
+        }
+        return Collections.unmodifiableMap(childNodes);
     }
 
     /**
@@ -118,7 +460,61 @@ public class MCTSNode<T extends GameState<E>, E extends Action> {
      * @return the reward score of the node
      */
     public double getTotalReward() {
-        return totalReward;
+        return Double.longBitsToDouble(totalReward.get());
+    }
+
+    /**
+     * Gets the sum of the squares of the rewards of the node, used to estimate the variance of the rewards.
+     *
+     * @return the sum of the squared rewards of the node
+     */
+    public double getTotalSquaredReward() {
+        return Double.longBitsToDouble(totalSquaredReward.get());
+    }
+
+    /**
+     * Gets the value of this node proven by the MCTS-Solver.
+     *
+     * @return the proven value, from the point of view of the player who moved into this node.
+     */
+    public ProvenValue getProvenValue() {
+        return provenValue;
+    }
+
+    /**
+     * Sets the value of this node proven by the MCTS-Solver.
+     *
+     * @param provenValue the proven value, from the point of view of the player who moved into this node.
+     */
+    void setProvenValue(ProvenValue provenValue) {
+        this.provenValue = provenValue;
+    }
+
+    /**
+     * Checks if the value of this node is proven.
+     *
+     * @return true if the value is proven, false otherwise.
+     */
+    public boolean isSolved() {
+        return provenValue != ProvenValue.UNKNOWN;
+    }
+
+    /**
+     * Gets the prior probability of the action leading to this node.
+     *
+     * @return the prior probability, or {@link Double#NaN} if it has not been computed.
+     */
+    public double getPrior() {
+        return prior;
+    }
+
+    /**
+     * Sets the prior probability of the action leading to this node.
+     *
+     * @param prior the prior probability.
+     */
+    public void setPrior(double prior) {
+        this.prior = prior;
     }
 
     /**
@@ -127,7 +523,7 @@ public class MCTSNode<T extends GameState<E>, E extends Action> {
      * @return the number of times the node has been visited
      */
     public int getVisitCount() {
-        return visitCount;
+        return visitCount.get();
     }
 
     @Override
@@ -147,13 +543,34 @@ public class MCTSNode<T extends GameState<E>, E extends Action> {
     public String toString() {
         return "MCTSNode{" +
                 "state=" + state +
-                ", visitCount=" + visitCount +
-                ", totalReward=" + totalReward +
-                ", childNodes=" + childNodes.size() +
+                ", visitCount=" + getVisitCount() +
+                ", totalReward=" + getTotalReward() +
+                ", childNodes=" + getChildCount() +
                 '}';
     }
 
     public int numOfLegalActions(){
-        return this.getState().getAvailableActions(getState().getCurrentPlayer()).size();
+        return getLegalActions().size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends GameState<E>, E extends Action> Children<T, E> noChildren() {
+        return (Children<T, E>) NO_CHILDREN;
+    }
+
+    /**
+     * Holds the children of a node and the actions leading to them, published together with their number.
+     * The arrays can be longer than the number of children, and the entries beyond it must be ignored.
+     */
+    static final class Children<T extends GameState<E>, E extends Action> {
+        final MCTSNode<T, E>[] nodes;
+        final E[] actions;
+        final int size;
+
+        private Children(MCTSNode<T, E>[] nodes, E[] actions, int size) {
+            this.nodes = nodes;
+            this.actions = actions;
+            this.size = size;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,274 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+
+import java.util.Arrays;
+
+/**
+ * Stores the nodes of a Monte Carlo search tree as a structure of arrays.
+ * Every node is identified by an int index, and its statistics and links live in primitive arrays,
+ * so the whole tree is made of a handful of objects no matter how many nodes it holds.
+ * Nodes don't store game states: the state of a node is regenerated by applying the actions on the path from the root.
+ * Children are kept as a linked list through the first-child and next-sibling links.
+ * The arrays double in size whenever the arena is full, up to the maximum capacity of the arena.
+ * The arena is not thread-safe.
+ */
+public class MCTSNodeArena<E extends Action> {
+    /**
+     * Index used for missing links.
+     */
+    public static final int NONE = -1;
+
+    private static final int UNKNOWN = -1;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private int size;
+    private int maxCapacity;
+    private int[] visitCounts;
+    private double[] totalRewards;
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] childCounts;
+    private int[] legalActionCounts;
+    private boolean[] terminals;
+    private Object[] actions;
+
+    /**
+     * Constructs a new arena able to hold the given number of nodes before growing, with no maximum capacity.
+     *
+     * @param initialCapacity the initial number of nodes.
+     */
+    public MCTSNodeArena(int initialCapacity) {
+        this(initialCapacity, MAX_ARRAY_LENGTH);
+    }
+
+    /**
+     * Constructs a new arena able to hold the given number of nodes before growing, and never growing past the given maximum.
+     *
+     * @param initialCapacity the initial number of nodes, capped at the maximum capacity.
+     * @param maxCapacity     the maximum number of nodes.
+     */
+    public MCTSNodeArena(int initialCapacity, int maxCapacity) {
+        setMaxCapacity(maxCapacity);
+        int capacity = Math.max(1, Math.min(initialCapacity, this.maxCapacity));
+        this.visitCounts = new int[capacity];
+        this.totalRewards = new double[capacity];
+        this.parents = new int[capacity];
+        this.firstChildren = new int[capacity];
+        this.nextSiblings = new int[capacity];
+        this.childCounts = new int[capacity];
+        this.legalActionCounts = new int[capacity];
+        this.terminals = new boolean[capacity];
+        this.actions = new Object[capacity];
+    }
+
+    /**
+     * Allocates a new node and links it as the first child of the given parent.
+     *
+     * @param parent   the index of the parent node, or {@link #NONE} for a root.
+     * @param action   the action leading from the parent to the new node, or null for a root.
+     * @param terminal whether the state of the new node is terminal.
+     * @return the index of the new node.
+     * @throws IllegalStateException if the arena already holds its maximum number of nodes.
+     */
+    public int allocate(int parent, E action, boolean terminal) {
+        if (size == visitCounts.length) {
+            grow();
+        }
+        int node = size++;
+        visitCounts[node] = 0;
+        totalRewards[node] = 0.0;
+        parents[node] = parent;
+        firstChildren[node] = NONE;
+        childCounts[node] = 0;
+        legalActionCounts[node] = UNKNOWN;
+        terminals[node] = terminal;
+        actions[node] = action;
+        if (parent == NONE) {
+            nextSiblings[node] = NONE;
+        } else {
+            nextSiblings[node] = firstChildren[parent];
+            firstChildren[parent] = node;
+            childCounts[parent]++;
+        }
+        return node;
+    }
+
+    /**
+     * Removes every node, keeping the allocated arrays for reuse.
+     */
+    public void clear() {
+        Arrays.fill(actions, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Updates the statistics of a node.
+     *
+     * @param node   the index of the node.
+     * @param reward the value to update with.
+     */
+    public void updateNodeStats(int node, double reward) {
+        visitCounts[node]++;
+        totalRewards[node] += reward;
+    }
+
+    /**
+     * Tells whether every legal action of a node has a child.
+     * A node whose legal actions have never been counted is not fully expanded.
+     *
+     * @param node the index of the node.
+     * @return true if the node is fully expanded, false otherwise.
+     */
+    public boolean isFullyExpanded(int node) {
+        return legalActionCounts[node] != UNKNOWN && childCounts[node] >= legalActionCounts[node];
+    }
+
+    private void grow() {
+        if (visitCounts.length >= maxCapacity) {
+            throw new IllegalStateException("The arena is full: " + maxCapacity + " nodes");
+        }
+        int capacity = (int) Math.min((long) visitCounts.length * 2, maxCapacity);
+        visitCounts = Arrays.copyOf(visitCounts, capacity);
+        totalRewards = Arrays.copyOf(totalRewards, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        childCounts = Arrays.copyOf(childCounts, capacity);
+        legalActionCounts = Arrays.copyOf(legalActionCounts, capacity);
+        terminals = Arrays.copyOf(terminals, capacity);
+        actions = Arrays.copyOf(actions, capacity);
+    }
+
+    /**
+     * Gets the number of nodes in the arena.
+     *
+     * @return the number of nodes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of nodes the arena can hold before growing.
+     *
+     * @return the capacity of the arena.
+     */
+    public int capacity() {
+        return visitCounts.length;
+    }
+
+    /**
+     * Gets the maximum number of nodes the arena can grow to.
+     *
+     * @return the maximum capacity of the arena.
+     */
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * Sets the maximum number of nodes the arena can grow to.
+     * The arrays already allocated are kept even if they are larger than the new maximum.
+     *
+     * @param maxCapacity the maximum number of nodes.
+     */
+    public void setMaxCapacity(int maxCapacity) {
+        if (maxCapacity < 1) {
+            throw new IllegalArgumentException("The maximum capacity must be at least 1");
+        }
+        this.maxCapacity = Math.min(maxCapacity, MAX_ARRAY_LENGTH);
+    }
+
+    /**
+     * Gets the number of times a node has been visited.
+     *
+     * @param node the index of the node.
+     * @return the visit count.
+     */
+    public int getVisitCount(int node) {
+        return visitCounts[node];
+    }
+
+    /**
+     * Gets the total reward of a node.
+     *
+     * @param node the index of the node.
+     * @return the total reward.
+     */
+    public double getTotalReward(int node) {
+        return totalRewards[node];
+    }
+
+    /**
+     * Gets the parent of a node.
+     *
+     * @param node the index of the node.
+     * @return the index of the parent, or {@link #NONE} for a root.
+     */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * Gets the first child of a node.
+     *
+     * @param node the index of the node.
+     * @return the index of the first child, or {@link #NONE} if the node has no children.
+     */
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    /**
+     * Gets the next sibling of a node.
+     *
+     * @param node the index of the node.
+     * @return the index of the next sibling, or {@link #NONE} if the node is the last child.
+     */
+    public int getNextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    /**
+     * Gets the number of children of a node.
+     *
+     * @param node the index of the node.
+     * @return the number of children.
+     */
+    public int getChildCount(int node) {
+        return childCounts[node];
+    }
+
+    /**
+     * Checks if the state of a node is terminal.
+     *
+     * @param node the index of the node.
+     * @return true if the node is terminal, false otherwise.
+     */
+    public boolean isTerminal(int node) {
+        return terminals[node];
+    }
+
+    /**
+     * Gets the action leading from the parent to the given node.
+     *
+     * @param node the index of the node.
+     * @return the action, or null for a root.
+     */
+    @SuppressWarnings("unchecked")
+    public E getAction(int node) {
+        return (E) actions[node];
+    }
+
+    /**
+     * Sets the number of legal actions in the state of a node.
+     *
+     * @param node              the index of the node.
+     * @param legalActionCount  the number of legal actions.
+     */
+    public void setLegalActionCount(int node, int legalActionCount) {
+        legalActionCounts[node] = legalActionCount;
+    }
+}
@@ -0,0 +1,47 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Utility methods shared by the parallel versions of the Monte Carlo Tree Search (MCTS) algorithm.
+ */
+final class MCTSWorkerPools {
+
+    private MCTSWorkerPools() {
+    }
+
+    /**
+     * Creates a fixed pool of daemon threads, so that an idle pool never keeps the JVM alive.
+     *
+     * @param numThreads the number of threads of the pool.
+     * @param threadName the name given to the threads.
+     * @return the new pool.
+     */
+    static ExecutorService create(int numThreads, String threadName) {
+        return Executors.newFixedThreadPool(Math.max(1, numThreads), runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Waits for every given task to complete.
+     *
+     * @param futures the pending tasks.
+     * @throws IllegalStateException if the waiting thread is interrupted or a task fails.
+     */
+    static void awaitAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the MCTS workers", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("An MCTS worker failed", e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+
+/**
+ * Tells how the actions of the game are seen by every player, for the multi-observer version of {@link ISMCTSAlgorithm}.
+ */
+@FunctionalInterface
+public interface MoveObserver<E extends Action> {
+
+    /**
+     * Gets the given action as seen by the given player.
+     * Actions the player can't tell apart must be mapped to equal actions, still played by the same player.
+     * Players usually see their own actions as they are.
+     *
+     * @param action        the action played.
+     * @param observerIndex the index of the player observing the action.
+     * @return the action as seen by the player.
+     */
+    E observe(E action, int observerIndex);
+}
@@ -0,0 +1,105 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Implements the PUCT tree policy, which selects the child maximizing {@code Q + c * P * sqrt(N) / (1 + n)},
+ * where {@code P} is the prior probability of the action leading to the child.
+ * Priors are computed by a {@link PriorProvider} over every legal action of a node, whenever a node is selected from
+ * while some of its children have no prior, such as children added by progressive widening or recreated after pruning,
+ * and stored in its children.
+ * Unvisited children have a value of {@code Q} equal to zero, so the prior alone decides the order in which they are tried.
+ * Under ISMCTS, {@code N} is the availability count of the child, and the prior of every child is computed
+ * from the first determinization in which the child competes for selection.
+ */
+public class PUCTPolicy<T extends GameState<E>, E extends Action> implements TreePolicy<T, E>, ISMCTSTreePolicy<T, E> {
+    private final double explorationConstant;
+    private final PriorProvider<T, E> priorProvider;
+
+    /**
+     * Constructs a new PUCTPolicy.
+     *
+     * @param explorationConstant the exploration constant.
+     * @param priorProvider       the provider of the prior probabilities.
+     */
+    public PUCTPolicy(double explorationConstant, PriorProvider<T, E> priorProvider) {
+        this.explorationConstant = explorationConstant;
+        this.priorProvider = priorProvider;
+    }
+
+    @Override
+    public MCTSNode<T, E> selectChild(MCTSNode<T, E> node, double virtualLossPenalty, RandomGenerator random) {
+        MCTSNode.Children<T, E> children = node.getChildren();
+        if (children.size == 0) {
+            throw new IllegalStateException("No children to select");
+        }
+        for (int i = 0; i < children.size; i++) {
+            if (Double.isNaN(children.nodes[i].getPrior())) {
+                assignPriors(node);
+                break;
+            }
+        }
+        double parentExploration = explorationConstant * Math.sqrt(node.getVisitCount() + node.getVirtualLoss());
+        MCTSNode<T, E> bestChild = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < children.size; i++) {
+            MCTSNode<T, E> child = children.nodes[i];
+            if (child.isSolved()) continue;
+            int childVirtualLoss = child.getVirtualLoss();
+            int childVisits = child.getVisitCount() + childVirtualLoss;
+            double exploitation = childVisits == 0 ? 0.0 : (child.getTotalReward() - childVirtualLoss * virtualLossPenalty) / childVisits;
+            double value = exploitation + parentExploration * child.getPrior() / (1 + childVisits);
+            if (value > bestValue) {
+                bestValue = value;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    @Override
+    public int selectAction(ISMCTSNode<E> node, T state, List<E> legalActions, double virtualLossPenalty, RandomGenerator random) {
+        double[] priors = null;
+        int bestIndex = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < legalActions.size(); i++) {
+            ISMCTSNode<E> child = node.getChild(legalActions.get(i));
+            if (Double.isNaN(child.getPrior())) {
+                if (priors == null) priors = priorProvider.getPriors(state, legalActions);
+                child.setPrior(priors[i]);
+            }
+            int childVirtualLoss = child.getVirtualLoss();
+            int childVisits = child.getVisitCount() + childVirtualLoss;
+            double exploitation = childVisits == 0 ? 0.0 : (child.getTotalReward() - childVirtualLoss * virtualLossPenalty) / childVisits;
+            double exploration = explorationConstant * Math.sqrt(child.getAvailabilityCount()) * child.getPrior() / (1 + childVisits);
+            double value = exploitation + exploration;
+            if (value > bestValue) {
+                bestValue = value;
+                bestIndex = i;
+            }
+        }
+        return bestIndex;
+    }
+
+    /**
+     * Computes the priors of the legal actions of the given node and stores them in the children that have none.
+     * Priors are computed over every legal action, so that they don't depend on which children exist yet.
+     *
+     * @param node the parent node.
+     */
+    private void assignPriors(MCTSNode<T, E> node) {
+        List<E> legalActions = node.getLegalActions();
+        double[] priors = priorProvider.getPriors(node.getState(), legalActions);
+        MCTSNode.Children<T, E> children = node.getChildren();
+        for (int i = 0; i < children.size; i++) {
+            if (Double.isNaN(children.nodes[i].getPrior())) {
+                int index = legalActions.indexOf(children.actions[i]);
+                children.nodes[i].setPrior(index < 0 ? 0.0 : priors[index]);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.Strategy;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Provides the prior probability of every action available in a state, used by tree policies such as PUCT
+ * to direct the search towards the most promising actions before their statistics are reliable.
+ */
+@FunctionalInterface
+public interface PriorProvider<T extends GameState<E>, E extends Action> {
+
+    /**
+     * Computes the prior probabilities of the given actions.
+     *
+     * @param state   the state in which the actions are available.
+     * @param actions the actions to evaluate.
+     * @return the prior probability of every action, in the same order as the actions, summing to 1.
+     */
+    double[] getPriors(T state, List<E> actions);
+
+    /**
+     * Returns a provider giving the same prior to every action.
+     *
+     * @param <T> the type of the game state.
+     * @param <E> the type of the actions.
+     * @return the uniform prior provider.
+     */
+    static <T extends GameState<E>, E extends Action> PriorProvider<T, E> uniform() {
+        return (state, actions) -> {
+            double[] priors = new double[actions.size()];
+            Arrays.fill(priors, 1.0 / actions.size());
+            return priors;
+        };
+    }
+
+    /**
+     * Returns a provider favouring the actions suggested by {@link Strategy#suggestStrategicMoves(GameState, int)}:
+     * every action gets a weight of 1, plus the given bonus if it is suggested, and the weights are then normalized.
+     *
+     * @param strategy       the strategy suggesting the moves.
+     * @param suggestedBonus the extra weight of a suggested action.
+     * @param <T>            the type of the game state.
+     * @param <E>            the type of the actions.
+     * @return the prior provider based on the strategy.
+     */
+    static <T extends GameState<E>, E extends Action> PriorProvider<T, E> fromStrategy(Strategy<T, E> strategy, double suggestedBonus) {
+        return (state, actions) -> {
+            Set<E> suggestedActions = new HashSet<>(strategy.suggestStrategicMoves(state, state.getCurrentPlayer()));
+            double[] priors = new double[actions.size()];
+            double totalWeight = 0;
+            for (int i = 0; i < priors.length; i++) {
+                priors[i] = suggestedActions.contains(actions.get(i)) ? 1.0 + suggestedBonus : 1.0;
+                totalWeight += priors[i];
+            }
+            for (int i = 0; i < priors.length; i++) {
+                priors[i] /= totalWeight;
+            }
+            return priors;
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+/**
+ * Represents the game-theoretic value of a node proven by the MCTS-Solver,
+ * from the point of view of the player who moved into the node.
+ */
+public enum ProvenValue {
+    /**
+     * The value of the node has not been proven yet.
+     */
+    UNKNOWN,
+    /**
+     * The player who moved into the node wins with perfect play.
+     */
+    WIN,
+    /**
+     * The player who moved into the node loses with perfect play.
+     */
+    LOSS,
+    /**
+     * The game ends in a draw with perfect play.
+     */
+    DRAW
+}
@@ -0,0 +1,122 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Implements the Rapid Action Value Estimation (RAVE) tree policy.
+ * The value of every child blends its own average reward with the all-moves-as-first (AMAF) average reward
+ * of the action leading to it: {@code (1 - beta) * Q + beta * Q_amaf + c * sqrt(ln(N) / n)}.
+ * AMAF statistics are gathered from every iteration in which the action is played later on, so they become
+ * reliable much sooner than the statistics of the child; the beta schedule moves the weight from the AMAF value
+ * to the child value as the child collects visits.
+ */
+public class RaveTreePolicy<T extends GameState<E>, E extends Action> implements TreePolicy<T, E> {
+    private final double explorationConstant;
+    private final BetaSchedule betaSchedule;
+
+    /**
+     * Represents the schedule of the weight given to the AMAF value of a child.
+     */
+    @FunctionalInterface
+    public interface BetaSchedule {
+
+        /**
+         * Computes the weight of the AMAF value.
+         *
+         * @param visits     the visits of the child.
+         * @param amafVisits the AMAF visits of the action leading to the child.
+         * @return the weight of the AMAF value, between 0 and 1.
+         */
+        double beta(int visits, int amafVisits);
+
+        /**
+         * Returns the hand-selected schedule {@code sqrt(k / (3 * n + k))}, which gives the AMAF value
+         * and the child value the same weight after k visits.
+         *
+         * @param equivalenceParameter the number of visits k after which both values have the same weight.
+         * @return the beta schedule.
+         */
+        static BetaSchedule handSelected(double equivalenceParameter) {
+            return (visits, amafVisits) -> Math.sqrt(equivalenceParameter / (3.0 * visits + equivalenceParameter));
+        }
+
+        /**
+         * Returns the minimum mean squared error schedule {@code n' / (n + n' + 4 * b^2 * n * n')},
+         * where n' is the number of AMAF visits and b is the expected bias of the AMAF value.
+         *
+         * @param bias the expected bias of the AMAF value.
+         * @return the beta schedule.
+         */
+        static BetaSchedule minimumMeanSquaredError(double bias) {
+            return (visits, amafVisits) -> amafVisits == 0 ? 0.0
+                    : amafVisits / (visits + amafVisits + 4.0 * bias * bias * visits * amafVisits);
+        }
+    }
+
+    /**
+     * Constructs a new RaveTreePolicy with the hand-selected beta schedule.
+     *
+     * @param explorationConstant  the exploration constant.
+     * @param equivalenceParameter the number of visits after which the AMAF value and the child value have the same weight.
+     */
+    public RaveTreePolicy(double explorationConstant, double equivalenceParameter) {
+        this(explorationConstant, BetaSchedule.handSelected(equivalenceParameter));
+    }
+
+    /**
+     * Constructs a new RaveTreePolicy.
+     *
+     * @param explorationConstant the exploration constant.
+     * @param betaSchedule        the schedule of the weight given to the AMAF values.
+     */
+    public RaveTreePolicy(double explorationConstant, BetaSchedule betaSchedule) {
+        this.explorationConstant = explorationConstant;
+        this.betaSchedule = betaSchedule;
+    }
+
+    @Override
+    public MCTSNode<T, E> selectChild(MCTSNode<T, E> node, double virtualLossPenalty, RandomGenerator random) {
+        MCTSNode.Children<T, E> children = node.getChildren();
+        if (children.size == 0) {
+            throw new IllegalStateException("No children to select");
+        }
+        double parentExploration = explorationConstant * UCBMath.sqrtLog(node.getVisitCount() + node.getVirtualLoss());
+        MCTSNode<T, E> bestChild = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < children.size; i++) {
+            MCTSNode<T, E> child = children.nodes[i];
+            if (child.isSolved()) continue;
+            int childVirtualLoss = child.getVirtualLoss();
+            int childVisits = child.getVisitCount() + childVirtualLoss;
+            AmafStatistics amaf = node.getAmafStatistics(children.actions[i]);
+            int amafVisits = amaf == null ? 0 : amaf.getVisitCount();
+            if (childVisits == 0 && amafVisits == 0) {
+                return child;
+            }
+            double exploitation = childVisits == 0 ? 0.0 : (child.getTotalReward() - childVirtualLoss * virtualLossPenalty) / childVisits;
+            double value;
+            if (amafVisits == 0) {
+                value = exploitation;
+            } else {
+                double beta = childVisits == 0 ? 1.0 : betaSchedule.beta(childVisits, amafVisits);
+                value = (1 - beta) * exploitation + beta * amaf.getTotalReward() / amafVisits;
+            }
+            if (childVisits > 0) {
+                value += parentExploration * UCBMath.inverseSqrt(childVisits);
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    @Override
+    public boolean usesAmafStatistics() {
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.Strategy;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Evaluates every leaf of a batch with a playout, scored by a strategy.
+ * This is the evaluation of the plain simulation step, exposed as a {@link LeafEvaluator}.
+ */
+public class RolloutLeafEvaluator<T extends GameState<E>, E extends Action> implements LeafEvaluator<T, E> {
+    private final Strategy<T, E> strategy;
+    private final RolloutPolicy<T, E> rolloutPolicy;
+    private final int depthLimit;
+
+    /**
+     * Constructs a new RolloutLeafEvaluator playing uniformly random moves up to a terminal state.
+     *
+     * @param strategy the strategy computing the utility of the terminal states.
+     */
+    public RolloutLeafEvaluator(Strategy<T, E> strategy) {
+        this(strategy, RolloutPolicy.uniformRandom(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new RolloutLeafEvaluator.
+     * Playouts cut off by the depth limit are scored by the strategy on the non-terminal state reached,
+     * which then acts as a heuristic evaluation.
+     *
+     * @param strategy      the strategy computing the utility of the states reached.
+     * @param rolloutPolicy the policy choosing the moves of the playouts.
+     * @param depthLimit    the maximum number of moves of a playout.
+     */
+    public RolloutLeafEvaluator(Strategy<T, E> strategy, RolloutPolicy<T, E> rolloutPolicy, int depthLimit) {
+        if (depthLimit < 0) {
+            throw new IllegalArgumentException("The depth limit must not be negative");
+        }
+        this.strategy = strategy;
+        this.rolloutPolicy = rolloutPolicy;
+        this.depthLimit = depthLimit;
+    }
+
+    @Override
+    public double[] evaluate(List<T> leafStates, RandomGenerator random) {
+        double[] values = new double[leafStates.size()];
+        for (int i = 0; i < values.length; i++) {
+            T leafState = leafStates.get(i);
+            T state = GameState.copyOf(leafState);
+            rolloutPolicy.play(state, depthLimit, random, null);
+            values[i] = strategy.calculateUtility(state, leafState.getCurrentPlayer());
+        }
+        return values;
+    }
+}
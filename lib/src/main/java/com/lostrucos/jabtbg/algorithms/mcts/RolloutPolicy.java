@@ -0,0 +1,99 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.Strategy;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents the policy choosing the moves of the playouts run during the simulation step of the Monte Carlo Tree Search.
+ */
+@FunctionalInterface
+public interface RolloutPolicy<T extends GameState<E>, E extends Action> {
+
+    /**
+     * Chooses the next move of a playout.
+     *
+     * @param state            the current state of the playout.
+     * @param availableActions the actions available to the player to move, not empty.
+     * @param random           the random generator of the thread running the playout.
+     * @return the chosen action.
+     */
+    E selectAction(T state, List<E> availableActions, RandomGenerator random);
+
+    /**
+     * Plays moves chosen by this policy on the given state, until it is terminal or the depth limit is reached.
+     *
+     * @param state         the state to play on, modified in place.
+     * @param depthLimit    the maximum number of moves to play.
+     * @param random        the random generator of the thread running the playout.
+     * @param playedActions the list filled with the moves played, or null if they are not recorded.
+     * @return the number of moves played.
+     */
+    default int play(T state, int depthLimit, RandomGenerator random, List<E> playedActions) {
+        int depth = 0;
+        while (depth < depthLimit && !state.isTerminalNode()) {
+            E action = selectAction(state, state.getAvailableActions(state.getCurrentPlayer()), random);
+            state.applyAction(action);
+            if (playedActions != null) playedActions.add(action);
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the light policy, which plays uniformly random moves.
+     *
+     * @param <T> the type of the game state.
+     * @param <E> the type of the actions.
+     * @return the uniformly random policy.
+     */
+    static <T extends GameState<E>, E extends Action> RolloutPolicy<T, E> uniformRandom() {
+        return (state, availableActions, random) -> availableActions.get(random.nextInt(availableActions.size()));
+    }
+
+    /**
+     * Returns a heavy policy, which plays a random move among the ones suggested by
+     * {@link Strategy#suggestStrategicMoves(GameState, int)}, or any random move if the strategy suggests none.
+     *
+     * @param strategy the strategy suggesting the moves.
+     * @param <T>      the type of the game state.
+     * @param <E>      the type of the actions.
+     * @return the strategy-guided policy.
+     */
+    static <T extends GameState<E>, E extends Action> RolloutPolicy<T, E> heavy(Strategy<T, E> strategy) {
+        return (state, availableActions, random) -> {
+            List<E> suggestedActions = strategy.suggestStrategicMoves(state, state.getCurrentPlayer());
+            List<E> candidates = suggestedActions.isEmpty() ? availableActions : suggestedActions;
+            return candidates.get(random.nextInt(candidates.size()));
+        };
+    }
+
+    /**
+     * Returns an epsilon-greedy policy, which plays a uniformly random move with the given probability
+     * and otherwise the first move suggested by {@link Strategy#suggestStrategicMoves(GameState, int)},
+     * falling back to a random move if the strategy suggests none.
+     *
+     * @param strategy the strategy suggesting the moves, best first.
+     * @param epsilon  the probability of playing a random move.
+     * @param <T>      the type of the game state.
+     * @param <E>      the type of the actions.
+     * @return the epsilon-greedy policy.
+     */
+    static <T extends GameState<E>, E extends Action> RolloutPolicy<T, E> epsilonGreedy(Strategy<T, E> strategy, double epsilon) {
+        if (epsilon < 0 || epsilon > 1) {
+            throw new IllegalArgumentException("Epsilon must be between 0 and 1");
+        }
+        return (state, availableActions, random) -> {
+            if (random.nextDouble() >= epsilon) {
+                List<E> suggestedActions = strategy.suggestStrategicMoves(state, state.getCurrentPlayer());
+                if (!suggestedActions.isEmpty()) {
+                    return suggestedActions.get(0);
+                }
+            }
+            return availableActions.get(random.nextInt(availableActions.size()));
+        };
+    }
+}
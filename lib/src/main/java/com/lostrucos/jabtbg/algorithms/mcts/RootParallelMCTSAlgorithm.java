@@ -0,0 +1,272 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.*;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Implements a root-parallel version of the Monte Carlo Tree Search (MCTS) algorithm for games with perfect information.
+ * Several independent trees are grown concurrently from the same root state, each one by its own {@link MCTSAlgorithm}
+ * with its own random generator, split deterministically from the generator of this algorithm. Once every tree has completed its share of the iterations, the statistics of the
+ * children of every root node are merged and the best action is chosen on the merged statistics.
+ */
+public class RootParallelMCTSAlgorithm<E extends Action, T extends GameState<E>> implements Algorithm<T, E> {
+
+    private final SearchBudget searchBudget;
+    private final double explorationConstant;
+    private final int numThreads;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private SplittableRandom random;
+    private final List<MCTSAlgorithm<E, T>> workers;
+    private Strategy<T, E> strategy;
+    private TreePolicy<T, E> treePolicy;
+    private RolloutPolicy<T, E> rolloutPolicy;
+    private int lastSearchIterations;
+
+    /**
+     * Constructs a new RootParallelMCTSAlgorithm backed by a dedicated pool of worker threads.
+     *
+     * @param numIterations       the total number of simulations to run, split among the trees.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param numThreads          the number of trees grown concurrently.
+     */
+    public RootParallelMCTSAlgorithm(int numIterations, double explorationConstant, int numThreads) {
+        this(SearchBudget.ofIterations(numIterations), explorationConstant, numThreads);
+    }
+
+    /**
+     * Constructs a new RootParallelMCTSAlgorithm that runs its trees on the given executor.
+     * The executor is not shut down by this algorithm.
+     *
+     * @param numIterations       the total number of simulations to run, split among the trees.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param numThreads          the number of trees grown concurrently.
+     * @param executor            the executor running the trees.
+     */
+    public RootParallelMCTSAlgorithm(int numIterations, double explorationConstant, int numThreads, ExecutorService executor) {
+        this(SearchBudget.ofIterations(numIterations), explorationConstant, numThreads, executor, false);
+    }
+
+    /**
+     * Constructs a new RootParallelMCTSAlgorithm backed by a dedicated pool of worker threads,
+     * searching until any limit of the given budget is reached.
+     * Iterations and nodes of the budget are split among the trees, while every tree gets the whole time limit.
+     *
+     * @param searchBudget        the budget of every search.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param numThreads          the number of trees grown concurrently.
+     */
+    public RootParallelMCTSAlgorithm(SearchBudget searchBudget, double explorationConstant, int numThreads) {
+        this(searchBudget, explorationConstant, numThreads, MCTSWorkerPools.create(numThreads, "mcts-root-worker"), true);
+    }
+
+    private RootParallelMCTSAlgorithm(SearchBudget searchBudget, double explorationConstant, int numThreads, ExecutorService executor, boolean ownsExecutor) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1");
+        }
+        this.searchBudget = searchBudget;
+        this.explorationConstant = explorationConstant;
+        this.numThreads = numThreads;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.random = new SplittableRandom();
+        this.workers = new ArrayList<>();
+    }
+
+    /**
+     * Initializes one tree for every worker thread with a private copy of the given state.
+     *
+     * @param state the current game state.
+     */
+    @Override
+    public void initialize(T state) {
+        workers.clear();
+        for (int i = 0; i < numThreads; i++) {
+            MCTSAlgorithm<E, T> worker = new MCTSAlgorithm<>(searchBudget.split(i, numThreads), explorationConstant, random.split());
+            worker.setStrategy(strategy);
+            if (treePolicy != null) worker.setTreePolicy(treePolicy);
+            if (rolloutPolicy != null) worker.setRolloutPolicy(rolloutPolicy);
+            worker.initialize(GameState.copyOf(state));
+            workers.add(worker);
+        }
+    }
+
+    @Override
+    public void setStrategy(Strategy<T, E> strategy) {
+        this.strategy = strategy;
+        for (MCTSAlgorithm<E, T> worker : workers) {
+            worker.setStrategy(strategy);
+        }
+    }
+
+    /**
+     * Reseeds the random generator from which the generators of the trees are split, so that the following searches
+     * are reproducible when limited by iterations or nodes. The trees are rebuilt by the next search.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+        workers.clear();
+    }
+
+    /**
+     * Sets the policy used by every tree to descend during selection.
+     * The policy is shared by the worker threads, so it must not keep per-search state.
+     *
+     * @param treePolicy the tree policy.
+     */
+    public void setTreePolicy(TreePolicy<T, E> treePolicy) {
+        this.treePolicy = treePolicy;
+        for (MCTSAlgorithm<E, T> worker : workers) {
+            worker.setTreePolicy(treePolicy);
+        }
+    }
+
+    /**
+     * Sets the policy choosing the moves of the playouts of every tree.
+     * The policy is shared by the worker threads, so it must not keep per-search state.
+     *
+     * @param rolloutPolicy the rollout policy.
+     */
+    public void setRolloutPolicy(RolloutPolicy<T, E> rolloutPolicy) {
+        this.rolloutPolicy = rolloutPolicy;
+        for (MCTSAlgorithm<E, T> worker : workers) {
+            worker.setRolloutPolicy(rolloutPolicy);
+        }
+    }
+
+    @Override
+    public void reset() {
+        workers.clear();
+    }
+
+    /**
+     * Grows every tree concurrently from the given state, then chooses the action
+     * with the best ratio of reward to visits over the merged root statistics.
+     * Trees kept in sync by {@link #updateAfterAction(GameState, Action)} are reused.
+     *
+     * @param state the current game state.
+     * @return the selected action.
+     */
+    @Override
+    public E chooseAction(T state) {
+        boolean treesInSync = !workers.isEmpty() && workers.stream()
+                .allMatch(worker -> worker.getRootNode() != null && worker.getRootNode().getState().equals(state));
+        if (!treesInSync) {
+            initialize(state);
+        }
+
+        List<Future<E>> futures = new ArrayList<>(workers.size());
+        for (MCTSAlgorithm<E, T> worker : workers) {
+            T workerState = worker.getRootNode().getState();
+            futures.add(executor.submit(() -> worker.chooseAction(workerState)));
+        }
+        MCTSWorkerPools.awaitAll(futures);
+        lastSearchIterations = workers.stream().mapToInt(MCTSAlgorithm::getLastSearchIterations).sum();
+
+        return getBestAction(mergeRootStatistics(), state);
+    }
+
+    @Override
+    public void applyPseudoAction(T state, E action) {
+        state.applyAction(action);
+    }
+
+    /**
+     * Updates every tree after an action is taken.
+     *
+     * @param state  the new game state.
+     * @param action the action taken.
+     */
+    @Override
+    public void updateAfterAction(T state, E action) {
+        for (MCTSAlgorithm<E, T> worker : workers) {
+            worker.updateAfterAction(state, action);
+        }
+    }
+
+    /**
+     * Sums, action by action, the visits and the rewards of the children of every root node.
+     *
+     * @return a map of actions to their merged statistics, stored as {visits, total reward}.
+     */
+    Map<E, double[]> mergeRootStatistics() {
+        Map<E, double[]> mergedStatistics = new HashMap<>();
+        for (MCTSAlgorithm<E, T> worker : workers) {
+            for (Map.Entry<E, MCTSNode<T, E>> entry : worker.getRootNode().getChildNodes().entrySet()) {
+                double[] statistics = mergedStatistics.computeIfAbsent(entry.getKey(), a -> new double[2]);
+                statistics[0] += entry.getValue().getVisitCount();
+                statistics[1] += entry.getValue().getTotalReward();
+            }
+        }
+        return mergedStatistics;
+    }
+
+    /**
+     * Select the best action based on the ratio of merged reward to merged visits.
+     *
+     * @param mergedStatistics the merged statistics of the root children.
+     * @param state            the current game state, used when no child has been expanded.
+     * @return the best action.
+     */
+    private E getBestAction(Map<E, double[]> mergedStatistics, T state) {
+        if (mergedStatistics.isEmpty()) {
+            List<E> availableActions = state.getAvailableActions(state.getCurrentPlayer());
+            return availableActions.get(random.nextInt(availableActions.size()));
+        }
+        return mergedStatistics.entrySet().stream()
+                .filter(e -> e.getValue()[0] > 0)
+                .max(Comparator.comparingDouble(e -> e.getValue()[1] / e.getValue()[0]))
+                .map(Map.Entry::getKey)
+                .orElseThrow(() -> new IllegalStateException("No visited children found"));
+    }
+
+    /**
+     * Stops the worker pool if it was created by this algorithm.
+     */
+    public void shutdown() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the algorithms growing the independent trees.
+     *
+     * @return the list of worker algorithms.
+     */
+    public List<MCTSAlgorithm<E, T>> getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Gets the number of iterations completed by the last search, summed over every tree.
+     *
+     * @return the number of iterations.
+     */
+    public int getLastSearchIterations() {
+        return lastSearchIterations;
+    }
+
+    /**
+     * Gets the number of trees grown concurrently.
+     *
+     * @return the number of worker threads.
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    @Override
+    public String toString() {
+        return "RootParallelMCTSAlgorithm{" +
+                "searchBudget=" + searchBudget +
+                ", explorationConstant=" + explorationConstant +
+                ", numThreads=" + numThreads +
+                '}';
+    }
+}
@@ -0,0 +1,143 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the resources a Monte Carlo search is allowed to spend on a single move.
+ * A budget can limit the number of iterations, the wall-clock time and the number of nodes in the tree:
+ * the search stops as soon as any of the configured limits is reached.
+ * Budgets are immutable, every {@code with} method returns a new budget.
+ */
+public final class SearchBudget {
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+    private static final long UNLIMITED_TIME = Long.MAX_VALUE;
+
+    private final int maxIterations;
+    private final long timeLimitNanos;
+    private final int maxNodes;
+
+    private SearchBudget(int maxIterations, long timeLimitNanos, int maxNodes) {
+        if (maxIterations < 0 || timeLimitNanos < 0 || maxNodes < 1) {
+            throw new IllegalArgumentException("Search budget limits must be positive");
+        }
+        this.maxIterations = maxIterations;
+        this.timeLimitNanos = timeLimitNanos;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Creates a budget limited only by the number of iterations.
+     *
+     * @param maxIterations the maximum number of iterations.
+     * @return the new budget.
+     */
+    public static SearchBudget ofIterations(int maxIterations) {
+        return new SearchBudget(maxIterations, UNLIMITED_TIME, UNLIMITED);
+    }
+
+    /**
+     * Creates a budget limited only by the wall-clock time.
+     *
+     * @param timeLimit the maximum time of the search.
+     * @param unit      the unit of the time limit.
+     * @return the new budget.
+     */
+    public static SearchBudget ofTime(long timeLimit, TimeUnit unit) {
+        return new SearchBudget(UNLIMITED, unit.toNanos(timeLimit), UNLIMITED);
+    }
+
+    /**
+     * Returns a copy of this budget with the given iteration limit.
+     *
+     * @param maxIterations the maximum number of iterations.
+     * @return the new budget.
+     */
+    public SearchBudget withIterations(int maxIterations) {
+        return new SearchBudget(maxIterations, timeLimitNanos, maxNodes);
+    }
+
+    /**
+     * Returns a copy of this budget with the given time limit.
+     *
+     * @param timeLimit the maximum time of the search.
+     * @param unit      the unit of the time limit.
+     * @return the new budget.
+     */
+    public SearchBudget withTimeLimit(long timeLimit, TimeUnit unit) {
+        return new SearchBudget(maxIterations, unit.toNanos(timeLimit), maxNodes);
+    }
+
+    /**
+     * Returns a copy of this budget with the given limit on the number of nodes in the tree,
+     * used as a ceiling on the memory spent by the search.
+     *
+     * @param maxNodes the maximum number of nodes.
+     * @return the new budget.
+     */
+    public SearchBudget withNodeLimit(int maxNodes) {
+        return new SearchBudget(maxIterations, timeLimitNanos, maxNodes);
+    }
+
+    /**
+     * Tells whether the search can start another iteration.
+     * It is meant to be called before every iteration, so the deadline is overrun by at most one iteration.
+     *
+     * @param completedIterations the number of iterations already started.
+     * @param nodeCount           the current number of nodes in the tree.
+     * @param elapsedNanos        the time elapsed since the beginning of the search, in nanoseconds.
+     * @return true if no limit has been reached yet, false otherwise.
+     */
+    public boolean allowsIteration(int completedIterations, int nodeCount, long elapsedNanos) {
+        return completedIterations < maxIterations && nodeCount < maxNodes && elapsedNanos < timeLimitNanos;
+    }
+
+    /**
+     * Returns the share of this budget given to one of several independent searches running concurrently.
+     * Iterations and nodes are split evenly, while the time limit is left untouched.
+     *
+     * @param shareIndex the index of the share.
+     * @param shareCount the number of shares.
+     * @return the budget of the given share.
+     */
+    public SearchBudget split(int shareIndex, int shareCount) {
+        int iterations = maxIterations == UNLIMITED ? UNLIMITED : maxIterations / shareCount + (shareIndex < maxIterations % shareCount ? 1 : 0);
+        int nodes = maxNodes == UNLIMITED ? UNLIMITED : Math.max(1, maxNodes / shareCount);
+        return new SearchBudget(iterations, timeLimitNanos, nodes);
+    }
+
+    /**
+     * Gets the maximum number of iterations.
+     *
+     * @return the iteration limit, {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Gets the maximum time of the search.
+     *
+     * @return the time limit in nanoseconds, {@link Long#MAX_VALUE} if unlimited.
+     */
+    public long getTimeLimitNanos() {
+        return timeLimitNanos;
+    }
+
+    /**
+     * Gets the maximum number of nodes in the tree.
+     *
+     * @return the node limit, {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchBudget{" +
+                "maxIterations=" + (maxIterations == UNLIMITED ? "unlimited" : maxIterations) +
+                ", timeLimitMs=" + (timeLimitNanos == UNLIMITED_TIME ? "unlimited" : TimeUnit.NANOSECONDS.toMillis(timeLimitNanos)) +
+                ", maxNodes=" + (maxNodes == UNLIMITED ? "unlimited" : maxNodes) +
+                '}';
+    }
+}
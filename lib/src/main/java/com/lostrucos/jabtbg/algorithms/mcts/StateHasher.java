@@ -0,0 +1,34 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+/**
+ * Computes a compact 64-bit key for a game state, used to recognise the same position reached through different move orders.
+ * Two states that are equal must get the same key, and two different states should get different keys with high probability.
+ */
+@FunctionalInterface
+public interface StateHasher<T extends GameState<? extends Action>> {
+
+    /**
+     * Computes the key of the given state.
+     *
+     * @param state the game state.
+     * @return the 64-bit key of the state.
+     */
+    long hash(T state);
+
+    /**
+     * Returns a hasher that spreads the {@link Object#hashCode()} of the state over 64 bits.
+     * It is only as precise as the hash code of the state, so games with many positions should provide their own hasher.
+     *
+     * @param <T> the type of the game state.
+     * @return the hasher based on the hash code.
+     */
+    static <T extends GameState<? extends Action>> StateHasher<T> fromHashCode() {
+        return state -> {
+            long key = state.hashCode() * 0x9E3779B97F4A7C15L;
+            return key ^ (key >>> 32);
+        };
+    }
+}
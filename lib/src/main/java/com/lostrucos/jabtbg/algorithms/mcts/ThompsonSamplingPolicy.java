@@ -0,0 +1,113 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Implements Thompson sampling as a tree policy: the reward of every child is modelled as a Bernoulli variable
+ * with a Beta posterior, a value is drawn from every posterior and the child with the highest draw is selected.
+ * Rewards are clamped to [0, 1] when they are turned into successes and failures.
+ */
+public class ThompsonSamplingPolicy<T extends GameState<E>, E extends Action> implements TreePolicy<T, E>, ISMCTSTreePolicy<T, E> {
+    private final double priorSuccesses;
+    private final double priorFailures;
+
+    /**
+     * Constructs a new ThompsonSamplingPolicy with a uniform Beta(1, 1) prior.
+     */
+    public ThompsonSamplingPolicy() {
+        this(1.0, 1.0);
+    }
+
+    /**
+     * Constructs a new ThompsonSamplingPolicy with a Beta(priorSuccesses, priorFailures) prior.
+     *
+     * @param priorSuccesses the pseudo-count of successes of the prior.
+     * @param priorFailures  the pseudo-count of failures of the prior.
+     */
+    public ThompsonSamplingPolicy(double priorSuccesses, double priorFailures) {
+        if (priorSuccesses <= 0 || priorFailures <= 0) {
+            throw new IllegalArgumentException("Beta prior parameters must be positive");
+        }
+        this.priorSuccesses = priorSuccesses;
+        this.priorFailures = priorFailures;
+    }
+
+    @Override
+    public MCTSNode<T, E> selectChild(MCTSNode<T, E> node, double virtualLossPenalty, RandomGenerator random) {
+        MCTSNode.Children<T, E> children = node.getChildren();
+        if (children.size == 0) {
+            throw new IllegalStateException("No children to select");
+        }
+        MCTSNode<T, E> bestChild = null;
+        double bestSample = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < children.size; i++) {
+            MCTSNode<T, E> child = children.nodes[i];
+            if (child.isSolved()) continue;
+            double sample = samplePosterior(child.getVisitCount(), child.getTotalReward(), child.getVirtualLoss(), virtualLossPenalty, random);
+            if (sample > bestSample) {
+                bestSample = sample;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    @Override
+    public int selectAction(ISMCTSNode<E> node, T state, List<E> legalActions, double virtualLossPenalty, RandomGenerator random) {
+        int bestIndex = 0;
+        double bestSample = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < legalActions.size(); i++) {
+            ISMCTSNode<E> child = node.getChild(legalActions.get(i));
+            double sample = samplePosterior(child.getVisitCount(), child.getTotalReward(), child.getVirtualLoss(), virtualLossPenalty, random);
+            if (sample > bestSample) {
+                bestSample = sample;
+                bestIndex = i;
+            }
+        }
+        return bestIndex;
+    }
+
+    /**
+     * Draws a value from the Beta posterior of a child, counting every pending virtual loss as a visit
+     * that lost the virtual loss penalty.
+     */
+    private double samplePosterior(int visitCount, double totalReward, int virtualLoss, double virtualLossPenalty, RandomGenerator random) {
+        int visits = visitCount + virtualLoss;
+        double successes = Math.max(0.0, Math.min(visits, totalReward - virtualLoss * virtualLossPenalty));
+        return sampleBeta(priorSuccesses + successes, priorFailures + visits - successes, random);
+    }
+
+    /**
+     * Draws a value from a Beta(alpha, beta) distribution as the ratio of two Gamma draws.
+     */
+    static double sampleBeta(double alpha, double beta, RandomGenerator random) {
+        double x = sampleGamma(alpha, random);
+        double y = sampleGamma(beta, random);
+        return x / (x + y);
+    }
+
+    /**
+     * Draws a value from a Gamma(shape, 1) distribution with the Marsaglia-Tsang method.
+     */
+    static double sampleGamma(double shape, RandomGenerator random) {
+        if (shape < 1.0) {
+            return sampleGamma(shape + 1.0, random) * Math.pow(random.nextDouble(), 1.0 / shape);
+        }
+        double d = shape - 1.0 / 3.0;
+        double c = 1.0 / Math.sqrt(9.0 * d);
+        while (true) {
+            double x = random.nextGaussian();
+            double v = 1.0 + c * x;
+            if (v <= 0) continue;
+            v = v * v * v;
+            double u = random.nextDouble();
+            if (u < 1.0 - 0.0331 * x * x * x * x || Math.log(u) < 0.5 * x * x + d * (1.0 - v + Math.log(v))) {
+                return d * v;
+            }
+        }
+    }
+}
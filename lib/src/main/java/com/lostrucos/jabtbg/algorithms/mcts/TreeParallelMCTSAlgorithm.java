@@ -0,0 +1,142 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.*;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Implements a tree-parallel version of the Monte Carlo Tree Search (MCTS) algorithm for games with perfect information.
+ * Several threads descend the same tree, each one with its own random generator split from the generator of the algorithm.
+ * Node statistics and virtual losses are updated without locks, and the children of a node are read without locks,
+ * but adding a child locks its parent for the time of the insertion.
+ * Since the threads interleave freely, searches are reproducible only with a single thread.
+ * Every node on the path of a pending iteration carries a virtual loss, so that the other threads
+ * are pushed towards different branches until the iteration is back-propagated.
+ */
+public class TreeParallelMCTSAlgorithm<E extends Action, T extends GameState<E>> extends MCTSAlgorithm<E, T> {
+
+    private static final double DEFAULT_VIRTUAL_LOSS = 1.0;
+
+    private final int numThreads;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Constructs a new TreeParallelMCTSAlgorithm backed by a dedicated pool of worker threads.
+     *
+     * @param numIterations       the total number of simulations to run, shared among the threads.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param numThreads          the number of threads descending the tree.
+     */
+    public TreeParallelMCTSAlgorithm(int numIterations, double explorationConstant, int numThreads) {
+        this(numIterations, explorationConstant, numThreads, DEFAULT_VIRTUAL_LOSS);
+    }
+
+    /**
+     * Constructs a new TreeParallelMCTSAlgorithm backed by a dedicated pool of worker threads.
+     *
+     * @param numIterations       the total number of simulations to run, shared among the threads.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param numThreads          the number of threads descending the tree.
+     * @param virtualLoss         the reward subtracted from a node for every thread currently descending through it.
+     */
+    public TreeParallelMCTSAlgorithm(int numIterations, double explorationConstant, int numThreads, double virtualLoss) {
+        this(SearchBudget.ofIterations(numIterations), explorationConstant, numThreads, virtualLoss);
+    }
+
+    /**
+     * Constructs a new TreeParallelMCTSAlgorithm that runs its threads on the given executor.
+     * The executor is not shut down by this algorithm.
+     *
+     * @param numIterations       the total number of simulations to run, shared among the threads.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param numThreads          the number of threads descending the tree.
+     * @param virtualLoss         the reward subtracted from a node for every thread currently descending through it.
+     * @param executor            the executor running the threads.
+     */
+    public TreeParallelMCTSAlgorithm(int numIterations, double explorationConstant, int numThreads, double virtualLoss, ExecutorService executor) {
+        this(SearchBudget.ofIterations(numIterations), explorationConstant, numThreads, virtualLoss, executor, false);
+    }
+
+    /**
+     * Constructs a new TreeParallelMCTSAlgorithm backed by a dedicated pool of worker threads,
+     * searching until any limit of the given budget is reached.
+     *
+     * @param searchBudget        the budget of every search, shared among the threads.
+     * @param explorationConstant the exploration constant used in UCB.
+     * @param numThreads          the number of threads descending the tree.
+     * @param virtualLoss         the reward subtracted from a node for every thread currently descending through it.
+     */
+    public TreeParallelMCTSAlgorithm(SearchBudget searchBudget, double explorationConstant, int numThreads, double virtualLoss) {
+        this(searchBudget, explorationConstant, numThreads, virtualLoss, MCTSWorkerPools.create(numThreads, "mcts-tree-worker"), true);
+    }
+
+    private TreeParallelMCTSAlgorithm(SearchBudget searchBudget, double explorationConstant, int numThreads, double virtualLoss, ExecutorService executor, boolean ownsExecutor) {
+        super(searchBudget, explorationConstant);
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1");
+        }
+        this.numThreads = numThreads;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        setVirtualLossPenalty(virtualLoss);
+    }
+
+    /**
+     * Lets every thread run iterations on the shared tree until the search budget is exhausted.
+     * With a leaf evaluator, every thread collects and evaluates its own batches of leaves.
+     * The threads also stop when the node capacity is reached, since the tree can't be pruned while they descend it.
+     *
+     * @param startTime the value of {@link System#nanoTime()} when the search started.
+     * @return the number of completed iterations.
+     */
+    @Override
+    int runSearch(long startTime) {
+        SearchBudget searchBudget = getSearchBudget();
+        AtomicInteger startedIterations = new AtomicInteger();
+        AtomicInteger completedIterations = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            SplittableRandom threadRandom = getRandom().split();
+            BooleanSupplier canStartIteration = () -> !getRootNode().isSolved() && getNodeCount() < getNodeCapacity()
+                    && searchBudget.allowsIteration(startedIterations.getAndIncrement(), getNodeCount(), System.nanoTime() - startTime);
+            futures.add(executor.submit(() -> {
+                if (getLeafEvaluator() != null) {
+                    int batchIterations;
+                    while ((batchIterations = runBatch(threadRandom, canStartIteration)) > 0) {
+                        completedIterations.addAndGet(batchIterations);
+                    }
+                    return;
+                }
+                while (canStartIteration.getAsBoolean()) {
+                    runIteration(threadRandom);
+                    completedIterations.incrementAndGet();
+                }
+            }));
+        }
+        MCTSWorkerPools.awaitAll(futures);
+        return completedIterations.get();
+    }
+
+    /**
+     * Stops the worker pool if it was created by this algorithm.
+     */
+    public void shutdown() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the number of threads descending the tree.
+     *
+     * @return the number of worker threads.
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+}
@@ -0,0 +1,37 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents the policy used to descend the tree during the selection step of the Monte Carlo Tree Search.
+ * Given a fully expanded node, a tree policy balances the exploitation of the children with the best statistics
+ * against the exploration of the less visited ones.
+ */
+public interface TreePolicy<T extends GameState<E>, E extends Action> {
+
+    /**
+     * Selects the child of the given node to descend into.
+     * Pending virtual losses must be counted as visits that lost the given amount of reward,
+     * so that concurrent searches are spread across different branches.
+     * Children whose value is proven by the MCTS-Solver must be skipped, since searching them is wasted.
+     *
+     * @param node               the node whose children are evaluated, with at least one child.
+     * @param virtualLossPenalty the reward subtracted for every pending virtual loss.
+     * @param random             the random generator of the thread running the search.
+     * @return the selected child, or null if the value of every child is proven.
+     */
+    MCTSNode<T, E> selectChild(MCTSNode<T, E> node, double virtualLossPenalty, RandomGenerator random);
+
+    /**
+     * Tells whether this policy reads the all-moves-as-first statistics of the nodes,
+     * so that the search records the actions played in every iteration to update them.
+     *
+     * @return true if the policy uses AMAF statistics, false otherwise.
+     */
+    default boolean usesAmafStatistics() {
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Implements the UCB1 tree policy, which selects the child maximizing {@code Q + c * sqrt(ln(N) / n)}.
+ * This is the policy used by default by the Monte Carlo Tree Search algorithms.
+ * Under ISMCTS, {@code N} is the availability count of the child.
+ */
+public class UCB1Policy<T extends GameState<E>, E extends Action> implements TreePolicy<T, E>, ISMCTSTreePolicy<T, E> {
+    private final double explorationConstant;
+
+    /**
+     * Constructs a new UCB1Policy.
+     *
+     * @param explorationConstant the exploration constant.
+     */
+    public UCB1Policy(double explorationConstant) {
+        this.explorationConstant = explorationConstant;
+    }
+
+    @Override
+    public MCTSNode<T, E> selectChild(MCTSNode<T, E> node, double virtualLossPenalty, RandomGenerator random) {
+        return node.selectChild(explorationConstant, virtualLossPenalty);
+    }
+
+    @Override
+    public int selectAction(ISMCTSNode<E> node, T state, List<E> legalActions, double virtualLossPenalty, RandomGenerator random) {
+        int bestIndex = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < legalActions.size(); i++) {
+            ISMCTSNode<E> child = node.getChild(legalActions.get(i));
+            int childVirtualLoss = child.getVirtualLoss();
+            int childVisits = child.getVisitCount() + childVirtualLoss;
+            if (childVisits == 0) return i;
+            double exploitation = (child.getTotalReward() - childVirtualLoss * virtualLossPenalty) / childVisits;
+            double exploration = explorationConstant * UCBMath.sqrtLog(Math.max(1, child.getAvailabilityCount())) * UCBMath.inverseSqrt(childVisits);
+            double value = exploitation + exploration;
+            if (value > bestValue) {
+                bestValue = value;
+                bestIndex = i;
+            }
+        }
+        return bestIndex;
+    }
+
+    /**
+     * Gets the exploration constant.
+     *
+     * @return the exploration constant.
+     */
+    public double getExplorationConstant() {
+        return explorationConstant;
+    }
+}
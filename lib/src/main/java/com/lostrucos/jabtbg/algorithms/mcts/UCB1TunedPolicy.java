@@ -0,0 +1,72 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Implements the UCB1-Tuned tree policy, which replaces the fixed exploration constant of UCB1
+ * with an upper bound on the variance of the rewards of every child:
+ * {@code Q + sqrt(ln(N) / n * min(1/4, V))}, where {@code V = mean(X^2) - Q^2 + sqrt(2 * ln(N) / n)}.
+ * Children whose rewards are consistent are explored less, so the search needs fewer iterations.
+ * The 1/4 bound assumes rewards in [0, 1]. Under ISMCTS, {@code N} is the availability count of the child.
+ */
+public class UCB1TunedPolicy<T extends GameState<E>, E extends Action> implements TreePolicy<T, E>, ISMCTSTreePolicy<T, E> {
+    private static final double MAX_BERNOULLI_VARIANCE = 0.25;
+
+    @Override
+    public MCTSNode<T, E> selectChild(MCTSNode<T, E> node, double virtualLossPenalty, RandomGenerator random) {
+        MCTSNode.Children<T, E> children = node.getChildren();
+        if (children.size == 0) {
+            throw new IllegalStateException("No children to select");
+        }
+        double logParentVisits = Math.log(node.getVisitCount() + node.getVirtualLoss());
+        MCTSNode<T, E> bestChild = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < children.size; i++) {
+            MCTSNode<T, E> child = children.nodes[i];
+            if (child.isSolved()) continue;
+            int childVirtualLoss = child.getVirtualLoss();
+            int childVisits = child.getVisitCount() + childVirtualLoss;
+            if (childVisits == 0) {
+                return child;
+            }
+            double penalty = childVirtualLoss * virtualLossPenalty;
+            double value = tunedValue(child.getTotalReward() - penalty, child.getTotalSquaredReward() + penalty * virtualLossPenalty,
+                    childVisits, logParentVisits);
+            if (value > bestValue) {
+                bestValue = value;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    @Override
+    public int selectAction(ISMCTSNode<E> node, T state, List<E> legalActions, double virtualLossPenalty, RandomGenerator random) {
+        int bestIndex = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < legalActions.size(); i++) {
+            ISMCTSNode<E> child = node.getChild(legalActions.get(i));
+            int childVirtualLoss = child.getVirtualLoss();
+            int childVisits = child.getVisitCount() + childVirtualLoss;
+            if (childVisits == 0) return i;
+            double penalty = childVirtualLoss * virtualLossPenalty;
+            double value = tunedValue(child.getTotalReward() - penalty, child.getTotalSquaredReward() + penalty * virtualLossPenalty,
+                    childVisits, Math.log(Math.max(1, child.getAvailabilityCount())));
+            if (value > bestValue) {
+                bestValue = value;
+                bestIndex = i;
+            }
+        }
+        return bestIndex;
+    }
+
+    private static double tunedValue(double totalReward, double totalSquaredReward, int visits, double logParentVisits) {
+        double mean = totalReward / visits;
+        double varianceBound = totalSquaredReward / visits - mean * mean + Math.sqrt(2 * logParentVisits / visits);
+        return mean + Math.sqrt(logParentVisits / visits * Math.min(MAX_BERNOULLI_VARIANCE, varianceBound));
+    }
+}
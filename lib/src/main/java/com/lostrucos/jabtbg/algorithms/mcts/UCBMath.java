@@ -0,0 +1,44 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+/**
+ * Math helpers for the UCB formula, backed by lookup tables for small visit counts.
+ * The UCB exploration term {@code sqrt(ln(N) / n)} is split into {@code sqrt(ln(N)) * 1 / sqrt(n)},
+ * so that the parent term is computed once per selection and every child only costs a multiplication.
+ * The size of the tables is read from the {@code jabtbg.ucb.tableSize} system property (default 65536);
+ * a size of zero disables the tables.
+ */
+public final class UCBMath {
+    private static final int TABLE_SIZE = Math.max(0, Integer.getInteger("jabtbg.ucb.tableSize", 1 << 16));
+    private static final double[] SQRT_LOG = new double[TABLE_SIZE];
+    private static final double[] INVERSE_SQRT = new double[TABLE_SIZE];
+
+    static {
+        for (int n = 1; n < TABLE_SIZE; n++) {
+            SQRT_LOG[n] = Math.sqrt(Math.log(n));
+            INVERSE_SQRT[n] = 1.0 / Math.sqrt(n);
+        }
+    }
+
+    private UCBMath() {
+    }
+
+    /**
+     * Computes the square root of the natural logarithm of the given visit count.
+     *
+     * @param visits the visit count, at least 1.
+     * @return {@code sqrt(ln(visits))}.
+     */
+    public static double sqrtLog(int visits) {
+        return visits < TABLE_SIZE ? SQRT_LOG[visits] : Math.sqrt(Math.log(visits));
+    }
+
+    /**
+     * Computes the inverse of the square root of the given visit count.
+     *
+     * @param visits the visit count, at least 1.
+     * @return {@code 1 / sqrt(visits)}.
+     */
+    public static double inverseSqrt(int visits) {
+        return visits < TABLE_SIZE ? INVERSE_SQRT[visits] : 1.0 / Math.sqrt(visits);
+    }
+}
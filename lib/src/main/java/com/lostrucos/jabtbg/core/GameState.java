@@ -44,6 +44,18 @@ public interface GameState<E extends Action> {
      */
     GameState<E> deepCopy();
 
+    /**
+     * Creates a deep copy of the given game state, with the same type as the state.
+     * Every implementation of {@link #deepCopy()} must return an instance of its own class, which makes the cast safe.
+     *
+     * @param state the game state to copy.
+     * @return the cloned game state.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends GameState<?>> T copyOf(T state) {
+        return (T) state.deepCopy();
+    }
+
     /**
      * Method that returns a list of all the available actions in this game state for the given player
      *
@@ -20,6 +20,15 @@ public interface Player<T extends GameState<E>, E extends Action> {
      */
     E getAction(T state);
 
+    /**
+     * Notifies the agent that an action has been taken, by any player, so that it can update its internal state.
+     *
+     * @param state  the new state of the game.
+     * @param action the action that was taken.
+     */
+    default void updateAfterAction(T state, E action) {
+    }
+
     /**
      * Returns a representation of the agent.
      *
@@ -1,5 +1,7 @@
 package com.lostrucos.jabtbg.tris;
 
+import java.util.Arrays;
+
 /**
  * This class represent the board in the game of tic-tac-toe
  */
@@ -48,5 +50,28 @@ public class Board {
         this.board[x][y] = symbol;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Board that)) return false;
+        return Arrays.deepEquals(board, that.board);
+    }
+
+    /**
+     * Returns a hash code that encodes every cell in base 3, so that different boards never share the same hash code.
+     *
+     * @return the hash code of the board
+     */
+    @Override
+    public int hashCode() {
+        int code = 0;
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                code = code * 3 + board[i][j].ordinal();
+            }
+        }
+        return code;
+    }
+
 
 }
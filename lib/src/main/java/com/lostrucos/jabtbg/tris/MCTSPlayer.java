@@ -1,5 +1,6 @@
 package com.lostrucos.jabtbg.tris;
 
+import com.lostrucos.jabtbg.algorithms.mcts.MCTSAlgorithm;
 import com.lostrucos.jabtbg.core.Player;
 import com.lostrucos.jabtbg.core.Algorithm;
 import com.lostrucos.jabtbg.core.Strategy;
@@ -14,6 +15,19 @@ public class MCTSPlayer implements Player<TrisGameState, TrisAction> {
         this.algorithm.setStrategy(strategy);
     }
 
+    /**
+     * Enables or disables pondering, so that the algorithm keeps searching while the opponent is thinking.
+     *
+     * @param pondering true to enable pondering, false to disable it.
+     * @throws IllegalStateException if the algorithm doesn't support pondering.
+     */
+    public void setPondering(boolean pondering) {
+        if (!(algorithm instanceof MCTSAlgorithm<TrisAction, TrisGameState> mcts)) {
+            throw new IllegalStateException("Pondering requires an MCTSAlgorithm");
+        }
+        mcts.setPondering(pondering);
+    }
+
     @Override
     public int getPlayerIndex() {
         return id;
@@ -21,7 +35,11 @@ public class MCTSPlayer implements Player<TrisGameState, TrisAction> {
 
     @Override
     public TrisAction getAction(TrisGameState state) {
-        algorithm.initialize(state);
         return algorithm.chooseAction(state);
     }
+
+    @Override
+    public void updateAfterAction(TrisGameState state, TrisAction action) {
+        algorithm.updateAfterAction(state, action);
+    }
 }
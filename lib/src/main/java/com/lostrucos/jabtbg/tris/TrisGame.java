@@ -38,6 +38,9 @@ public class TrisGame extends AbstractGame<TrisGameState, TrisAction> implements
             currentPlayer = currentState.getCurrentPlayer();
             TrisAction action = players.get(currentPlayer).getAction(currentState);
             currentState = this.getNextState(currentState, action);
+            for (com.lostrucos.jabtbg.core.Player<TrisGameState, TrisAction> player : players) {
+                player.updateAfterAction(currentState, action);
+            }
             System.out.println();
             currentState.getBoard().display();
         } while (!currentState.isTerminalNode());
@@ -4,6 +4,7 @@ import com.lostrucos.jabtbg.core.GameState;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * This class represent a tic-tac-toe game state.
@@ -216,4 +217,16 @@ public class TrisGameState implements GameState<TrisAction> {
     public double getUtility(int playerIndex) {
         return utilityStrategy.calculateUtility(this, playerIndex);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TrisGameState that)) return false;
+        return currentPlayer == that.currentPlayer && board.equals(that.board);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(board, currentPlayer);
+    }
 }
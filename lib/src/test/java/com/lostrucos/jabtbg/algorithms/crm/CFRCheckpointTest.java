@@ -0,0 +1,184 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnAction;
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnInformationSet;
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CFRCheckpointTest {
+    private static final KuhnPoker GAME = new KuhnPoker();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRestoredTrainingMatchesAnUninterruptedOne() {
+        CFRMAlgorithm<KuhnState, KuhnAction> uninterrupted = newAlgorithm();
+        trainOnEveryDeal(uninterrupted, 200);
+
+        CFRCheckpoint<KuhnState, KuhnAction> checkpoint = new CFRCheckpoint<>(directory.resolve("kuhn.cfr"), KuhnPoker.KEY);
+        CFRMAlgorithm<KuhnState, KuhnAction> interrupted = newAlgorithm();
+        trainOnEveryDeal(interrupted, 100);
+        checkpoint.save(interrupted);
+        CFRMAlgorithm<KuhnState, KuhnAction> resumed = newAlgorithm();
+        assertTrue(checkpoint.restore(resumed));
+        assertEquals(interrupted.getIteration(), resumed.getIteration());
+        trainOnEveryDeal(resumed, 100);
+
+        assertEquals(uninterrupted.getIteration(), resumed.getIteration());
+        CFRTables<KuhnState, KuhnAction> expected = uninterrupted.getTables();
+        CFRTables<KuhnState, KuhnAction> actual = resumed.getTables();
+        assertEquals(expected.size(), actual.size());
+        for (int id = 0; id < expected.size(); id++) {
+            int actualId = actual.getId(expected.getInformationSet(id));
+            for (int action = 0; action < expected.getActionCount(id); action++) {
+                assertEquals(expected.getRegret(id, action), actual.getRegret(actualId, action),
+                        1e-9 * Math.max(1.0, Math.abs(expected.getRegret(id, action))));
+                assertEquals(expected.getStrategySum(id, action), actual.getStrategySum(actualId, action),
+                        1e-9 * Math.max(1.0, expected.getStrategySum(id, action)));
+            }
+        }
+    }
+
+    @Test
+    public void testRestoredValuesArePlayedBeforeBeingReachedAgain() {
+        CFRMAlgorithm<KuhnState, KuhnAction> trained = newAlgorithm();
+        trainOnEveryDeal(trained, 100);
+        CFRCheckpoint<KuhnState, KuhnAction> checkpoint = new CFRCheckpoint<>(directory.resolve("kuhn.cfr"), KuhnPoker.KEY);
+        checkpoint.save(trained);
+
+        CFRMAlgorithm<KuhnState, KuhnAction> restored = newAlgorithm();
+        checkpoint.restore(restored);
+
+        assertEquals(0, restored.getTables().size());
+        assertPoliciesAgree(trained.getPolicy(), restored.getPolicy());
+        KuhnInformationSet informationSet = new KuhnInformationSet(0, 2, "");
+        assertEquals(trained.getAverageStrategy(informationSet), restored.getAverageStrategy(informationSet));
+    }
+
+    @Test
+    public void testMappedPolicyMatchesTheHeapPolicy() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = newAlgorithm();
+        trainOnEveryDeal(algorithm, 100);
+        Path policyPath = directory.resolve("kuhn.policy");
+        new CFRCheckpoint<>(directory.resolve("kuhn.cfr"), KuhnPoker.KEY).exportPolicy(algorithm, policyPath);
+
+        assertPoliciesAgree(algorithm.getPolicy(), new MappedAverageStrategyPolicy<>(policyPath, KuhnPoker.KEY));
+    }
+
+    @Test
+    public void testTruncatedCheckpointIsRejected() throws IOException {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = newAlgorithm();
+        trainOnEveryDeal(algorithm, 10);
+        Path path = directory.resolve("kuhn.cfr");
+        CFRCheckpoint<KuhnState, KuhnAction> checkpoint = new CFRCheckpoint<>(path, KuhnPoker.KEY);
+        checkpoint.save(algorithm);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - Double.BYTES);
+        }
+
+        CFRMAlgorithm<KuhnState, KuhnAction> restored = newAlgorithm();
+        assertThrows(IllegalArgumentException.class, () -> checkpoint.restore(restored));
+        assertEquals(0, restored.getIteration());
+    }
+
+    @Test
+    public void testCorruptCountIsRejected() throws IOException {
+        Path path = directory.resolve("kuhn.cfr");
+        ByteBuffer header = ByteBuffer.allocate(CFRCheckpoint.CHECKPOINT_HEADER_BYTES)
+                .putInt(CFRCheckpoint.CHECKPOINT_MAGIC).putInt(CFRCheckpoint.CHECKPOINT_VERSION).putInt(1)
+                .putInt(CFRSampling.FULL_TRAVERSAL.ordinal());
+        CFRVariant.discounted().write(header);
+        header.putInt(Integer.MAX_VALUE);
+        Files.write(path, header.array());
+
+        CFRCheckpoint<KuhnState, KuhnAction> checkpoint = new CFRCheckpoint<>(path, KuhnPoker.KEY);
+        assertThrows(IllegalArgumentException.class, () -> checkpoint.restore(newAlgorithm()));
+    }
+
+    @Test
+    public void testCheckpointOfAnotherVariantOrSamplingIsRejected() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = newAlgorithm();
+        trainOnEveryDeal(algorithm, 10);
+        CFRCheckpoint<KuhnState, KuhnAction> checkpoint = new CFRCheckpoint<>(directory.resolve("kuhn.cfr"), KuhnPoker.KEY);
+        checkpoint.save(algorithm);
+
+        CFRMAlgorithm<KuhnState, KuhnAction> otherVariant = newAlgorithm();
+        otherVariant.setVariant(CFRVariant.cfrPlus());
+        assertThrows(IllegalArgumentException.class, () -> checkpoint.restore(otherVariant));
+        CFRMAlgorithm<KuhnState, KuhnAction> otherParameters = newAlgorithm();
+        otherParameters.setVariant(CFRVariant.discounted(1.5, 0.5, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> checkpoint.restore(otherParameters));
+        CFRMAlgorithm<KuhnState, KuhnAction> otherSampling = newAlgorithm();
+        otherSampling.setSampling(CFRSampling.EXTERNAL);
+        assertThrows(IllegalArgumentException.class, () -> checkpoint.restore(otherSampling));
+        assertEquals(0, otherSampling.getIteration());
+        CFRMAlgorithm<KuhnState, KuhnAction> sameRules = newAlgorithm();
+        sameRules.setVariant(CFRVariant.discounted(1.5, 0.0, 2.0));
+        assertTrue(checkpoint.restore(sameRules));
+    }
+
+    @Test
+    public void testCorruptPolicyHeaderIsRejected() throws IOException {
+        Path policyPath = directory.resolve("kuhn.policy");
+        for (int[] header : new int[][]{{3, 1}, {0, 0}, {4, 4}, {4, -1}}) {
+            int slotBytes = Math.max(0, header[0]) * MappedAverageStrategyPolicy.SLOT_BYTES;
+            ByteBuffer buffer = ByteBuffer.allocate(MappedAverageStrategyPolicy.HEADER_BYTES + slotBytes)
+                    .putInt(CFRCheckpoint.POLICY_MAGIC).putInt(CFRCheckpoint.POLICY_VERSION)
+                    .putInt(header[0]).putInt(header[1]).putInt(0).putInt(0);
+            Files.write(policyPath, buffer.array());
+
+            assertThrows(IllegalArgumentException.class, () -> new MappedAverageStrategyPolicy<>(policyPath, KuhnPoker.KEY));
+        }
+    }
+
+    @Test
+    public void testRestoredValuesWithAnotherActionCountAreRejected() {
+        KuhnInformationSet informationSet = new KuhnInformationSet(0, 2, "");
+        CFRTables<KuhnState, KuhnAction> tables = new CFRTables<>();
+        tables.restore(KuhnPoker.KEY, Map.of(KuhnPoker.KEY.getKey(informationSet), new double[6]));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> tables.intern(informationSet, informationSet.getPlayerActions(0)));
+        assertEquals(0, tables.size());
+    }
+
+    private static CFRMAlgorithm<KuhnState, KuhnAction> newAlgorithm() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = new CFRMAlgorithm<>(GAME, 1, 1.0);
+        algorithm.setVariant(CFRVariant.discounted());
+        return algorithm;
+    }
+
+    private static void trainOnEveryDeal(CFRMAlgorithm<KuhnState, KuhnAction> algorithm, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            for (KuhnState deal : KuhnPoker.deals()) {
+                algorithm.train(deal);
+            }
+        }
+    }
+
+    private static void assertPoliciesAgree(CFRPolicy<KuhnState, KuhnAction> expected, CFRPolicy<KuhnState, KuhnAction> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int player = 0; player < 2; player++) {
+            for (int card = 0; card < 3; card++) {
+                for (String history : new String[]{"", "p", "b", "pb"}) {
+                    KuhnInformationSet informationSet = new KuhnInformationSet(player, card, history);
+                    for (KuhnAction action : informationSet.getPlayerActions(player)) {
+                        assertEquals(expected.getProbability(informationSet, action), actual.getProbability(informationSet, action), 1e-12);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnAction;
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnState;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CFRConvergenceTest {
+    private static final KuhnPoker GAME = new KuhnPoker();
+
+    @Test
+    public void testVanillaCFRConvergesOnKuhnPoker() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = new CFRMAlgorithm<>(GAME, 1, 1.0);
+
+        trainOnEveryDeal(algorithm, 1000);
+
+        CFRPolicy<KuhnState, KuhnAction> policy = algorithm.getPolicy();
+        assertEquals(12, policy.size());
+        assertEquals(KuhnPoker.GAME_VALUE, KuhnPoker.expectedValue(policy), 0.01);
+        assertTrue(KuhnPoker.exploitability(policy) < 0.01);
+    }
+
+    @Test
+    public void testCFRPlusConvergesOnKuhnPoker() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = new CFRMAlgorithm<>(GAME, 1, 1.0);
+        algorithm.setVariant(CFRVariant.cfrPlus());
+
+        trainOnEveryDeal(algorithm, 1000);
+
+        CFRPolicy<KuhnState, KuhnAction> policy = algorithm.getPolicy();
+        assertEquals(KuhnPoker.GAME_VALUE, KuhnPoker.expectedValue(policy), 0.01);
+        assertTrue(KuhnPoker.exploitability(policy) < 0.01);
+        for (int id = 0; id < algorithm.getTables().size(); id++) {
+            for (int action = 0; action < algorithm.getTables().getActionCount(id); action++) {
+                assertTrue(algorithm.getTables().getRegret(id, action) >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void testDiscountedCFRConvergesOnKuhnPoker() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = new CFRMAlgorithm<>(GAME, 1, 1.0);
+        algorithm.setVariant(CFRVariant.discounted());
+
+        trainOnEveryDeal(algorithm, 1000);
+
+        CFRPolicy<KuhnState, KuhnAction> policy = algorithm.getPolicy();
+        assertEquals(KuhnPoker.GAME_VALUE, KuhnPoker.expectedValue(policy), 0.01);
+        assertTrue(KuhnPoker.exploitability(policy) < 0.01);
+    }
+
+    @Test
+    public void testExternalSamplingConvergesOnKuhnPoker() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = new CFRMAlgorithm<>(GAME, 1, 1.0);
+        algorithm.setSampling(CFRSampling.EXTERNAL);
+
+        trainOnSampledDeals(algorithm, 20000);
+
+        CFRPolicy<KuhnState, KuhnAction> policy = algorithm.getPolicy();
+        assertEquals(KuhnPoker.GAME_VALUE, KuhnPoker.expectedValue(policy), 0.01);
+        assertTrue(KuhnPoker.exploitability(policy) < 0.02);
+    }
+
+    @Test
+    public void testOutcomeSamplingConvergesOnKuhnPoker() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = new CFRMAlgorithm<>(GAME, 1, 1.0);
+        algorithm.setSampling(CFRSampling.OUTCOME);
+
+        trainOnSampledDeals(algorithm, 100000);
+
+        CFRPolicy<KuhnState, KuhnAction> policy = algorithm.getPolicy();
+        assertEquals(KuhnPoker.GAME_VALUE, KuhnPoker.expectedValue(policy), 0.01);
+        assertTrue(KuhnPoker.exploitability(policy) < 0.03);
+    }
+
+    private static void trainOnEveryDeal(CFRMAlgorithm<KuhnState, KuhnAction> algorithm, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            for (KuhnState deal : KuhnPoker.deals()) {
+                algorithm.train(deal);
+            }
+        }
+    }
+
+    private static void trainOnSampledDeals(CFRMAlgorithm<KuhnState, KuhnAction> algorithm, int iterations) {
+        algorithm.setSeed(1);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < iterations; i++) {
+            algorithm.train(KuhnPoker.deal(random));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnAction;
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CFRMAgentTest {
+    private static final KuhnPoker GAME = new KuhnPoker();
+
+    @Test
+    public void testUntrainedAgentDoesNotPlay() {
+        CFRMAgent<KuhnState, KuhnAction> agent = new CFRMAgent<>(0, GAME, 10);
+
+        assertThrows(IllegalStateException.class, () -> agent.getAction(new KuhnState(2, 0)));
+        assertNull(agent.getPolicy());
+    }
+
+    @Test
+    public void testTrainedAgentPlaysTheFrozenPolicy() {
+        CFRMAgent<KuhnState, KuhnAction> agent = new CFRMAgent<>(0, GAME, 10);
+        agent.train(new KuhnState(2, 0));
+        CFRPolicy<KuhnState, KuhnAction> policy = agent.getPolicy();
+
+        KuhnAction action = agent.getAction(new KuhnState(2, 0));
+
+        assertEquals(0, action.getPlayer());
+        assertSame(policy, agent.getPolicy());
+    }
+
+    @Test
+    public void testAgentWithOfflinePolicyCannotTrain() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = new CFRMAlgorithm<>(GAME, 10, 1.0);
+        algorithm.train(new KuhnState(2, 0));
+        CFRMAgent<KuhnState, KuhnAction> agent = new CFRMAgent<>(0, GAME, algorithm.getPolicy());
+
+        assertNotNull(agent.getAction(new KuhnState(2, 0)));
+        assertThrows(IllegalStateException.class, () -> agent.train(new KuhnState(2, 0)));
+    }
+
+    @Test
+    public void testUpdateAfterActionDoesNotTrain() {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = new CFRMAlgorithm<>(GAME, 10, 1.0);
+
+        algorithm.updateAfterAction(new KuhnState(2, 0), new KuhnAction(0, 'b'));
+
+        assertEquals(0, algorithm.getIteration());
+        assertEquals(0, algorithm.getTables().size());
+    }
+}
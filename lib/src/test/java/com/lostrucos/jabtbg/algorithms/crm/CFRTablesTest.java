@@ -0,0 +1,71 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnAction;
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnInformationSet;
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CFRTablesTest {
+    private static final List<KuhnAction> ACTIONS = List.of(new KuhnAction(0, 'p'), new KuhnAction(0, 'b'));
+
+    private CFRTables<KuhnState, KuhnAction> tables;
+    private int id;
+
+    @BeforeEach
+    public void setUp() {
+        tables = new CFRTables<>();
+        id = tables.intern(new KuhnInformationSet(0, 0, ""), ACTIONS);
+        tables.addRegret(id, 0, 4.0);
+        tables.addRegret(id, 1, -2.0);
+        tables.addStrategy(id, new double[]{0.25, 0.75}, 8.0);
+    }
+
+    @Test
+    public void testActionsAreListedAgainByTheInformationSet() {
+        KuhnInformationSet informationSet = new KuhnInformationSet(1, 2, "b");
+
+        int otherId = tables.intern(informationSet, informationSet.getPlayerActions(1));
+
+        assertEquals(informationSet.getPlayerActions(1), tables.getActions(otherId));
+        assertEquals(ACTIONS, tables.getActions(id));
+        assertEquals(2, tables.getActionCount(otherId));
+    }
+
+    @Test
+    public void testPendingDiscountsAreAppliedTogether() {
+        tables.discount(0.5, 0.25, 0.5);
+        tables.discount(0.5, 0.5, 0.25);
+
+        assertEquals(1.0, tables.getRegret(id, 0), 1e-12);
+        assertEquals(-0.25, tables.getRegret(id, 1), 1e-12);
+        assertEquals(0.25, tables.getStrategySum(id, 0), 1e-12);
+        assertEquals(0.75, tables.getStrategySum(id, 1), 1e-12);
+    }
+
+    @Test
+    public void testFlooringIsAppliedBeforeTheNextUpdate() {
+        tables.floorRegrets();
+        tables.floorRegrets();
+        tables.addRegret(id, 1, -1.0);
+
+        assertEquals(4.0, tables.getRegret(id, 0), 1e-12);
+        assertEquals(-1.0, tables.getRegret(id, 1), 1e-12);
+        tables.floorRegrets();
+        assertEquals(0.0, tables.getRegret(id, 1), 1e-12);
+    }
+
+    @Test
+    public void testInformationSetsInternedLaterMissEarlierDiscounts() {
+        tables.discount(0.5, 0.5, 0.5);
+        int laterId = tables.intern(new KuhnInformationSet(0, 1, ""), ACTIONS);
+        tables.addRegret(laterId, 0, 4.0);
+
+        assertEquals(4.0, tables.getRegret(laterId, 0), 1e-12);
+        assertEquals(2.0, tables.getRegret(id, 0), 1e-12);
+    }
+}
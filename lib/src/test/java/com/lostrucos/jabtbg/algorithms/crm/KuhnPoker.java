@@ -0,0 +1,238 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.core.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Kuhn poker, the smallest poker game, used to check that the CFR trainers converge to a Nash equilibrium.
+ * Each player antes 1 and is dealt one of three cards; player 0 then passes or bets 1, and the game goes on
+ * until both players pass, one player folds to a bet, or a bet is called and the higher card wins the pot.
+ * The deal is fixed by the state, so the trainers iterate over every deal, or sample one per iteration.
+ * The game value for player 0 is -1/18.
+ */
+final class KuhnPoker implements Game<KuhnPoker.KuhnState, KuhnPoker.KuhnAction> {
+    static final double GAME_VALUE = -1.0 / 18;
+    static final InformationSetKey<KuhnState, KuhnAction> KEY = informationSet -> {
+        KuhnInformationSet kuhnInformationSet = (KuhnInformationSet) informationSet;
+        return ((long) kuhnInformationSet.player() << 40) | ((long) kuhnInformationSet.card() << 32)
+                | kuhnInformationSet.history().hashCode() & 0xFFFFFFFFL;
+    };
+
+    private static final char PASS = 'p';
+    private static final char BET = 'b';
+
+    record KuhnAction(int player, char move) implements Action {
+        @Override
+        public int getPlayer() {
+            return player;
+        }
+    }
+
+    static final class KuhnState implements GameState<KuhnAction> {
+        private final int[] cards;
+        private String history;
+
+        KuhnState(int card0, int card1) {
+            this(new int[]{card0, card1}, "");
+        }
+
+        private KuhnState(int[] cards, String history) {
+            this.cards = cards;
+            this.history = history;
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return history.length() % 2;
+        }
+
+        @Override
+        public boolean isTerminalNode() {
+            return history.equals("pp") || history.equals("bp") || history.equals("bb")
+                    || history.equals("pbp") || history.equals("pbb");
+        }
+
+        @Override
+        public boolean isTie() {
+            return false;
+        }
+
+        @Override
+        public GameState<KuhnAction> applyAction(KuhnAction action) {
+            history += action.move();
+            return this;
+        }
+
+        @Override
+        public GameState<KuhnAction> deepCopy() {
+            return new KuhnState(cards, history);
+        }
+
+        @Override
+        public List<KuhnAction> getAvailableActions(int playerIndex) {
+            return actions(playerIndex);
+        }
+
+        @Override
+        public double getUtility(int playerIndex) {
+            double utility;
+            if (history.equals("bp")) {
+                utility = 1;
+            } else if (history.equals("pbp")) {
+                utility = -1;
+            } else {
+                int pot = history.equals("pp") ? 1 : 2;
+                utility = cards[0] > cards[1] ? pot : -pot;
+            }
+            return playerIndex == 0 ? utility : -utility;
+        }
+
+        @Override
+        public List<Integer> getPlayersInGame() {
+            return List.of(0, 1);
+        }
+
+        @Override
+        public boolean isPlayerStillInGame(int player) {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return cards[0] + "" + cards[1] + ":" + history;
+        }
+    }
+
+    record KuhnInformationSet(int player, int card, String history) implements InformationSet<KuhnState, KuhnAction> {
+        @Override
+        public int getPlayerIndex() {
+            return player;
+        }
+
+        @Override
+        public KuhnState determinePseudoState() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<KuhnState> getPossibleStates() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<KuhnAction> getPlayerActions(int playerIndex) {
+            return actions(playerIndex);
+        }
+
+        @Override
+        public InformationSet<KuhnState, KuhnAction> getNextInformationSet(KuhnAction action) {
+            return new KuhnInformationSet(player, card, history + action.move());
+        }
+
+        @Override
+        public boolean isTerminal() {
+            return false;
+        }
+    }
+
+    @Override
+    public KuhnState getNextState(KuhnState state, KuhnAction action) {
+        state.applyAction(action);
+        return state;
+    }
+
+    @Override
+    public int getCurrentPlayer() {
+        return 0;
+    }
+
+    @Override
+    public InformationSet<KuhnState, KuhnAction> getInformationSet(int playerIndex, KuhnState gameState) {
+        return new KuhnInformationSet(playerIndex, gameState.cards[playerIndex], gameState.history);
+    }
+
+    private static List<KuhnAction> actions(int playerIndex) {
+        return List.of(new KuhnAction(playerIndex, PASS), new KuhnAction(playerIndex, BET));
+    }
+
+    /**
+     * Lists the six deals of the game.
+     */
+    static List<KuhnState> deals() {
+        List<KuhnState> deals = new ArrayList<>();
+        for (int card0 = 0; card0 < 3; card0++) {
+            for (int card1 = 0; card1 < 3; card1++) {
+                if (card0 != card1) deals.add(new KuhnState(card0, card1));
+            }
+        }
+        return deals;
+    }
+
+    /**
+     * Deals a random pair of cards.
+     */
+    static KuhnState deal(RandomGenerator random) {
+        return deals().get(random.nextInt(6));
+    }
+
+    /**
+     * Computes how much a best response gains against the given policy played by both players, on average over the players.
+     * It is zero at a Nash equilibrium. The best responses are found by enumerating the pure strategies of every player.
+     */
+    static double exploitability(CFRPolicy<KuhnState, KuhnAction> policy) {
+        return (bestResponseValue(0, policy) + bestResponseValue(1, policy)) / 2;
+    }
+
+    /**
+     * Computes the expected utility of player 0 when both players play the given policy.
+     */
+    static double expectedValue(CFRPolicy<KuhnState, KuhnAction> policy) {
+        double value = 0;
+        for (KuhnState deal : deals()) {
+            value += value(deal, policy, -1, 0) / 6;
+        }
+        return value;
+    }
+
+    private static double bestResponseValue(int player, CFRPolicy<KuhnState, KuhnAction> policy) {
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int pureStrategy = 0; pureStrategy < 1 << 6; pureStrategy++) {
+            double value = 0;
+            for (KuhnState deal : deals()) {
+                value += value(deal, policy, player, pureStrategy) / 6;
+            }
+            bestValue = Math.max(bestValue, player == 0 ? value : -value);
+        }
+        return bestValue;
+    }
+
+    /**
+     * Computes the expected utility of player 0 from the given state, when the given player bets in the information sets
+     * of the bits set in the pure strategy, and the other players play the policy.
+     */
+    private static double value(KuhnState state, CFRPolicy<KuhnState, KuhnAction> policy, int purePlayer, int pureStrategy) {
+        if (state.isTerminalNode()) {
+            return state.getUtility(0);
+        }
+        int player = state.getCurrentPlayer();
+        KuhnInformationSet informationSet = new KuhnInformationSet(player, state.cards[player], state.history);
+        double value = 0;
+        for (KuhnAction action : actions(player)) {
+            double probability;
+            if (player == purePlayer) {
+                int bit = state.cards[player] * 2 + (state.history.endsWith(String.valueOf(BET)) ? 1 : 0);
+                boolean bets = (pureStrategy >> bit & 1) == 1;
+                probability = (action.move() == BET) == bets ? 1.0 : 0.0;
+            } else {
+                probability = policy.getProbability(informationSet, action);
+            }
+            if (probability > 0) {
+                value += probability * value((KuhnState) state.deepCopy().applyAction(action), policy, purePlayer, pureStrategy);
+            }
+        }
+        return value;
+    }
+}
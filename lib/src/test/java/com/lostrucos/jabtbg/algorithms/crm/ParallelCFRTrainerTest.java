@@ -0,0 +1,67 @@
+package com.lostrucos.jabtbg.algorithms.crm;
+
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnAction;
+import com.lostrucos.jabtbg.algorithms.crm.KuhnPoker.KuhnState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelCFRTrainerTest {
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void testSingleAndMultiThreadedTrainingsAgree() {
+        CFRMAlgorithm<KuhnState, KuhnAction> singleThreaded = train(1, 1);
+        CFRMAlgorithm<KuhnState, KuhnAction> multiThreaded = train(4, 1);
+
+        CFRPolicy<KuhnState, KuhnAction> singleThreadedPolicy = singleThreaded.getPolicy();
+        CFRPolicy<KuhnState, KuhnAction> multiThreadedPolicy = multiThreaded.getPolicy();
+        assertEquals(singleThreadedPolicy.size(), multiThreadedPolicy.size());
+        assertEquals(KuhnPoker.expectedValue(singleThreadedPolicy), KuhnPoker.expectedValue(multiThreadedPolicy), 0.005);
+        assertTrue(KuhnPoker.exploitability(singleThreadedPolicy) < 0.02);
+        assertTrue(KuhnPoker.exploitability(multiThreadedPolicy) < 0.02);
+    }
+
+    @Test
+    public void testEveryWorkerIterationIsAnIterationOfTheVariant() {
+        for (CFRVariant variant : new CFRVariant[]{CFRVariant.cfrPlus(), CFRVariant.discounted()}) {
+            CFRMAlgorithm<KuhnState, KuhnAction> algorithm = train(4, 3, variant);
+
+            assertEquals(ITERATIONS, algorithm.getIteration());
+            assertTrue(KuhnPoker.exploitability(algorithm.getPolicy()) < 0.02, variant.toString());
+        }
+    }
+
+    @Test
+    public void testSingleThreadedTrainingIsReproducible() {
+        CFRTables<KuhnState, KuhnAction> tables = train(1, 7).getTables();
+        CFRTables<KuhnState, KuhnAction> repeatedTables = train(1, 7).getTables();
+
+        assertEquals(tables.size(), repeatedTables.size());
+        for (int id = 0; id < tables.size(); id++) {
+            assertEquals(tables.getInformationSet(id), repeatedTables.getInformationSet(id));
+            for (int action = 0; action < tables.getActionCount(id); action++) {
+                assertEquals(tables.getStrategySum(id, action), repeatedTables.getStrategySum(id, action));
+            }
+        }
+    }
+
+    private static CFRMAlgorithm<KuhnState, KuhnAction> train(int numThreads, long seed) {
+        return train(numThreads, seed, CFRVariant.vanilla());
+    }
+
+    private static CFRMAlgorithm<KuhnState, KuhnAction> train(int numThreads, long seed, CFRVariant variant) {
+        CFRMAlgorithm<KuhnState, KuhnAction> algorithm = new CFRMAlgorithm<>(new KuhnPoker(), 1, 1.0);
+        algorithm.setSampling(CFRSampling.EXTERNAL);
+        algorithm.setVariant(variant);
+        ParallelCFRTrainer<KuhnState, KuhnAction> trainer = new ParallelCFRTrainer<>(algorithm, numThreads);
+        try {
+            trainer.setSeed(seed);
+            CFRTrainingReport report = trainer.train(KuhnPoker::deal, ITERATIONS);
+            assertEquals(ITERATIONS, report.getTotalIterations());
+        } finally {
+            trainer.shutdown();
+        }
+        return algorithm;
+    }
+}
@@ -0,0 +1,231 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeterminizationCacheTest {
+    private static final int PASS = 0;
+    private static final int REVEAL = 1;
+
+    private final CardGame game = new CardGame();
+    private final SplittableRandom random = new SplittableRandom(1);
+
+    @Test
+    public void testLeastRecentlyUsedPoolIsEvicted() {
+        DeterminizationCache<CardState, CardAction> cache = new DeterminizationCache<>(game, 3, 2);
+        CardInformationSet first = new CardInformationSet(-1, 0);
+        CardInformationSet second = new CardInformationSet(-1, 1);
+        CardInformationSet third = new CardInformationSet(0, 1);
+
+        cache.sample(first, random);
+        cache.sample(second, random);
+        cache.sample(first, random);
+        cache.sample(third, random);
+
+        // The first pool was used after the second one, so the second one made room for the third
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getCachedCount(first));
+        assertEquals(0, cache.getCachedCount(second));
+        assertEquals(1, cache.getCachedCount(third));
+    }
+
+    @Test
+    public void testFullPoolIsSampledWithoutNewDeterminizations() {
+        DeterminizationCache<CardState, CardAction> cache = new DeterminizationCache<>(game, 3, 2);
+        CardInformationSet informationSet = new CardInformationSet(-1, 0);
+
+        for (int i = 0; i < 10; i++) {
+            CardState state = cache.sample(informationSet, random);
+            assertEquals(informationSet, game.getInformationSet(0, state));
+        }
+
+        assertEquals(3, cache.getCachedCount(informationSet));
+        assertEquals(3, informationSet.sampledStates);
+    }
+
+    @Test
+    public void testAdvanceDropsStatesInconsistentWithTheAction() {
+        DeterminizationCache<CardState, CardAction> cache = new DeterminizationCache<>(game, 6, 4);
+        CardInformationSet hidden = new CardInformationSet(-1, 0);
+        for (int i = 0; i < 6; i++) {
+            cache.sample(hidden, random);
+        }
+        CardInformationSet revealed = new CardInformationSet(1, 1);
+
+        cache.advance(hidden, new CardAction(REVEAL), revealed);
+
+        // Two of the six states hold the revealed card
+        assertEquals(0, cache.getCachedCount(hidden));
+        assertEquals(2, cache.getCachedCount(revealed));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, cache.sample(revealed, random).card);
+        }
+    }
+
+    @Test
+    public void testAdvanceKeepsEveryStateConsistentWithTheAction() {
+        DeterminizationCache<CardState, CardAction> cache = new DeterminizationCache<>(game, 6, 4);
+        CardInformationSet hidden = new CardInformationSet(-1, 0);
+        for (int i = 0; i < 6; i++) {
+            cache.sample(hidden, random);
+        }
+        CardInformationSet passed = new CardInformationSet(-1, 1);
+
+        cache.advance(hidden, new CardAction(PASS), passed);
+
+        assertEquals(6, cache.getCachedCount(passed));
+        assertEquals(0, passed.sampledStates);
+        cache.sample(passed, random);
+        assertEquals(0, passed.sampledStates);
+    }
+
+    /**
+     * A one-player game with a hidden card from 0 to 2: the player either passes or reveals the card, and the game ends
+     * after two moves. The information set of the player is the revealed card, or -1, and the number of moves.
+     */
+    private record CardAction(int move) implements Action {
+        @Override
+        public int getPlayer() {
+            return 0;
+        }
+    }
+
+    private static final class CardState implements GameState<CardAction> {
+        private final int card;
+        private boolean revealed;
+        private int moves;
+
+        private CardState(int card, boolean revealed, int moves) {
+            this.card = card;
+            this.revealed = revealed;
+            this.moves = moves;
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return 0;
+        }
+
+        @Override
+        public boolean isTerminalNode() {
+            return moves >= 2;
+        }
+
+        @Override
+        public boolean isTie() {
+            return false;
+        }
+
+        @Override
+        public GameState<CardAction> applyAction(CardAction action) {
+            revealed |= action.move() == REVEAL;
+            moves++;
+            return this;
+        }
+
+        @Override
+        public GameState<CardAction> deepCopy() {
+            return new CardState(card, revealed, moves);
+        }
+
+        @Override
+        public List<CardAction> getAvailableActions(int playerIndex) {
+            return List.of(new CardAction(PASS), new CardAction(REVEAL));
+        }
+
+        @Override
+        public double getUtility(int playerIndex) {
+            return card / 2.0;
+        }
+
+        @Override
+        public List<Integer> getPlayersInGame() {
+            return List.of(0);
+        }
+
+        @Override
+        public boolean isPlayerStillInGame(int player) {
+            return true;
+        }
+    }
+
+    private static final class CardInformationSet implements InformationSet<CardState, CardAction> {
+        private final int revealedCard;
+        private final int moves;
+        private int sampledStates;
+
+        private CardInformationSet(int revealedCard, int moves) {
+            this.revealedCard = revealedCard;
+            this.moves = moves;
+        }
+
+        @Override
+        public int getPlayerIndex() {
+            return 0;
+        }
+
+        /**
+         * Deals the hidden cards in turn, so that every card is sampled as often as the others.
+         */
+        @Override
+        public CardState determinePseudoState() {
+            int card = revealedCard >= 0 ? revealedCard : sampledStates % 3;
+            sampledStates++;
+            return new CardState(card, revealedCard >= 0, moves);
+        }
+
+        @Override
+        public List<CardState> getPossibleStates() {
+            return List.of(new CardState(0, false, moves), new CardState(1, false, moves), new CardState(2, false, moves));
+        }
+
+        @Override
+        public List<CardAction> getPlayerActions(int playerIndex) {
+            return List.of(new CardAction(PASS), new CardAction(REVEAL));
+        }
+
+        @Override
+        public InformationSet<CardState, CardAction> getNextInformationSet(CardAction action) {
+            return new CardInformationSet(revealedCard, moves + 1);
+        }
+
+        @Override
+        public boolean isTerminal() {
+            return moves >= 2;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CardInformationSet other && revealedCard == other.revealedCard && moves == other.moves;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(revealedCard, moves);
+        }
+    }
+
+    private static final class CardGame implements Game<CardState, CardAction> {
+        @Override
+        public CardState getNextState(CardState state, CardAction action) {
+            state.applyAction(action);
+            return state;
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return 0;
+        }
+
+        @Override
+        public InformationSet<CardState, CardAction> getInformationSet(int playerIndex, CardState gameState) {
+            return new CardInformationSet(gameState.revealed ? gameState.card : -1, gameState.moves);
+        }
+    }
+}
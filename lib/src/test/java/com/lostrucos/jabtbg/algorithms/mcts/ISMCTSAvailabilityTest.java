@@ -0,0 +1,115 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import com.lostrucos.jabtbg.core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ISMCTSAvailabilityTest {
+    private static final int ITERATIONS = 2000;
+
+    @Test
+    public void testSingleObserverAvailabilityCountsEveryVisitOfTheParent() {
+        ISMCTSAlgorithm<TakeState, TakeAction> algorithm = new ISMCTSAlgorithm<>(new PerfectInformationGame(), ITERATIONS, Math.sqrt(2));
+        algorithm.setSeed(1);
+
+        algorithm.chooseAction(new TakeState(12, 3));
+
+        assertEquals(ITERATIONS, algorithm.getRootNode().getVisitCount());
+        assertAvailabilityIsCounted(algorithm.getRootNode(), 0, 1);
+    }
+
+    @Test
+    public void testMultiObserverAvailabilityCountsEveryVisitOfTheParent() {
+        ISMCTSAlgorithm<TakeState, TakeAction> algorithm = new ISMCTSAlgorithm<>(new PerfectInformationGame(), ITERATIONS, Math.sqrt(2));
+        algorithm.setSeed(1);
+        algorithm.setMoveObserver((action, observerIndex) -> action);
+
+        algorithm.chooseAction(new TakeState(12, 3));
+
+        // Only the moves of the searching player are selected in its tree, so only they count their availability
+        assertEquals(ITERATIONS, algorithm.getRootNode().getVisitCount());
+        assertAvailabilityIsCounted(algorithm.getRootNode(), 0, 2);
+    }
+
+    /**
+     * Checks, on every node at a depth multiple of the given step, that every child was available at least as often
+     * as it was visited, and that the first child expanded was available every time an iteration went on from the node.
+     * Every action is always legal in a game of perfect information, so a child is available on every later visit
+     * of its parent, including the one that expanded it.
+     */
+    private static void assertAvailabilityIsCounted(ISMCTSNode<TakeAction> node, int depth, int step) {
+        int childVisits = 0;
+        int maxAvailability = 0;
+        for (ISMCTSNode<TakeAction> child : node.getChildNodes().values()) {
+            childVisits += child.getVisitCount();
+            maxAvailability = Math.max(maxAvailability, child.getAvailabilityCount());
+            if (depth % step == 0) {
+                assertTrue(child.getAvailabilityCount() >= child.getVisitCount(), "Availability below the visits of " + child);
+            }
+            assertAvailabilityIsCounted(child, depth + 1, step);
+        }
+        if (depth % step == 0) {
+            assertEquals(childVisits, maxAvailability);
+        }
+    }
+
+    /**
+     * The take-away game seen as a game of imperfect information whose information sets hold the whole state.
+     */
+    private static final class PerfectInformationGame implements Game<TakeState, TakeAction> {
+        @Override
+        public TakeState getNextState(TakeState state, TakeAction action) {
+            state.applyAction(action);
+            return state;
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return 0;
+        }
+
+        @Override
+        public InformationSet<TakeState, TakeAction> getInformationSet(int playerIndex, TakeState gameState) {
+            return new StateInformationSet(playerIndex, GameState.copyOf(gameState));
+        }
+    }
+
+    private record StateInformationSet(int playerIndex, TakeState state) implements InformationSet<TakeState, TakeAction> {
+        @Override
+        public int getPlayerIndex() {
+            return playerIndex;
+        }
+
+        @Override
+        public TakeState determinePseudoState() {
+            return GameState.copyOf(state);
+        }
+
+        @Override
+        public List<TakeState> getPossibleStates() {
+            return List.of(state);
+        }
+
+        @Override
+        public List<TakeAction> getPlayerActions(int playerIndex) {
+            return state.getAvailableActions(playerIndex);
+        }
+
+        @Override
+        public InformationSet<TakeState, TakeAction> getNextInformationSet(TakeAction action) {
+            TakeState nextState = GameState.copyOf(state);
+            nextState.applyAction(action);
+            return new StateInformationSet(playerIndex, nextState);
+        }
+
+        @Override
+        public boolean isTerminal() {
+            return state.isTerminalNode();
+        }
+    }
+}
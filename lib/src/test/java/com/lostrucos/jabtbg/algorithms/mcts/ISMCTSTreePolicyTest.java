@@ -0,0 +1,185 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ISMCTSTreePolicyTest {
+    private static final int ITERATIONS = 2000;
+
+    @Test
+    public void testUCB1Policy() {
+        assertFindsBestAction(new UCB1Policy<>(Math.sqrt(2)));
+    }
+
+    @Test
+    public void testUCB1TunedPolicy() {
+        assertFindsBestAction(new UCB1TunedPolicy<>());
+    }
+
+    @Test
+    public void testPUCTPolicy() {
+        ISMCTSAlgorithm<CoinState, CoinAction> algorithm = assertFindsBestAction(new PUCTPolicy<>(1.0, PriorProvider.uniform()));
+
+        for (ISMCTSNode<CoinAction> child : algorithm.getRootNode().getChildNodes().values()) {
+            assertFalse(Double.isNaN(child.getPrior()));
+        }
+    }
+
+    @Test
+    public void testThompsonSamplingPolicy() {
+        assertFindsBestAction(new ThompsonSamplingPolicy<>());
+    }
+
+    private static ISMCTSAlgorithm<CoinState, CoinAction> assertFindsBestAction(ISMCTSTreePolicy<CoinState, CoinAction> treePolicy) {
+        ISMCTSAlgorithm<CoinState, CoinAction> algorithm = new ISMCTSAlgorithm<>(new CoinGame(), ITERATIONS, Math.sqrt(2));
+        algorithm.setTreePolicy(treePolicy);
+        algorithm.setSeed(1);
+
+        CoinAction action = algorithm.chooseAction(new CoinState(-1));
+
+        assertEquals(1, action.choice());
+        ISMCTSNode<CoinAction> root = algorithm.getRootNode();
+        ISMCTSNode<CoinAction> alwaysLegal = root.getChild(new CoinAction(1));
+        ISMCTSNode<CoinAction> sometimesLegal = root.getChild(new CoinAction(2));
+        assertNotNull(sometimesLegal);
+        assertTrue(sometimesLegal.getAvailabilityCount() < alwaysLegal.getAvailabilityCount());
+        return algorithm;
+    }
+
+    /**
+     * A one-move game with a hidden coin: choices 0 and 1 are always legal, choice 2 only when the coin shows heads.
+     * The choices are worth 0.2, 0.8 and 0.7.
+     */
+    private record CoinAction(int choice) implements Action {
+        @Override
+        public int getPlayer() {
+            return 0;
+        }
+    }
+
+    private static final class CoinState implements GameState<CoinAction> {
+        private final boolean heads;
+        private int choice;
+
+        private CoinState(int choice) {
+            this(false, choice);
+        }
+
+        private CoinState(boolean heads, int choice) {
+            this.heads = heads;
+            this.choice = choice;
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return 0;
+        }
+
+        @Override
+        public boolean isTerminalNode() {
+            return choice >= 0;
+        }
+
+        @Override
+        public boolean isTie() {
+            return false;
+        }
+
+        @Override
+        public GameState<CoinAction> applyAction(CoinAction action) {
+            choice = action.choice();
+            return this;
+        }
+
+        @Override
+        public GameState<CoinAction> deepCopy() {
+            return new CoinState(heads, choice);
+        }
+
+        @Override
+        public List<CoinAction> getAvailableActions(int playerIndex) {
+            List<CoinAction> actions = new ArrayList<>(List.of(new CoinAction(0), new CoinAction(1)));
+            if (heads) actions.add(new CoinAction(2));
+            return actions;
+        }
+
+        @Override
+        public double getUtility(int playerIndex) {
+            return switch (choice) {
+                case 0 -> 0.2;
+                case 1 -> 0.8;
+                default -> 0.7;
+            };
+        }
+
+        @Override
+        public List<Integer> getPlayersInGame() {
+            return List.of(0);
+        }
+
+        @Override
+        public boolean isPlayerStillInGame(int player) {
+            return true;
+        }
+    }
+
+    private static final class CoinInformationSet implements InformationSet<CoinState, CoinAction> {
+        private final SplittableRandom random = new SplittableRandom(7);
+
+        @Override
+        public int getPlayerIndex() {
+            return 0;
+        }
+
+        @Override
+        public CoinState determinePseudoState() {
+            return new CoinState(random.nextBoolean(), -1);
+        }
+
+        @Override
+        public List<CoinState> getPossibleStates() {
+            return List.of(new CoinState(false, -1), new CoinState(true, -1));
+        }
+
+        @Override
+        public List<CoinAction> getPlayerActions(int playerIndex) {
+            return List.of(new CoinAction(0), new CoinAction(1));
+        }
+
+        @Override
+        public InformationSet<CoinState, CoinAction> getNextInformationSet(CoinAction action) {
+            return this;
+        }
+
+        @Override
+        public boolean isTerminal() {
+            return false;
+        }
+    }
+
+    private static final class CoinGame implements Game<CoinState, CoinAction> {
+        private final CoinInformationSet informationSet = new CoinInformationSet();
+
+        @Override
+        public CoinState getNextState(CoinState state, CoinAction action) {
+            state.applyAction(action);
+            return state;
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return 0;
+        }
+
+        @Override
+        public InformationSet<CoinState, CoinAction> getInformationSet(int playerIndex, CoinState gameState) {
+            return informationSet;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSLeafEvaluatorTest {
+    private static final int ITERATIONS = 100;
+    private static final int BATCH_SIZE = 8;
+
+    private final TakeAwayStrategy strategy = new TakeAwayStrategy();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private MCTSAlgorithm<TakeAction, TakeState> algorithm;
+
+    @BeforeEach
+    public void setUp() {
+        algorithm = new MCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(strategy);
+        algorithm.setRolloutPolicy((state, actions, random) -> {
+            throw new AssertionError("No playout must run with a leaf evaluator");
+        });
+    }
+
+    private LeafEvaluator<TakeState, TakeAction> recordingEvaluator() {
+        return (states, random) -> {
+            batchSizes.add(states.size());
+            return states.stream().mapToDouble(state -> strategy.calculateUtility(state, state.getCurrentPlayer())).toArray();
+        };
+    }
+
+    @Test
+    public void testBatchesAreFilledUpToTheBatchSize() {
+        algorithm.setLeafEvaluator(recordingEvaluator(), BATCH_SIZE);
+
+        algorithm.chooseAction(new TakeState(60, 3));
+
+        // 100 iterations make twelve full batches and a last one with the remaining four leaves
+        assertEquals((ITERATIONS + BATCH_SIZE - 1) / BATCH_SIZE, batchSizes.size());
+        for (int i = 0; i < batchSizes.size() - 1; i++) {
+            assertEquals(BATCH_SIZE, (int) batchSizes.get(i));
+        }
+        assertEquals(ITERATIONS % BATCH_SIZE, (int) batchSizes.get(batchSizes.size() - 1));
+        assertEquals(ITERATIONS, algorithm.getLastSearchIterations());
+    }
+
+    @Test
+    public void testOneEvaluatorCallServesTheWholeBatch() {
+        algorithm.setLeafEvaluator(recordingEvaluator(), ITERATIONS);
+
+        algorithm.chooseAction(new TakeState(60, 3));
+
+        assertEquals(List.of(ITERATIONS), batchSizes);
+        MCTSNode<TakeState, TakeAction> root = algorithm.getRootNode();
+        assertEquals(ITERATIONS, root.getVisitCount());
+        assertEquals(0, root.getVirtualLoss());
+        for (MCTSNode<TakeState, TakeAction> child : root.getChildNodes().values()) {
+            assertEquals(0, child.getVirtualLoss());
+        }
+    }
+
+    @Test
+    public void testBatchOfOneEvaluatesEveryLeafAlone() {
+        algorithm.setLeafEvaluator(recordingEvaluator(), 1);
+
+        algorithm.chooseAction(new TakeState(60, 3));
+
+        assertEquals(ITERATIONS, batchSizes.size());
+        assertTrue(batchSizes.stream().allMatch(size -> size == 1));
+    }
+
+    @Test
+    public void testVirtualLossPenaltyIsRestoredWhenTheEvaluatorIsRemoved() {
+        assertEquals(0.0, algorithm.getVirtualLossPenalty());
+        algorithm.setLeafEvaluator(recordingEvaluator(), BATCH_SIZE);
+        assertEquals(1.0, algorithm.getVirtualLossPenalty());
+        algorithm.setLeafEvaluator(null, 1);
+        assertEquals(0.0, algorithm.getVirtualLossPenalty());
+
+        algorithm.setVirtualLossPenalty(0.5);
+        algorithm.setLeafEvaluator(recordingEvaluator(), BATCH_SIZE);
+        assertEquals(0.5, algorithm.getVirtualLossPenalty());
+        algorithm.setLeafEvaluator(null, 1);
+        assertEquals(0.5, algorithm.getVirtualLossPenalty());
+    }
+
+    @Test
+    public void testInvalidBatchSizeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> algorithm.setLeafEvaluator(recordingEvaluator(), 0));
+    }
+}
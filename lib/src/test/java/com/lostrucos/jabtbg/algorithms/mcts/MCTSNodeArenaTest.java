@@ -0,0 +1,113 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import com.lostrucos.jabtbg.core.Action;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class MCTSNodeArenaTest {
+
+    private MCTSNodeArena<Action> arena;
+
+    @BeforeEach
+    public void setUp() {
+        arena = new MCTSNodeArena<>(1);
+    }
+
+    @Test
+    public void testAllocateLinksChildren() {
+        Action firstAction = mock(Action.class);
+        Action secondAction = mock(Action.class);
+        int root = arena.allocate(MCTSNodeArena.NONE, null, false);
+        int firstChild = arena.allocate(root, firstAction, false);
+        int secondChild = arena.allocate(root, secondAction, true);
+
+        assertEquals(3, arena.size());
+        assertEquals(2, arena.getChildCount(root));
+        assertEquals(secondChild, arena.getFirstChild(root));
+        assertEquals(firstChild, arena.getNextSibling(secondChild));
+        assertEquals(MCTSNodeArena.NONE, arena.getNextSibling(firstChild));
+        assertEquals(root, arena.getParent(firstChild));
+        assertSame(firstAction, arena.getAction(firstChild));
+        assertTrue(arena.isTerminal(secondChild));
+        assertFalse(arena.isTerminal(firstChild));
+    }
+
+    @Test
+    public void testIsFullyExpanded() {
+        int root = arena.allocate(MCTSNodeArena.NONE, null, false);
+        assertFalse(arena.isFullyExpanded(root));
+
+        arena.setLegalActionCount(root, 1);
+        assertFalse(arena.isFullyExpanded(root));
+
+        arena.allocate(root, mock(Action.class), false);
+        assertTrue(arena.isFullyExpanded(root));
+    }
+
+    @Test
+    public void testUpdateNodeStats() {
+        int root = arena.allocate(MCTSNodeArena.NONE, null, false);
+        arena.updateNodeStats(root, 1.0);
+        arena.updateNodeStats(root, 0.5);
+
+        assertEquals(2, arena.getVisitCount(root));
+        assertEquals(1.5, arena.getTotalReward(root), 1e-9);
+    }
+
+    @Test
+    public void testClearKeepsCapacity() {
+        int root = arena.allocate(MCTSNodeArena.NONE, null, false);
+        for (int i = 0; i < 10; i++) {
+            arena.allocate(root, mock(Action.class), false);
+        }
+        int capacity = arena.capacity();
+        arena.clear();
+
+        assertEquals(0, arena.size());
+        assertEquals(capacity, arena.capacity());
+        int newRoot = arena.allocate(MCTSNodeArena.NONE, null, false);
+        assertEquals(0, arena.getVisitCount(newRoot));
+        assertEquals(MCTSNodeArena.NONE, arena.getFirstChild(newRoot));
+    }
+
+    @Test
+    public void testGrowthStopsAtTheMaximumCapacity() {
+        arena = new MCTSNodeArena<>(4, 10);
+        int root = arena.allocate(MCTSNodeArena.NONE, null, false);
+        for (int i = 1; i < 10; i++) {
+            arena.allocate(root, mock(Action.class), false);
+            assertTrue(arena.capacity() <= 10);
+        }
+
+        assertEquals(10, arena.capacity());
+        assertThrows(IllegalStateException.class, () -> arena.allocate(root, mock(Action.class), false));
+        assertEquals(10, arena.size());
+    }
+
+    @Test
+    public void testSearchGrowsTheArenaUpToTheNodeLimit() {
+        ArenaMCTSAlgorithm<TakeAction, TakeState> algorithm = new ArenaMCTSAlgorithm<>(
+                SearchBudget.ofIterations(2000).withNodeLimit(1_000_000), Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(new TakeAwayGame.TakeAwayStrategy());
+
+        algorithm.chooseAction(new TakeState(60, 3));
+
+        // The arena grows with the tree instead of holding a million nodes up front
+        MCTSNodeArena<TakeAction> searchArena = algorithm.getArena();
+        assertTrue(searchArena.size() <= 2001);
+        assertTrue(searchArena.capacity() < 2 * searchArena.size());
+
+        algorithm.setSearchBudget(SearchBudget.ofIterations(10_000).withNodeLimit(3000));
+        algorithm.chooseAction(new TakeState(60, 3));
+
+        assertEquals(3000, searchArena.size());
+        assertEquals(3000, searchArena.capacity());
+    }
+}
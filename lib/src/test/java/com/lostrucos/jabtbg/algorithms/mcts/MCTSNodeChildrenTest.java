@@ -0,0 +1,69 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSNodeChildrenTest {
+
+    @Test
+    public void testChildrenAreFoundBeforeAndAfterTheIndexIsBuilt() {
+        MCTSNode<TakeState, TakeAction> node = new MCTSNode<>(new TakeState(100, 40), null);
+        List<MCTSNode<TakeState, TakeAction>> children = new ArrayList<>();
+        for (int stones = 1; stones <= 40; stones++) {
+            TakeAction action = new TakeAction(0, stones);
+            children.add(node.getOrCreateChild(action, a -> new MCTSNode<>(null, node)));
+            for (int i = 0; i < stones; i++) {
+                assertSame(children.get(i), node.getChild(new TakeAction(0, i + 1)));
+            }
+            assertNull(node.getChild(new TakeAction(0, stones + 1)));
+        }
+
+        assertEquals(40, node.getChildCount());
+        assertEquals(children, new ArrayList<>(node.getChildNodes().values()));
+        assertSame(children.get(9), node.getOrCreateChild(new TakeAction(0, 10), a -> fail("The child must not be created twice")));
+    }
+
+    @Test
+    public void testRemovedChildCanBeAddedAgain() {
+        MCTSNode<TakeState, TakeAction> node = new MCTSNode<>(new TakeState(100, 40), null);
+        for (int stones = 1; stones <= 20; stones++) {
+            node.getOrCreateChild(new TakeAction(0, stones), a -> new MCTSNode<>(null, node));
+        }
+        MCTSNode.Children<TakeState, TakeAction> snapshot = node.getChildren();
+
+        MCTSNode<TakeState, TakeAction> removed = node.removeChild(new TakeAction(0, 5));
+
+        assertNotNull(removed);
+        assertNull(node.getChild(new TakeAction(0, 5)));
+        assertEquals(19, node.getChildCount());
+        assertEquals(20, snapshot.size);
+        assertSame(removed, snapshot.nodes[4]);
+        MCTSNode<TakeState, TakeAction> added = node.getOrCreateChild(new TakeAction(0, 5), a -> new MCTSNode<>(null, node));
+        assertNotSame(removed, added);
+        assertSame(added, node.getChild(new TakeAction(0, 5)));
+        assertEquals(20, node.getChildCount());
+    }
+
+    @Test
+    public void testSearchExpandsEveryActionOfALargeNodeOnce() {
+        MCTSAlgorithm<TakeAction, TakeState> algorithm = new MCTSAlgorithm<>(500, Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(new TakeAwayGame.TakeAwayStrategy());
+
+        algorithm.chooseAction(new TakeState(1000, 200));
+
+        MCTSNode<TakeState, TakeAction> root = algorithm.getRootNode();
+        assertEquals(200, root.getChildCount());
+        assertEquals(200, root.getChildNodes().size());
+        assertTrue(root.getUntriedActions().isEmpty());
+        for (TakeAction action : root.getLegalActions()) {
+            assertNotNull(root.getChild(action));
+        }
+    }
+}
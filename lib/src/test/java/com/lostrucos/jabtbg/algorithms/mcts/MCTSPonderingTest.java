@@ -0,0 +1,116 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSPonderingTest {
+    private static final int SEARCH_ITERATIONS = 100;
+    private static final int NODE_LIMIT = 3000;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final TakeAwayStrategy strategy = new TakeAwayStrategy();
+    private MCTSAlgorithm<TakeAction, TakeState> algorithm;
+
+    @BeforeEach
+    public void setUp() {
+        algorithm = new MCTSAlgorithm<>(SearchBudget.ofIterations(SEARCH_ITERATIONS).withNodeLimit(NODE_LIMIT), Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(strategy);
+        algorithm.setPondering(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        algorithm.setPondering(false);
+    }
+
+    @Test
+    public void testPonderingStopsAtTheNodeLimit() throws InterruptedException {
+        algorithm.chooseAction(new TakeState(60, 3));
+
+        awaitCondition(() -> algorithm.getNodeCount() >= NODE_LIMIT);
+        assertTrue(algorithm.stopPondering());
+
+        assertEquals(NODE_LIMIT, algorithm.getNodeCount());
+        assertTrue(algorithm.getLastPonderIterations() > 0);
+        assertEquals(SEARCH_ITERATIONS + algorithm.getLastPonderIterations(), algorithm.getRootNode().getVisitCount());
+    }
+
+    @Test
+    public void testPonderedSubtreeIsReusedAfterTheMove() throws InterruptedException {
+        TakeState state = new TakeState(60, 3);
+        TakeAction action = algorithm.chooseAction(state);
+        awaitCondition(() -> algorithm.getNodeCount() >= NODE_LIMIT);
+        algorithm.stopPondering();
+        MCTSNode<TakeState, TakeAction> child = algorithm.getRootNode().getChild(action);
+        int ponderedVisits = child.getVisitCount();
+        assertTrue(algorithm.getRootNode().getVisitCount() > SEARCH_ITERATIONS);
+
+        state.applyAction(action);
+        algorithm.updateAfterAction(state, action);
+
+        assertSame(child, algorithm.getRootNode());
+        assertEquals(ponderedVisits, child.getVisitCount());
+        algorithm.chooseAction(state);
+        algorithm.stopPondering();
+        assertSame(child, algorithm.getRootNode());
+        assertTrue(algorithm.getLastSearchIterations() > 0);
+        assertEquals(ponderedVisits + algorithm.getLastSearchIterations() + algorithm.getLastPonderIterations(), child.getVisitCount());
+    }
+
+    @Test
+    public void testPonderingStopsOnASolvedRoot() throws InterruptedException {
+        algorithm = new MCTSAlgorithm<>(1, Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(strategy);
+        algorithm.setSolver(true);
+        algorithm.setPondering(true);
+        algorithm.chooseAction(new TakeState(8, 3));
+        MCTSNode<TakeState, TakeAction> root = algorithm.getRootNode();
+
+        awaitCondition(root::isSolved);
+        Thread.sleep(20);
+        int visits = root.getVisitCount();
+        Thread.sleep(50);
+
+        assertEquals(visits, root.getVisitCount());
+        assertEquals(ProvenValue.WIN, root.getProvenValue());
+        assertTrue(algorithm.stopPondering());
+        assertEquals(1 + algorithm.getLastPonderIterations(), root.getVisitCount());
+    }
+
+    @Test
+    public void testPonderingEvaluatesLeavesWithTheLeafEvaluator() throws InterruptedException {
+        AtomicInteger evaluatedLeaves = new AtomicInteger();
+        algorithm.setRolloutPolicy((state, actions, random) -> {
+            throw new AssertionError("No playout must run with a leaf evaluator");
+        });
+        algorithm.setLeafEvaluator((states, random) -> {
+            evaluatedLeaves.addAndGet(states.size());
+            return states.stream().mapToDouble(state -> strategy.calculateUtility(state, state.getCurrentPlayer())).toArray();
+        }, 8);
+
+        algorithm.chooseAction(new TakeState(60, 3));
+        awaitCondition(() -> algorithm.getNodeCount() >= NODE_LIMIT);
+        algorithm.stopPondering();
+
+        assertTrue(algorithm.getLastPonderIterations() > 0);
+        assertEquals(algorithm.getRootNode().getVisitCount(), evaluatedLeaves.get());
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the background search");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSProgressiveWideningTest {
+    private static final int ITERATIONS = 2000;
+    private static final int MAX_TAKE = 50;
+    private static final double WIDENING_CONSTANT = 1.0;
+    private static final double WIDENING_EXPONENT = 0.5;
+
+    private MCTSAlgorithm<TakeAction, TakeState> algorithm;
+
+    @BeforeEach
+    public void setUp() {
+        algorithm = new MCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(new TakeAwayStrategy());
+        algorithm.setProgressiveWidening(WIDENING_CONSTANT, WIDENING_EXPONENT);
+    }
+
+    @Test
+    public void testChildCountStaysWithinTheWideningBound() {
+        algorithm.chooseAction(new TakeState(1000, MAX_TAKE));
+
+        MCTSNode<TakeState, TakeAction> root = algorithm.getRootNode();
+        assertTrue(root.getChildCount() > 1);
+        assertTrue(root.getChildCount() < MAX_TAKE);
+        Deque<MCTSNode<TakeState, TakeAction>> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(root);
+        while (!pendingNodes.isEmpty()) {
+            MCTSNode<TakeState, TakeAction> node = pendingNodes.pop();
+            int bound = Math.max(1, (int) Math.ceil(WIDENING_CONSTANT * Math.pow(node.getVisitCount(), WIDENING_EXPONENT)));
+            assertTrue(node.getChildCount() <= bound, node + " has " + node.getChildCount() + " children for " + node.getVisitCount() + " visits");
+            pendingNodes.addAll(node.getChildNodes().values());
+        }
+    }
+
+    @Test
+    public void testHighestPriorActionsAreExpandedFirst() {
+        // The prior of an action grows with the stones it takes
+        algorithm.setExpansionPriors((state, actions) -> actions.stream().mapToDouble(TakeAction::stones).toArray());
+        algorithm.setSearchBudget(SearchBudget.ofIterations(1));
+
+        TakeState state = new TakeState(1000, MAX_TAKE);
+        algorithm.chooseAction(state);
+
+        assertEquals(Set.of(new TakeAction(0, MAX_TAKE)), algorithm.getRootNode().getChildNodes().keySet());
+
+        algorithm.setSearchBudget(SearchBudget.ofIterations(ITERATIONS));
+        algorithm.chooseAction(state);
+
+        int childCount = algorithm.getRootNode().getChildCount();
+        Set<TakeAction> expectedActions = new HashSet<>();
+        for (int stones = MAX_TAKE; stones > MAX_TAKE - childCount; stones--) {
+            expectedActions.add(new TakeAction(0, stones));
+        }
+        assertEquals(expectedActions, algorithm.getRootNode().getChildNodes().keySet());
+    }
+
+    @Test
+    public void testInvalidWideningParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> algorithm.setProgressiveWidening(-1, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> algorithm.setProgressiveWidening(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> algorithm.setProgressiveWidening(1, 1));
+    }
+}
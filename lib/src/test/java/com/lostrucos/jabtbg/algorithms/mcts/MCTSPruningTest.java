@@ -0,0 +1,157 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.Strategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSPruningTest {
+    private static final int BITS = 12;
+
+    private MCTSAlgorithm<FlipAction, FlipState> algorithm;
+
+    @BeforeEach
+    public void setUp() {
+        algorithm = new MCTSAlgorithm<>(20000, Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(new FlipStrategy());
+        algorithm.enableTranspositions(StateHasher.fromHashCode());
+    }
+
+    @Test
+    public void testPruningWithTranspositionsCountsSharedNodesOnce() {
+        algorithm.chooseAction(new FlipState(0));
+        int nodeCount = algorithm.getNodeCount();
+        assertEquals(countReachableNodes(algorithm.getRootNode()), nodeCount);
+
+        int targetNodeCount = nodeCount - nodeCount / 4;
+        algorithm.pruneTree(targetNodeCount);
+
+        assertEquals(countReachableNodes(algorithm.getRootNode()), algorithm.getNodeCount());
+        assertTrue(algorithm.getNodeCount() <= targetNodeCount);
+        assertEquals(nodeCount - algorithm.getNodeCount(), algorithm.getFreeNodeCount());
+    }
+
+    @Test
+    public void testNodeCapacityWithTranspositions() {
+        algorithm.setNodeCapacity(60);
+        FlipAction action = algorithm.chooseAction(new FlipState(0));
+
+        assertNotNull(action);
+        assertTrue(algorithm.getNodeCount() <= 60);
+        assertEquals(countReachableNodes(algorithm.getRootNode()), algorithm.getNodeCount());
+    }
+
+    private static int countReachableNodes(MCTSNode<FlipState, FlipAction> root) {
+        Set<MCTSNode<FlipState, FlipAction>> reachableNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<MCTSNode<FlipState, FlipAction>> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(root);
+        while (!pendingNodes.isEmpty()) {
+            MCTSNode<FlipState, FlipAction> node = pendingNodes.pop();
+            if (reachableNodes.add(node)) {
+                pendingNodes.addAll(node.getChildNodes().values());
+            }
+        }
+        return reachableNodes.size();
+    }
+
+    /**
+     * A game in which the players take turns setting the bits of a word, so that every order of the same moves
+     * reaches the same position: the tree searched with transpositions is a graph with many paths to every node.
+     */
+    private record FlipAction(int player, int bit) implements Action {
+        @Override
+        public int getPlayer() {
+            return player;
+        }
+    }
+
+    private static final class FlipState implements GameState<FlipAction> {
+        private int bits;
+
+        private FlipState(int bits) {
+            this.bits = bits;
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return Integer.bitCount(bits) % 2;
+        }
+
+        @Override
+        public boolean isTerminalNode() {
+            return Integer.bitCount(bits) == BITS;
+        }
+
+        @Override
+        public boolean isTie() {
+            return false;
+        }
+
+        @Override
+        public GameState<FlipAction> applyAction(FlipAction action) {
+            bits |= 1 << action.bit();
+            return this;
+        }
+
+        @Override
+        public GameState<FlipAction> deepCopy() {
+            return new FlipState(bits);
+        }
+
+        @Override
+        public List<FlipAction> getAvailableActions(int playerIndex) {
+            List<FlipAction> actions = new ArrayList<>();
+            for (int bit = 0; bit < BITS; bit++) {
+                if ((bits & (1 << bit)) == 0) actions.add(new FlipAction(playerIndex, bit));
+            }
+            return actions;
+        }
+
+        @Override
+        public double getUtility(int playerIndex) {
+            return (bits & 1) == playerIndex ? 1.0 : 0.0;
+        }
+
+        @Override
+        public List<Integer> getPlayersInGame() {
+            return List.of(0, 1);
+        }
+
+        @Override
+        public boolean isPlayerStillInGame(int player) {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FlipState && ((FlipState) o).bits == bits;
+        }
+
+        @Override
+        public int hashCode() {
+            return bits;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toBinaryString(bits);
+        }
+    }
+
+    private static final class FlipStrategy implements Strategy<FlipState, FlipAction> {
+        @Override
+        public double calculateUtility(FlipState state, int playerIndex) {
+            return state.getUtility(playerIndex);
+        }
+
+        @Override
+        public List<FlipAction> suggestStrategicMoves(FlipState state, int currentPlayer) {
+            return List.of();
+        }
+    }
+}
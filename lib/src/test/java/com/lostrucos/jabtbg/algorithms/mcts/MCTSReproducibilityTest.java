@@ -0,0 +1,107 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSReproducibilityTest {
+    private static final int ITERATIONS = 2000;
+    private static final int NUM_THREADS = 4;
+    private static final long SEED = 42;
+
+    private final TakeAwayStrategy strategy = new TakeAwayStrategy();
+
+    @Test
+    public void testSameSeedGivesIdenticalRootStatistics() {
+        Map<TakeAction, List<Double>> statistics = search(SEED);
+
+        assertEquals(statistics, search(SEED));
+        assertNotEquals(statistics, search(SEED + 1));
+    }
+
+    @Test
+    public void testRootParallelTreesAreSeededDeterministically() {
+        List<Map<TakeAction, List<Double>>> trees = searchRootParallel(SEED);
+        List<Map<TakeAction, List<Double>>> repeatedTrees = searchRootParallel(SEED);
+
+        assertEquals(trees, repeatedTrees);
+        // Every tree draws from its own stream, so the trees differ from each other
+        assertEquals(NUM_THREADS, new HashSet<>(trees).size());
+    }
+
+    @Test
+    public void testTreeParallelThreadsAreSplitDeterministically() {
+        TreeParallelMCTSAlgorithm<TakeAction, TakeState> algorithm = new TreeParallelMCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), NUM_THREADS);
+        try {
+            algorithm.setStrategy(strategy);
+            algorithm.setSeed(SEED);
+            algorithm.chooseAction(new TakeState(60, 3));
+
+            // The generator of the algorithm is split once per thread and not drawn from otherwise
+            SplittableRandom expected = new SplittableRandom(SEED);
+            for (int i = 0; i < NUM_THREADS; i++) {
+                expected.split();
+            }
+            assertEquals(expected.nextLong(), algorithm.getRandom().nextLong());
+        } finally {
+            algorithm.shutdown();
+        }
+    }
+
+    @Test
+    public void testSingleThreadedTreeParallelSearchIsReproducible() {
+        assertEquals(searchTreeParallel(SEED), searchTreeParallel(SEED));
+    }
+
+    private Map<TakeAction, List<Double>> search(long seed) {
+        MCTSAlgorithm<TakeAction, TakeState> algorithm = new MCTSAlgorithm<>(ITERATIONS, Math.sqrt(2));
+        algorithm.setStrategy(strategy);
+        algorithm.setSeed(seed);
+        algorithm.chooseAction(new TakeState(60, 3));
+        return rootStatistics(algorithm.getRootNode());
+    }
+
+    private List<Map<TakeAction, List<Double>>> searchRootParallel(long seed) {
+        RootParallelMCTSAlgorithm<TakeAction, TakeState> algorithm = new RootParallelMCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), NUM_THREADS);
+        try {
+            algorithm.setStrategy(strategy);
+            algorithm.setSeed(seed);
+            algorithm.chooseAction(new TakeState(60, 3));
+            List<Map<TakeAction, List<Double>>> trees = new ArrayList<>();
+            for (MCTSAlgorithm<TakeAction, TakeState> worker : algorithm.getWorkers()) {
+                trees.add(rootStatistics(worker.getRootNode()));
+            }
+            return trees;
+        } finally {
+            algorithm.shutdown();
+        }
+    }
+
+    private Map<TakeAction, List<Double>> searchTreeParallel(long seed) {
+        TreeParallelMCTSAlgorithm<TakeAction, TakeState> algorithm = new TreeParallelMCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), 1);
+        try {
+            algorithm.setStrategy(strategy);
+            algorithm.setSeed(seed);
+            algorithm.chooseAction(new TakeState(60, 3));
+            return rootStatistics(algorithm.getRootNode());
+        } finally {
+            algorithm.shutdown();
+        }
+    }
+
+    /**
+     * Gets the visits and the total reward of every child of the root.
+     */
+    private static Map<TakeAction, List<Double>> rootStatistics(MCTSNode<TakeState, TakeAction> root) {
+        Map<TakeAction, List<Double>> statistics = new HashMap<>();
+        for (Map.Entry<TakeAction, MCTSNode<TakeState, TakeAction>> entry : root.getChildNodes().entrySet()) {
+            statistics.put(entry.getKey(), List.of((double) entry.getValue().getVisitCount(), entry.getValue().getTotalReward()));
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,90 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSSolverTest {
+    private static final int ITERATIONS = 100_000;
+
+    private MCTSAlgorithm<TakeAction, TakeState> algorithm;
+
+    @BeforeEach
+    public void setUp() {
+        algorithm = new MCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(new TakeAwayStrategy());
+        algorithm.setSolver(true);
+    }
+
+    @Test
+    public void testForcedLossIsProvenAndPropagatedToTheRoot() {
+        algorithm.chooseAction(new TakeState(8, 3));
+
+        // The player to move loses, so the root is a win for the player who moved into it
+        MCTSNode<TakeState, TakeAction> root = algorithm.getRootNode();
+        assertEquals(ProvenValue.WIN, root.getProvenValue());
+        assertTrue(algorithm.getLastSearchIterations() < ITERATIONS);
+        assertEquals(3, root.getChildCount());
+        for (MCTSNode<TakeState, TakeAction> child : root.getChildNodes().values()) {
+            assertEquals(ProvenValue.LOSS, child.getProvenValue());
+            assertEquals(Double.NEGATIVE_INFINITY, MCTSAlgorithm.getFinalValue(child));
+        }
+    }
+
+    @Test
+    public void testForcedWinIsProvenAndChosen() {
+        TakeAction action = algorithm.chooseAction(new TakeState(10, 3));
+
+        MCTSNode<TakeState, TakeAction> root = algorithm.getRootNode();
+        assertEquals(2, action.stones());
+        assertEquals(ProvenValue.LOSS, root.getProvenValue());
+        assertTrue(algorithm.getLastSearchIterations() < ITERATIONS);
+        MCTSNode<TakeState, TakeAction> winningChild = root.getChild(action);
+        assertEquals(ProvenValue.WIN, winningChild.getProvenValue());
+        assertEquals(Double.POSITIVE_INFINITY, MCTSAlgorithm.getFinalValue(winningChild));
+    }
+
+    @Test
+    public void testSolvedRootIsAnsweredWithoutSearching() {
+        TakeState state = new TakeState(10, 3);
+        algorithm.chooseAction(state);
+
+        assertEquals(2, algorithm.chooseAction(state).stones());
+        assertEquals(0, algorithm.getLastSearchIterations());
+    }
+
+    @Test
+    public void testProvenValuesTakePrecedenceOverTheStatistics() {
+        MCTSNode<TakeState, TakeAction> root = new MCTSNode<>(new TakeState(10, 3), null);
+        MCTSNode<TakeState, TakeAction> promising = addChild(root, 1, 0.9);
+        MCTSNode<TakeState, TakeAction> won = addChild(root, 2, 0.1);
+        MCTSNode<TakeState, TakeAction> drawn = addChild(root, 3, 0.2);
+        drawn.setProvenValue(ProvenValue.DRAW);
+
+        assertEquals(0.9, MCTSAlgorithm.getFinalValue(promising), 1e-12);
+        assertEquals(0.5, MCTSAlgorithm.getFinalValue(drawn));
+        assertEquals(1, algorithm.getBestAction(root).stones());
+        won.setProvenValue(ProvenValue.WIN);
+        assertEquals(2, algorithm.getBestAction(root).stones());
+        won.setProvenValue(ProvenValue.LOSS);
+        promising.setProvenValue(ProvenValue.LOSS);
+        assertEquals(3, algorithm.getBestAction(root).stones());
+    }
+
+    private static MCTSNode<TakeState, TakeAction> addChild(MCTSNode<TakeState, TakeAction> root, int stones, double averageReward) {
+        TakeAction action = new TakeAction(0, stones);
+        TakeState state = new TakeState(10, 3);
+        state.applyAction(action);
+        MCTSNode<TakeState, TakeAction> child = root.getOrCreateChild(action, a -> new MCTSNode<>(state, root));
+        for (int i = 0; i < 10; i++) {
+            child.updateNodeStats(averageReward);
+        }
+        return child;
+    }
+}
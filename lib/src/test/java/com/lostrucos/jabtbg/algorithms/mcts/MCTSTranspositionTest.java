@@ -0,0 +1,103 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSTranspositionTest {
+    private static final int ITERATIONS = 3000;
+
+    private final StateHasher<TakeState> hasher = StateHasher.fromHashCode();
+    private MCTSAlgorithm<TakeAction, TakeState> algorithm;
+
+    @BeforeEach
+    public void setUp() {
+        algorithm = new MCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(new TakeAwayStrategy());
+        algorithm.enableTranspositions(hasher);
+    }
+
+    @Test
+    public void testTransposedStatesShareOneNode() {
+        algorithm.chooseAction(new TakeState(30, 3));
+
+        MCTSNode<TakeState, TakeAction> root = algorithm.getRootNode();
+        MCTSNode<TakeState, TakeAction> oneThenTwo = root.getChild(new TakeAction(0, 1)).getChild(new TakeAction(1, 2));
+        MCTSNode<TakeState, TakeAction> twoThenOne = root.getChild(new TakeAction(0, 2)).getChild(new TakeAction(1, 1));
+        assertNotNull(oneThenTwo);
+        assertSame(oneThenTwo, twoThenOne);
+        assertEquals(new TakeState(27, 3, 0), oneThenTwo.getState());
+        assertSame(oneThenTwo, algorithm.getTranspositionTable().get(hasher.hash(oneThenTwo.getState())));
+        assertTableMatchesTheReachableNodes();
+    }
+
+    @Test
+    public void testChildSnapshotsKeepTheirNodesAcrossPruning() {
+        algorithm.chooseAction(new TakeState(30, 3));
+        Map<MCTSNode<TakeState, TakeAction>, Map<TakeAction, MCTSNode<TakeState, TakeAction>>> snapshots = new IdentityHashMap<>();
+        for (MCTSNode<TakeState, TakeAction> node : collectReachableNodes()) {
+            snapshots.put(node, node.getChildNodes());
+        }
+        int nodeCount = algorithm.getNodeCount();
+
+        algorithm.pruneTree(nodeCount / 2);
+
+        assertTrue(algorithm.getNodeCount() <= nodeCount / 2);
+        assertTableMatchesTheReachableNodes();
+        int cutChildren = 0;
+        for (MCTSNode<TakeState, TakeAction> node : collectReachableNodes()) {
+            Map<TakeAction, MCTSNode<TakeState, TakeAction>> before = snapshots.get(node);
+            Map<TakeAction, MCTSNode<TakeState, TakeAction>> after = node.getChildNodes();
+            assertTrue(before.keySet().containsAll(after.keySet()));
+            for (Map.Entry<TakeAction, MCTSNode<TakeState, TakeAction>> entry : before.entrySet()) {
+                MCTSNode<TakeState, TakeAction> child = after.get(entry.getKey());
+                if (child == null) {
+                    // The earlier snapshot still lists the cut child, and the action can be expanded again
+                    cutChildren++;
+                    assertNotNull(entry.getValue());
+                    assertTrue(node.getUntriedActions().contains(entry.getKey()));
+                } else {
+                    assertSame(entry.getValue(), child);
+                    assertNotNull(child.getState());
+                }
+            }
+        }
+        assertTrue(cutChildren > 0);
+
+        algorithm.setSearchBudget(SearchBudget.ofIterations(ITERATIONS));
+        algorithm.chooseAction(new TakeState(30, 3));
+        assertTableMatchesTheReachableNodes();
+    }
+
+    /**
+     * Checks that the transposition table holds exactly the nodes reachable from the root, each under the key of its state.
+     */
+    private void assertTableMatchesTheReachableNodes() {
+        Set<MCTSNode<TakeState, TakeAction>> reachableNodes = collectReachableNodes();
+        Map<Long, MCTSNode<TakeState, TakeAction>> table = algorithm.getTranspositionTable();
+        assertEquals(reachableNodes.size(), table.size());
+        assertEquals(reachableNodes.size(), algorithm.getNodeCount());
+        for (MCTSNode<TakeState, TakeAction> node : reachableNodes) {
+            assertSame(node, table.get(hasher.hash(node.getState())));
+        }
+    }
+
+    private Set<MCTSNode<TakeState, TakeAction>> collectReachableNodes() {
+        Set<MCTSNode<TakeState, TakeAction>> reachableNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<MCTSNode<TakeState, TakeAction>> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(algorithm.getRootNode());
+        while (!pendingNodes.isEmpty()) {
+            MCTSNode<TakeState, TakeAction> node = pendingNodes.pop();
+            if (reachableNodes.add(node)) {
+                pendingNodes.addAll(node.getChildNodes().values());
+            }
+        }
+        return reachableNodes;
+    }
+}
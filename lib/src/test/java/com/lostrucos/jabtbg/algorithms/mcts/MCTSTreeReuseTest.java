@@ -0,0 +1,106 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSTreeReuseTest {
+    private static final int ITERATIONS = 1000;
+
+    private MCTSAlgorithm<TakeAction, TakeState> algorithm;
+
+    @BeforeEach
+    public void setUp() {
+        algorithm = new MCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(new TakeAwayStrategy());
+    }
+
+    @Test
+    public void testMatchingSubtreeBecomesTheRootWithItsStatistics() {
+        TakeState state = new TakeState(30, 3);
+        TakeAction action = algorithm.chooseAction(state);
+        MCTSNode<TakeState, TakeAction> child = algorithm.getRootNode().getChild(action);
+        int visits = child.getVisitCount();
+        double totalReward = child.getTotalReward();
+        int childCount = child.getChildCount();
+
+        state.applyAction(action);
+        algorithm.updateAfterAction(state, action);
+
+        assertSame(child, algorithm.getRootNode());
+        assertNull(child.getParentNode());
+        assertEquals(visits, child.getVisitCount());
+        assertEquals(totalReward, child.getTotalReward());
+        assertEquals(childCount, child.getChildCount());
+        assertEquals(countNodes(child), algorithm.getNodeCount());
+
+        algorithm.chooseAction(state);
+        assertSame(child, algorithm.getRootNode());
+        assertEquals(visits + ITERATIONS, child.getVisitCount());
+    }
+
+    @Test
+    public void testOpponentMoveIsFollowedInTheTree() {
+        TakeState state = new TakeState(30, 3);
+        TakeAction action = algorithm.chooseAction(state);
+        state.applyAction(action);
+        algorithm.updateAfterAction(state, action);
+        MCTSNode<TakeState, TakeAction> opponentRoot = algorithm.getRootNode();
+        TakeAction reply = opponentRoot.getChildNodes().keySet().iterator().next();
+        MCTSNode<TakeState, TakeAction> replyNode = opponentRoot.getChild(reply);
+
+        state.applyAction(reply);
+        algorithm.updateAfterAction(state, reply);
+
+        assertSame(replyNode, algorithm.getRootNode());
+        assertEquals(state, algorithm.getRootNode().getState());
+    }
+
+    @Test
+    public void testTreeIsResetWhenTheActionWasNeverExpanded() {
+        algorithm.setSearchBudget(SearchBudget.ofIterations(1));
+        TakeState state = new TakeState(30, 3);
+        algorithm.chooseAction(state);
+        MCTSNode<TakeState, TakeAction> root = algorithm.getRootNode();
+        assertEquals(1, root.getChildCount());
+        TakeAction unexpanded = root.getUntriedActions().get(0);
+
+        state.applyAction(unexpanded);
+        algorithm.updateAfterAction(state, unexpanded);
+
+        assertNull(algorithm.getRootNode());
+        assertEquals(0, algorithm.getNodeCount());
+        algorithm.chooseAction(state);
+        assertEquals(state, algorithm.getRootNode().getState());
+        assertEquals(1, algorithm.getRootNode().getVisitCount());
+    }
+
+    @Test
+    public void testTreeIsResetWhenTheStateDoesNotMatch() {
+        TakeState state = new TakeState(30, 3);
+        TakeAction action = algorithm.chooseAction(state);
+
+        algorithm.updateAfterAction(new TakeState(12, 3, 1), action);
+
+        assertNull(algorithm.getRootNode());
+    }
+
+    private static int countNodes(MCTSNode<TakeState, TakeAction> root) {
+        int count = 0;
+        Deque<MCTSNode<TakeState, TakeAction>> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(root);
+        while (!pendingNodes.isEmpty()) {
+            count++;
+            pendingNodes.addAll(pendingNodes.pop().getChildNodes().values());
+        }
+        return count;
+    }
+}
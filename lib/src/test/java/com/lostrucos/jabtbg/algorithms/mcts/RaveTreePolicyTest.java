@@ -0,0 +1,25 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.RaveTreePolicy.BetaSchedule;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RaveTreePolicyTest {
+
+    @Test
+    public void testHandSelectedScheduleHalvesAtEquivalence() {
+        BetaSchedule schedule = BetaSchedule.handSelected(100);
+        assertEquals(1.0, schedule.beta(0, 10), 1e-9);
+        assertEquals(0.5, schedule.beta(100, 10), 1e-9);
+        assertTrue(schedule.beta(10_000, 10) < 0.1);
+    }
+
+    @Test
+    public void testMinimumMeanSquaredErrorSchedule() {
+        BetaSchedule schedule = BetaSchedule.minimumMeanSquaredError(0.0);
+        assertEquals(0.0, schedule.beta(10, 0), 1e-9);
+        assertEquals(0.5, schedule.beta(10, 10), 1e-9);
+        assertTrue(BetaSchedule.minimumMeanSquaredError(0.5).beta(10, 10) < 0.5);
+    }
+}
@@ -0,0 +1,113 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.Strategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RolloutPolicyTest {
+    private static final int DRAWS = 1000;
+
+    private final TakeAwayStrategy strategy = new TakeAwayStrategy();
+    private final SplittableRandom random = new SplittableRandom(1);
+
+    @Test
+    public void testPlayStopsAtTheDepthLimit() {
+        RolloutPolicy<TakeState, TakeAction> policy = RolloutPolicy.uniformRandom();
+        TakeState state = new TakeState(60, 3);
+        List<TakeAction> playedActions = new ArrayList<>();
+
+        assertEquals(3, policy.play(state, 3, random, playedActions));
+
+        assertEquals(3, playedActions.size());
+        assertEquals(60 - playedActions.stream().mapToInt(TakeAction::stones).sum(), state.getPile());
+        assertEquals(0, policy.play(state, 0, random, null));
+        TakeState nearlyOver = new TakeState(2, 3);
+        assertEquals(1, RolloutPolicy.<TakeState, TakeAction>heavy(strategy).play(nearlyOver, 10, random, null));
+        assertTrue(nearlyOver.isTerminalNode());
+    }
+
+    @Test
+    public void testCutOffPlayoutIsScoredWithTheEvaluation() {
+        List<TakeState> scoredStates = new ArrayList<>();
+        MCTSAlgorithm<TakeAction, TakeState> algorithm = new MCTSAlgorithm<>(1, Math.sqrt(2), new SplittableRandom(1));
+        algorithm.setStrategy(new Strategy<>() {
+            @Override
+            public double calculateUtility(TakeState state, int playerIndex) {
+                scoredStates.add(GameState.copyOf(state));
+                return strategy.calculateUtility(state, playerIndex);
+            }
+
+            @Override
+            public List<TakeAction> suggestStrategicMoves(TakeState state, int currentPlayer) {
+                return strategy.suggestStrategicMoves(state, currentPlayer);
+            }
+        });
+        algorithm.setRolloutDepthLimit(2);
+        MCTSNode<TakeState, TakeAction> node = new MCTSNode<>(new TakeState(60, 3), null);
+        List<TakeAction> playedActions = new ArrayList<>();
+
+        double reward = algorithm.simulate(node, random, playedActions);
+
+        assertEquals(2, playedActions.size());
+        assertEquals(1, scoredStates.size());
+        TakeState scoredState = scoredStates.get(0);
+        assertFalse(scoredState.isTerminalNode());
+        assertEquals(60 - playedActions.get(0).stones() - playedActions.get(1).stones(), scoredState.getPile());
+        assertEquals(strategy.calculateUtility(scoredState, 0), reward);
+        assertEquals(60, node.getState().getPile());
+    }
+
+    @Test
+    public void testHeavyPolicyPlaysTheSuggestedMoves() {
+        RolloutPolicy<TakeState, TakeAction> policy = RolloutPolicy.heavy(strategy);
+        TakeState winning = new TakeState(10, 3);
+        TakeState losing = new TakeState(8, 3);
+        Set<Integer> losingTakes = new HashSet<>();
+
+        for (int i = 0; i < DRAWS; i++) {
+            assertEquals(2, policy.selectAction(winning, winning.getAvailableActions(0), random).stones());
+            losingTakes.add(policy.selectAction(losing, losing.getAvailableActions(0), random).stones());
+        }
+
+        // Without a suggestion, the heavy policy falls back to any random move
+        assertEquals(Set.of(1, 2, 3), losingTakes);
+    }
+
+    @Test
+    public void testEpsilonGreedyPolicyExploresWithTheGivenProbability() {
+        TakeState state = new TakeState(10, 3);
+        List<TakeAction> actions = state.getAvailableActions(0);
+        RolloutPolicy<TakeState, TakeAction> greedy = RolloutPolicy.epsilonGreedy(strategy, 0.0);
+        RolloutPolicy<TakeState, TakeAction> uniform = RolloutPolicy.epsilonGreedy(strategy, 1.0);
+        RolloutPolicy<TakeState, TakeAction> balanced = RolloutPolicy.epsilonGreedy(strategy, 0.5);
+        Set<Integer> uniformTakes = new HashSet<>();
+        int balancedSuggestions = 0;
+
+        for (int i = 0; i < DRAWS; i++) {
+            assertEquals(2, greedy.selectAction(state, actions, random).stones());
+            uniformTakes.add(uniform.selectAction(state, actions, random).stones());
+            if (balanced.selectAction(state, actions, random).stones() == 2) balancedSuggestions++;
+        }
+
+        assertEquals(Set.of(1, 2, 3), uniformTakes);
+        // The suggested move is played greedily half of the time, and drawn by a third of the random moves
+        assertEquals(2.0 / 3, (double) balancedSuggestions / DRAWS, 0.06);
+    }
+
+    @Test
+    public void testInvalidEpsilonIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RolloutPolicy.epsilonGreedy(strategy, -0.1));
+        assertThrows(IllegalArgumentException.class, () -> RolloutPolicy.epsilonGreedy(strategy, 1.1));
+    }
+}
@@ -0,0 +1,110 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RootParallelMCTSAlgorithmTest {
+    private static final int ITERATIONS = 1002;
+    private static final int NUM_THREADS = 4;
+
+    private RootParallelMCTSAlgorithm<TakeAction, TakeState> algorithm;
+
+    @BeforeEach
+    public void setUp() {
+        algorithm = new RootParallelMCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), NUM_THREADS);
+        algorithm.setStrategy(new TakeAwayStrategy());
+        algorithm.setSeed(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        algorithm.shutdown();
+    }
+
+    @Test
+    public void testBudgetIsSplitAmongTheTrees() {
+        algorithm.chooseAction(new TakeState(30, 3));
+
+        List<MCTSAlgorithm<TakeAction, TakeState>> workers = algorithm.getWorkers();
+        assertEquals(NUM_THREADS, workers.size());
+        int budgetIterations = 0;
+        for (MCTSAlgorithm<TakeAction, TakeState> worker : workers) {
+            int share = worker.getSearchBudget().getMaxIterations();
+            // 1002 iterations split four ways give two shares of 251 and two of 250
+            assertTrue(share == ITERATIONS / NUM_THREADS || share == ITERATIONS / NUM_THREADS + 1);
+            assertEquals(share, worker.getLastSearchIterations());
+            assertEquals(share, worker.getRootNode().getVisitCount());
+            budgetIterations += share;
+        }
+        assertEquals(ITERATIONS, budgetIterations);
+        assertEquals(ITERATIONS, algorithm.getLastSearchIterations());
+    }
+
+    @Test
+    public void testRootStatisticsAreMergedAcrossTheTrees() {
+        TakeAction action = algorithm.chooseAction(new TakeState(30, 3));
+
+        Map<TakeAction, double[]> mergedStatistics = algorithm.mergeRootStatistics();
+        for (Map.Entry<TakeAction, double[]> entry : mergedStatistics.entrySet()) {
+            double visits = 0;
+            double totalReward = 0;
+            for (MCTSAlgorithm<TakeAction, TakeState> worker : algorithm.getWorkers()) {
+                MCTSNode<TakeState, TakeAction> child = worker.getRootNode().getChild(entry.getKey());
+                if (child != null) {
+                    visits += child.getVisitCount();
+                    totalReward += child.getTotalReward();
+                }
+            }
+            assertEquals(visits, entry.getValue()[0]);
+            assertEquals(totalReward, entry.getValue()[1], 1e-9);
+        }
+        // Every iteration of every tree went through one child of its root
+        double mergedVisits = mergedStatistics.values().stream().mapToDouble(statistics -> statistics[0]).sum();
+        assertEquals(ITERATIONS, mergedVisits);
+        double[] best = mergedStatistics.get(action);
+        for (double[] statistics : mergedStatistics.values()) {
+            assertTrue(best[1] / best[0] >= statistics[1] / statistics[0]);
+        }
+    }
+
+    @Test
+    public void testTreesAreKeptOnlyWhileInSync() {
+        TakeState state = new TakeState(30, 3);
+        TakeAction action = algorithm.chooseAction(state);
+        List<MCTSAlgorithm<TakeAction, TakeState>> workers = new ArrayList<>(algorithm.getWorkers());
+        List<MCTSNode<TakeState, TakeAction>> subtrees = new ArrayList<>();
+        for (MCTSAlgorithm<TakeAction, TakeState> worker : workers) {
+            subtrees.add(worker.getRootNode().getChild(action));
+        }
+
+        state.applyAction(action);
+        algorithm.updateAfterAction(state, action);
+        algorithm.chooseAction(state);
+
+        // Every tree expanded the chosen action, so every worker reused its subtree
+        assertEquals(workers, algorithm.getWorkers());
+        for (int i = 0; i < workers.size(); i++) {
+            assertNotNull(subtrees.get(i));
+            assertSame(subtrees.get(i), workers.get(i).getRootNode());
+        }
+
+        TakeState otherState = new TakeState(20, 3);
+        algorithm.chooseAction(otherState);
+
+        // A state the trees are not at rebuilds every tree
+        for (int i = 0; i < workers.size(); i++) {
+            assertNotSame(workers.get(i), algorithm.getWorkers().get(i));
+            assertEquals(otherState, algorithm.getWorkers().get(i).getRootNode().getState());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchBudgetTest {
+
+    @Test
+    public void testIterationLimit() {
+        SearchBudget budget = SearchBudget.ofIterations(10);
+        assertTrue(budget.allowsIteration(9, 1_000_000, Long.MAX_VALUE - 1));
+        assertFalse(budget.allowsIteration(10, 1, 0));
+    }
+
+    @Test
+    public void testTimeLimit() {
+        SearchBudget budget = SearchBudget.ofTime(5, TimeUnit.MILLISECONDS);
+        assertTrue(budget.allowsIteration(Integer.MAX_VALUE - 1, 1, TimeUnit.MILLISECONDS.toNanos(5) - 1));
+        assertFalse(budget.allowsIteration(0, 1, TimeUnit.MILLISECONDS.toNanos(5)));
+    }
+
+    @Test
+    public void testFirstLimitReachedStopsTheSearch() {
+        SearchBudget budget = SearchBudget.ofIterations(100).withTimeLimit(1, TimeUnit.SECONDS).withNodeLimit(50);
+        assertTrue(budget.allowsIteration(10, 10, 0));
+        assertFalse(budget.allowsIteration(10, 50, 0));
+        assertFalse(budget.allowsIteration(100, 10, 0));
+        assertFalse(budget.allowsIteration(10, 10, TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    public void testSplit() {
+        SearchBudget budget = SearchBudget.ofIterations(10).withTimeLimit(20, TimeUnit.MILLISECONDS);
+        int totalIterations = 0;
+        for (int i = 0; i < 3; i++) {
+            SearchBudget share = budget.split(i, 3);
+            totalIterations += share.getMaxIterations();
+            assertEquals(budget.getTimeLimitNanos(), share.getTimeLimitNanos());
+        }
+        assertEquals(10, totalIterations);
+        assertEquals(Integer.MAX_VALUE, SearchBudget.ofTime(1, TimeUnit.SECONDS).split(0, 4).getMaxIterations());
+    }
+
+    @Test
+    public void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> SearchBudget.ofIterations(-1));
+        assertThrows(IllegalArgumentException.class, () -> SearchBudget.ofIterations(1).withNodeLimit(0));
+    }
+}
@@ -0,0 +1,141 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.core.Action;
+import com.lostrucos.jabtbg.core.GameState;
+import com.lostrucos.jabtbg.core.Strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The take-away game, used to check the MCTS algorithms on a game whose solution is known.
+ * Two players take turns removing between 1 and a maximum number of stones from a pile, and the player taking
+ * the last stone wins. The player to move loses exactly when the pile is a multiple of the maximum plus one,
+ * and the winning move is to leave such a pile. Taking the same stones in a different order reaches the same state,
+ * and a large maximum gives a large branching factor.
+ */
+final class TakeAwayGame {
+
+    private TakeAwayGame() {
+    }
+
+    record TakeAction(int player, int stones) implements Action {
+        @Override
+        public int getPlayer() {
+            return player;
+        }
+    }
+
+    static final class TakeState implements GameState<TakeAction> {
+        private final int maxTake;
+        private int pile;
+        private int currentPlayer;
+
+        TakeState(int pile, int maxTake) {
+            this(pile, maxTake, 0);
+        }
+
+        TakeState(int pile, int maxTake, int currentPlayer) {
+            this.pile = pile;
+            this.maxTake = maxTake;
+            this.currentPlayer = currentPlayer;
+        }
+
+        int getPile() {
+            return pile;
+        }
+
+        /**
+         * Tells whether the player to move loses against a perfect opponent.
+         */
+        boolean isLost() {
+            return pile % (maxTake + 1) == 0;
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return currentPlayer;
+        }
+
+        @Override
+        public boolean isTerminalNode() {
+            return pile == 0;
+        }
+
+        @Override
+        public boolean isTie() {
+            return false;
+        }
+
+        @Override
+        public GameState<TakeAction> applyAction(TakeAction action) {
+            pile -= action.stones();
+            currentPlayer = 1 - currentPlayer;
+            return this;
+        }
+
+        @Override
+        public GameState<TakeAction> deepCopy() {
+            return new TakeState(pile, maxTake, currentPlayer);
+        }
+
+        @Override
+        public List<TakeAction> getAvailableActions(int playerIndex) {
+            List<TakeAction> actions = new ArrayList<>();
+            for (int stones = 1; stones <= Math.min(maxTake, pile); stones++) {
+                actions.add(new TakeAction(playerIndex, stones));
+            }
+            return actions;
+        }
+
+        @Override
+        public double getUtility(int playerIndex) {
+            return playerIndex == currentPlayer ? 0.0 : 1.0;
+        }
+
+        @Override
+        public List<Integer> getPlayersInGame() {
+            return List.of(0, 1);
+        }
+
+        @Override
+        public boolean isPlayerStillInGame(int player) {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TakeState that && that.pile == pile && that.maxTake == maxTake && that.currentPlayer == currentPlayer;
+        }
+
+        @Override
+        public int hashCode() {
+            return (pile * 31 + maxTake) * 2 + currentPlayer;
+        }
+
+        @Override
+        public String toString() {
+            return pile + "/" + maxTake + ":" + currentPlayer;
+        }
+    }
+
+    /**
+     * Scores states with their exact value, so that a playout cut off early is scored correctly.
+     * As the search expects, the score is the reward of the opponent of the given player, who moved into the leaf
+     * when the given player is the one to move in it: 1 if the opponent wins against a perfect player, 0 otherwise.
+     * The suggested move is the winning one, if any.
+     */
+    static final class TakeAwayStrategy implements Strategy<TakeState, TakeAction> {
+        @Override
+        public double calculateUtility(TakeState state, int playerIndex) {
+            boolean playerToMoveLoses = state.isLost();
+            return (playerIndex == state.getCurrentPlayer()) == playerToMoveLoses ? 1.0 : 0.0;
+        }
+
+        @Override
+        public List<TakeAction> suggestStrategicMoves(TakeState state, int currentPlayer) {
+            int winningTake = state.pile % (state.maxTake + 1);
+            return winningTake == 0 ? List.of() : List.of(new TakeAction(currentPlayer, winningTake));
+        }
+    }
+}
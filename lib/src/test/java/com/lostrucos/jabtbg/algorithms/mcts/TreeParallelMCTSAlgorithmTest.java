@@ -0,0 +1,80 @@
+package com.lostrucos.jabtbg.algorithms.mcts;
+
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAction;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeAwayStrategy;
+import com.lostrucos.jabtbg.algorithms.mcts.TakeAwayGame.TakeState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TreeParallelMCTSAlgorithmTest {
+    private static final int ITERATIONS = 4000;
+    private static final int NUM_THREADS = 4;
+
+    private final TakeAwayStrategy strategy = new TakeAwayStrategy();
+    private TreeParallelMCTSAlgorithm<TakeAction, TakeState> algorithm;
+
+    @BeforeEach
+    public void setUp() {
+        algorithm = new TreeParallelMCTSAlgorithm<>(ITERATIONS, Math.sqrt(2), NUM_THREADS);
+        algorithm.setStrategy(strategy);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        algorithm.shutdown();
+    }
+
+    @Test
+    public void testEveryIterationIsBackpropagatedOnce() {
+        TakeAction action = algorithm.chooseAction(new TakeState(60, 3));
+
+        assertNotNull(action);
+        assertEquals(ITERATIONS, algorithm.getLastSearchIterations());
+        assertSharedTreeIsConsistent(algorithm.getRootNode());
+    }
+
+    @Test
+    public void testEveryBatchIsBackpropagatedOnce() {
+        algorithm.setLeafEvaluator((states, random) ->
+                states.stream().mapToDouble(state -> strategy.calculateUtility(state, state.getCurrentPlayer())).toArray(), 8);
+
+        algorithm.chooseAction(new TakeState(60, 3));
+
+        assertEquals(ITERATIONS, algorithm.getLastSearchIterations());
+        assertSharedTreeIsConsistent(algorithm.getRootNode());
+    }
+
+    @Test
+    public void testThreadsFindTheWinningMove() {
+        TakeAction action = algorithm.chooseAction(new TakeState(10, 3));
+
+        assertEquals(2, action.stones());
+    }
+
+    /**
+     * Checks that the root was visited once per iteration, that a node never passed on more visits to its children
+     * than it received, not counting the iteration that expanded it, and that no virtual loss is left in the tree.
+     */
+    private static void assertSharedTreeIsConsistent(MCTSNode<TakeState, TakeAction> root) {
+        assertEquals(ITERATIONS, root.getVisitCount());
+        Deque<MCTSNode<TakeState, TakeAction>> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(root);
+        while (!pendingNodes.isEmpty()) {
+            MCTSNode<TakeState, TakeAction> node = pendingNodes.pop();
+            assertEquals(0, node.getVirtualLoss());
+            int childVisits = 0;
+            for (MCTSNode<TakeState, TakeAction> child : node.getChildNodes().values()) {
+                assertTrue(child.getVisitCount() > 0);
+                childVisits += child.getVisitCount();
+                pendingNodes.push(child);
+            }
+            assertTrue(childVisits <= (node == root ? node.getVisitCount() : node.getVisitCount() - 1));
+        }
+    }
+}